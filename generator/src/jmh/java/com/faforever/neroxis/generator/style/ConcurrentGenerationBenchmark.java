@@ -0,0 +1,46 @@
+package com.faforever.neroxis.generator.style;
+
+import com.faforever.neroxis.generator.GeneratorParameters;
+import com.faforever.neroxis.map.SCMap;
+import com.faforever.neroxis.map.Symmetry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how many maps per minute can be generated when several generations share the pipeline pool
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Threads(4)
+public class ConcurrentGenerationBenchmark {
+    private final AtomicLong seed = new AtomicLong();
+    @Param({"256", "512"})
+    private int mapSize;
+    private GeneratorParameters generatorParameters;
+
+    @Setup
+    public void setup() {
+        generatorParameters = GeneratorParameters.builder()
+                                                 .spawnCount(2)
+                                                 .numTeams(2)
+                                                 .mapSize(mapSize)
+                                                 .terrainSymmetry(Symmetry.POINT2)
+                                                 .build();
+    }
+
+    @Benchmark
+    public SCMap generateMap() {
+        return new BasicStyleGenerator().generate(generatorParameters, seed.getAndIncrement());
+    }
+}
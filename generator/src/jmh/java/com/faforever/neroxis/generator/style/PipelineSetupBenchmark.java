@@ -0,0 +1,48 @@
+package com.faforever.neroxis.generator.style;
+
+import com.faforever.neroxis.generator.GeneratorParameters;
+import com.faforever.neroxis.generator.MapStyle;
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.util.Pipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to enqueue every mask operation of a style into the {@link Pipeline}
+ * without running any of them
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PipelineSetupBenchmark {
+    @Param({"BASIC", "BIG_ISLANDS", "SMALL_ISLANDS", "LAND_BRIDGE", "CENTER_LAKE", "VALLEY"})
+    private MapStyle mapStyle;
+    @Param({"1024"})
+    private int mapSize;
+    private GeneratorParameters generatorParameters;
+
+    @Setup
+    public void setup() {
+        generatorParameters = GeneratorParameters.builder()
+                                                 .spawnCount(2)
+                                                 .numTeams(2)
+                                                 .mapSize(mapSize)
+                                                 .terrainSymmetry(Symmetry.POINT2)
+                                                 .build();
+    }
+
+    @Benchmark
+    public int setupPipeline() {
+        StyleGenerator styleGenerator = mapStyle.getGeneratorSupplier().get();
+        styleGenerator.initializePipeline(generatorParameters, 1234);
+        return styleGenerator.getPipeline().getPipelineSize();
+    }
+}
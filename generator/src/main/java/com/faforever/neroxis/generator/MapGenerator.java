@@ -1,5 +1,6 @@
 package com.faforever.neroxis.generator;
 
+import com.faforever.neroxis.biomes.Biomes;
 import com.faforever.neroxis.cli.CLIUtils;
 import com.faforever.neroxis.cli.DebugMixin;
 import com.faforever.neroxis.cli.OutputFolderMixin;
@@ -20,8 +21,10 @@ import com.faforever.neroxis.map.DecalGroup;
 import com.faforever.neroxis.map.Marker;
 import com.faforever.neroxis.map.SCMap;
 import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.mask.Mask;
 import com.faforever.neroxis.util.DebugUtil;
 import com.faforever.neroxis.util.FileUtil;
+import com.faforever.neroxis.util.ImageUtil;
 import com.faforever.neroxis.util.MathUtil;
 import com.faforever.neroxis.util.Pipeline;
 import com.faforever.neroxis.util.vector.Vector2;
@@ -86,6 +89,9 @@ public class MapGenerator implements Callable<Integer> {
             numToGenerateParser.setAbbreviatedOptionsAllowed(true);
             numToGenerateParser.setUnmatchedArgumentsAllowed(true);
             int numToGenerate = numToGenerateParser.parseArgs(args).matchedOptionValue("num-to-generate", 1);
+            if (numToGenerate > 1) {
+                Biomes.preloadBiomes();
+            }
 
             for (int i = 0; i < numToGenerate; i++) {
                 exitIfError(execute(args));
@@ -114,6 +120,16 @@ public class MapGenerator implements Callable<Integer> {
         this.previewFolder = previewFolder;
     }
 
+    @Option(names = "--row-parallel", order = 10001, description = "Split large per pixel mask operations into bands of rows processed on all cores")
+    private void setRowParallel(boolean rowParallel) {
+        Mask.ROW_PARALLEL = rowParallel;
+    }
+
+    @Option(names = "--fast-dds", order = 10002, description = "Compress the exported dds images with a faster but lower quality encoder, meant for previews and debugging")
+    private void setFastDDS(boolean fastDDS) {
+        ImageUtil.FAST_DDS_COMPRESSION = fastDDS;
+    }
+
     @Command(name = "biomes", aliases = {
             "--biomes"}, description = "DEPRECATED", versionProvider = VersionProvider.class, usageHelpAutoWidth = true)
     private void printBiomes() {}
@@ -563,7 +579,10 @@ public class MapGenerator implements Callable<Integer> {
                 startTime = System.currentTimeMillis();
                 Files.createDirectory(outputPath.resolve(mapName).resolve("debug"));
                 SCMapExporter.exportSCMapString(outputPath, mapName, map);
-                Pipeline.toFile(outputPath.resolve(mapName).resolve("debug").resolve("pipelineMaskHashes.txt"));
+                styleGenerator.getPipeline()
+                              .toFile(outputPath.resolve(mapName).resolve("debug").resolve("pipelineMaskHashes.txt"));
+                styleGenerator.getPipeline()
+                              .toTraceFile(outputPath.resolve(mapName).resolve("debug").resolve("pipelineTrace.json"));
                 toFile(outputPath.resolve(mapName).resolve("debug").resolve("generatorParams.txt"));
                 System.out.printf("Debug export done: %d ms\n", System.currentTimeMillis() - startTime);
             }
@@ -1,5 +1,6 @@
 package com.faforever.neroxis.generator.style;
 
+import com.faforever.neroxis.biomes.Biome;
 import com.faforever.neroxis.generator.GeneratorParameters;
 import com.faforever.neroxis.generator.Visibility;
 import com.faforever.neroxis.generator.WeightedOption;
@@ -50,6 +51,8 @@ public abstract class StyleGenerator implements HasParameterConstraints {
     private SCMap map;
     private Random random;
 
+    @Getter
+    private Pipeline pipeline;
     @Getter
     private GeneratorParameters generatorParameters;
     @Getter
@@ -113,23 +116,25 @@ public abstract class StyleGenerator implements HasParameterConstraints {
     }
 
     public SCMap generate(GeneratorParameters generatorParameters, long seed) {
-        initialize(generatorParameters, seed);
-        setupPipeline();
+        initializePipeline(generatorParameters, seed);
 
         random = null;
 
-        Pipeline.start();
+        pipeline.start();
 
-        CompletableFuture<Void> heightMapFuture = CompletableFuture.runAsync(terrainGenerator::setHeightmapImage);
-        CompletableFuture<Void> textureFuture = CompletableFuture.runAsync(textureGenerator::setTextures);
-        CompletableFuture<Void> normalFuture = CompletableFuture.runAsync(textureGenerator::setCompressedDecals);
+        CompletableFuture<Void> heightMapFuture = runAsync(terrainGenerator::setHeightmapImage);
+        CompletableFuture<Void> textureFuture = runAsync(textureGenerator::setTextures);
+        CompletableFuture<Void> normalFuture = runAsync(textureGenerator::setCompressedDecals);
 
-        CompletableFuture<Void> resourcesFuture = CompletableFuture.runAsync(resourceGenerator::placeResources);
-        CompletableFuture<Void> decalsFuture = CompletableFuture.runAsync(decalGenerator::placeDecals);
-        CompletableFuture<Void> propsFuture = resourcesFuture.thenAccept(aVoid -> propGenerator.placeProps());
-        CompletableFuture<Void> unitsFuture = resourcesFuture.thenAccept(aVoid -> propGenerator.placeUnits());
+        CompletableFuture<Void> resourcesFuture = runAsync(resourceGenerator::placeResources);
+        CompletableFuture<Void> decalsFuture = runAsync(decalGenerator::placeDecals);
+        CompletableFuture<Void> propsFuture = resourcesFuture.thenRun(
+                () -> pipeline.runInContext(propGenerator::placeProps));
+        CompletableFuture<Void> unitsFuture = resourcesFuture.thenRun(
+                () -> pipeline.runInContext(propGenerator::placeUnits));
 
-        CompletableFuture<Void> previewFuture = propsFuture.thenAccept(aVoid -> textureGenerator.generatePreview());
+        CompletableFuture<Void> previewFuture = propsFuture.thenRun(
+                () -> pipeline.runInContext(textureGenerator::generatePreview));
 
         CompletableFuture<Void> placementFuture = CompletableFuture.allOf(heightMapFuture, textureFuture, previewFuture,
                                                                           resourcesFuture, decalsFuture, propsFuture,
@@ -137,11 +142,29 @@ public abstract class StyleGenerator implements HasParameterConstraints {
                                                                    .thenAccept(aVoid -> setHeights());
 
         placementFuture.join();
-        Pipeline.join();
+        pipeline.join();
 
         return map;
     }
 
+    private CompletableFuture<Void> runAsync(Runnable runnable) {
+        return CompletableFuture.runAsync(() -> pipeline.runInContext(runnable));
+    }
+
+    /**
+     * Selects the sub generators and enqueues all of their mask operations without starting the pipeline
+     *
+     * @param generatorParameters parameters of the map to generate
+     * @param seed                seed used to select the generators and build the masks
+     */
+    public void initializePipeline(GeneratorParameters generatorParameters, long seed) {
+        pipeline = new Pipeline();
+        pipeline.runInContext(() -> {
+            initialize(generatorParameters, seed);
+            setupPipeline();
+        });
+    }
+
     private void initialize(GeneratorParameters generatorParameters, long seed) {
         random = new Random(seed);
         this.generatorParameters = generatorParameters;
@@ -160,12 +183,12 @@ public abstract class StyleGenerator implements HasParameterConstraints {
                                                                                    generatorParameters.terrainSymmetry(),
                                                                                    generatorParameters.spawnCount(),
                                                                                    generatorParameters.numTeams());
-        map = new SCMap(generatorParameters.mapSize(), textureGenerator.loadBiome());
+        Biome biome = DebugUtil.timedRun("com.faforever.neroxis.map.generator", "loadBiome",
+                                         textureGenerator::loadBiome);
+        map = new SCMap(generatorParameters.mapSize(), biome);
         map.setUnexplored(generatorParameters.visibility() == Visibility.UNEXPLORED);
         map.setGeneratePreview(generatorParameters.visibility() != Visibility.BLIND && !map.isUnexplored());
 
-        Pipeline.reset();
-
         spawnPlacer = new SpawnPlacer(map, random.nextLong());
     }
 
@@ -1,6 +1,7 @@
 package com.faforever.neroxis.generator;
 
 import com.faforever.neroxis.exporter.PreviewGenerator;
+import com.faforever.neroxis.exporter.SCMapExporter;
 import com.faforever.neroxis.generator.cli.CustomStyleOptions;
 import com.faforever.neroxis.generator.style.CustomStyleGenerator;
 import com.faforever.neroxis.map.Army;
@@ -11,7 +12,6 @@ import com.faforever.neroxis.util.DebugUtil;
 import com.faforever.neroxis.util.FileUtil;
 import com.faforever.neroxis.util.ImageUtil;
 import com.faforever.neroxis.util.MathUtil;
-import com.faforever.neroxis.util.Pipeline;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.RepeatedTest;
@@ -27,9 +27,13 @@ import picocli.CommandLine;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.Random;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -44,6 +48,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 @Execution(ExecutionMode.SAME_THREAD)
 public class MapGeneratorTest {
     public static final int NUM_DETERMINISM_REPEATS = 3;
+    // Size and SHA-256 of the scmap of the keyword arguments map, as written by the stream based exporter
+    private static final int EXPORTED_MAP_SIZE = 1127355;
+    private static final String EXPORTED_MAP_HASH = "6dd47849ba24a603b39d2dcfea077d528adbac4923ad111f7c8b1af6c33f4d84";
     String mapName = "neroxis_map_generator_snapshot_aaaaaaaaaacne_aicaedyaaeaqeek5";
     long seed = 1234;
     byte spawnCount = 2;
@@ -114,7 +121,7 @@ public class MapGeneratorTest {
         assertEquals(instance.getGeneratorParameters(), instance.getStyleGenerator().getGeneratorParameters());
 
         SCMap map1 = instance.getMap();
-        String[] hashArray1 = Pipeline.getHashArray().clone();
+        String[] hashArray1 = instance.getStyleGenerator().getPipeline().getHashArray();
 
         instance = new MapGenerator();
 
@@ -122,25 +129,38 @@ public class MapGeneratorTest {
         assertEquals(instance.getGeneratorParameters(), instance.getStyleGenerator().getGeneratorParameters());
 
         SCMap map2 = instance.getMap();
-        String[] hashArray2 = Pipeline.getHashArray().clone();
+        String[] hashArray2 = instance.getStyleGenerator().getPipeline().getHashArray();
 
         assertSCMapEquality(map1, map2);
         assertArrayEquals(hashArray1, hashArray2);
     }
 
+    @Test
+    public void TestExportedMapMatchesFixture() throws IOException, NoSuchAlgorithmException {
+        new CommandLine(instance).execute(keywordArgs);
+        SCMap map = instance.getMap();
+        ByteBuffer buffer = SCMapExporter.toByteBuffer(map);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+
+        assertEquals(EXPORTED_MAP_SIZE, bytes.length);
+        assertEquals(EXPORTED_MAP_HASH, toSha256(bytes));
+        assertArrayEquals(bytes, Files.readAllBytes(Path.of(map.getFolderName(), map.getFilePrefix() + ".scmap")));
+    }
+
     @Test
     public void TestMultipleGenerationDeterminism() {
         instance = new MapGenerator();
         new CommandLine(instance).execute("--num-to-generate", "2", "--map-size", "256");
         assertEquals(instance.getGeneratorParameters(), instance.getStyleGenerator().getGeneratorParameters());
         SCMap map1 = instance.getMap();
-        String[] hashArray1 = Pipeline.getHashArray().clone();
+        String[] hashArray1 = instance.getStyleGenerator().getPipeline().getHashArray();
 
         instance = new MapGenerator();
         new CommandLine(instance).execute("--map-name", map1.getName());
         assertEquals(instance.getGeneratorParameters(), instance.getStyleGenerator().getGeneratorParameters());
         SCMap map2 = instance.getMap();
-        String[] hashArray2 = Pipeline.getHashArray().clone();
+        String[] hashArray2 = instance.getStyleGenerator().getPipeline().getHashArray();
 
         assertArrayEquals(hashArray1, hashArray2);
         assertSCMapEquality(map1, map2);
@@ -639,6 +659,10 @@ public class MapGeneratorTest {
         }
     }
 
+    private static String toSha256(byte[] bytes) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
     private void assertSCMapEquality(SCMap map1, SCMap map2) {
         assertEquals(map1.getName(), map2.getName());
         assertEquals(map1.getSpawns(), map2.getSpawns());
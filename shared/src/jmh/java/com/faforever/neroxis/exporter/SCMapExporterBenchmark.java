@@ -0,0 +1,56 @@
+package com.faforever.neroxis.exporter;
+
+import com.faforever.neroxis.biomes.BiomeName;
+import com.faforever.neroxis.biomes.Biomes;
+import com.faforever.neroxis.map.SCMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serializing a map to scmap bytes in memory and writing it to disk
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SCMapExporterBenchmark {
+    @Param({"1024", "2048"})
+    private int size;
+    private SCMap map;
+    private Path folderPath;
+
+    @Setup
+    public void setup() throws IOException {
+        map = new SCMap(size, Biomes.loadBiome(BiomeName.DESERT));
+        map.setFilePrefix("benchmark");
+        folderPath = Files.createTempDirectory("scmap_benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(folderPath.resolve(map.getFilePrefix() + ".scmap"));
+        Files.deleteIfExists(folderPath);
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        return SCMapExporter.toByteBuffer(map);
+    }
+
+    @Benchmark
+    public void export() throws IOException {
+        SCMapExporter.exportSCMAP(folderPath, map);
+    }
+}
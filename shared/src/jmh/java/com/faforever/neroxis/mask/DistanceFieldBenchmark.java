@@ -0,0 +1,47 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parabolic distance transform behind the distance fields, on one thread and split into bands of rows
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DistanceFieldBenchmark {
+    @Param({"512", "1024", "2048"})
+    private int size;
+    @Param({"false", "true"})
+    private boolean rowParallel;
+    private BooleanMask sparseMask;
+    private BooleanMask denseMask;
+
+    @Setup
+    public void setup() {
+        Mask.ROW_PARALLEL = rowParallel;
+        SymmetrySettings symmetrySettings = new SymmetrySettings(Symmetry.POINT2);
+        sparseMask = new BooleanMask(size, 0L, symmetrySettings, "sparse", false).randomize(.001f);
+        denseMask = new BooleanMask(size, 1L, symmetrySettings, "dense", false).randomize(.3f);
+    }
+
+    @Benchmark
+    public FloatMask distanceFieldSparse() {
+        return sparseMask.copyAsDistanceField();
+    }
+
+    @Benchmark
+    public FloatMask distanceFieldDense() {
+        return denseMask.copyAsDistanceField();
+    }
+}
@@ -0,0 +1,75 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the blur and morphology kernels across radii to show their cost does not grow with the radius
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class KernelBenchmark {
+    @Param({"1024"})
+    private int size;
+    @Param({"2", "8", "16", "32", "64"})
+    private int radius;
+    private FloatMask initialFloatMask;
+    private IntegerMask initialIntegerMask;
+    private BooleanMask initialBooleanMask;
+    private FloatMask floatMask;
+    private IntegerMask integerMask;
+    private BooleanMask booleanMask;
+
+    @Setup
+    public void setup() {
+        SymmetrySettings symmetrySettings = new SymmetrySettings(Symmetry.NONE);
+        initialFloatMask = new FloatMask(size, 0L, symmetrySettings, "initialFloat", false).addWhiteNoise(1f);
+        initialIntegerMask = new IntegerMask(size, 1L, symmetrySettings, "initialInteger", false).set(
+                (x, y) -> (x * y) % 11);
+        initialBooleanMask = new BooleanMask(size, 2L, symmetrySettings, "initialBoolean", false).randomize(.01f);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        floatMask = initialFloatMask.copy();
+        integerMask = initialIntegerMask.copy();
+        booleanMask = initialBooleanMask.copy();
+    }
+
+    @Benchmark
+    public FloatMask blurFloat() {
+        return floatMask.blur(radius);
+    }
+
+    @Benchmark
+    public IntegerMask blurInteger() {
+        return integerMask.blur(radius);
+    }
+
+    @Benchmark
+    public BooleanMask blurBoolean() {
+        return booleanMask.blur(radius, .25f);
+    }
+
+    @Benchmark
+    public BooleanMask inflateBoolean() {
+        return booleanMask.inflate(radius);
+    }
+
+    @Benchmark
+    public BooleanMask deflateBoolean() {
+        return booleanMask.deflate(radius);
+    }
+}
@@ -0,0 +1,82 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the element wise and neighbourhood operations of the primitive masks outside of a pipeline
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PrimitiveMaskBenchmark {
+    @Param({"512", "1024", "2048"})
+    private int size;
+    private FloatMask initialFloatMask;
+    private IntegerMask initialIntegerMask;
+    private FloatMask floatMask;
+    private FloatMask otherFloatMask;
+    private IntegerMask integerMask;
+    private IntegerMask otherIntegerMask;
+
+    @Setup
+    public void setup() {
+        SymmetrySettings symmetrySettings = new SymmetrySettings(Symmetry.NONE);
+        initialFloatMask = new FloatMask(size, 0L, symmetrySettings, "initialFloat", false).addWhiteNoise(1f);
+        otherFloatMask = new FloatMask(size, 1L, symmetrySettings, "otherFloat", false).addWhiteNoise(1f, 2f);
+        initialIntegerMask = new IntegerMask(size, 2L, symmetrySettings, "initialInteger", false).set(
+                (x, y) -> (x + y) % 7);
+        otherIntegerMask = new IntegerMask(size, 3L, symmetrySettings, "otherInteger", false).set(
+                (x, y) -> (x * y) % 5 + 1);
+    }
+
+    /**
+     * Restores the masks as repeated in place operations would otherwise drift into infinite or denormal values
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        floatMask = initialFloatMask.copy();
+        integerMask = initialIntegerMask.copy();
+    }
+
+    @Benchmark
+    public FloatMask addFloat() {
+        return floatMask.add(otherFloatMask);
+    }
+
+    @Benchmark
+    public FloatMask multiplyFloat() {
+        return floatMask.multiply(otherFloatMask);
+    }
+
+    @Benchmark
+    public FloatMask blurFloat() {
+        return floatMask.blur(8);
+    }
+
+    @Benchmark
+    public FloatMask gradientFloat() {
+        return floatMask.gradient();
+    }
+
+    @Benchmark
+    public IntegerMask addInteger() {
+        return integerMask.add(otherIntegerMask);
+    }
+
+    @Benchmark
+    public IntegerMask multiplyInteger() {
+        return integerMask.multiply(otherIntegerMask);
+    }
+}
@@ -0,0 +1,79 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.brushes.Brushes;
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rescaling masks and stamping brushes onto them, which both remap coordinates for every pixel, against the
+ * filtered resampling. Run with {@code -prof gc} to see the allocation per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResizeBenchmark {
+    @Param({"256", "512"})
+    private int size;
+    private FloatMask initialMask;
+    private FloatMask mask;
+    private BooleanMask area;
+
+    @Setup
+    public void setup() {
+        SymmetrySettings symmetrySettings = new SymmetrySettings(Symmetry.POINT2);
+        initialMask = new FloatMask(size, 0L, symmetrySettings, "initial", false).addWhiteNoise(1f);
+        area = new BooleanMask(size, 1L, symmetrySettings, "area", false).randomize(.1f);
+    }
+
+    /**
+     * Restores the mask as resizing and stamping change it in place
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        mask = initialMask.copy();
+    }
+
+    @Benchmark
+    public FloatMask setSizeUp() {
+        return mask.setSize(size * 4);
+    }
+
+    @Benchmark
+    public FloatMask setSizeDown() {
+        return mask.setSize(size / 4);
+    }
+
+    @Benchmark
+    public FloatMask resample() {
+        return mask.resample(size * 4);
+    }
+
+    @Benchmark
+    public FloatMask copyAsResampledUp() {
+        return mask.copyAsResampled(size * 4);
+    }
+
+    /**
+     * Shrinks the unchanged initial mask so that every call after the first starts from its cached halved copies
+     */
+    @Benchmark
+    public FloatMask copyAsResampledDown() {
+        return initialMask.copyAsResampled(size / 8 + 1);
+    }
+
+    @Benchmark
+    public FloatMask useBrushWithinArea() {
+        return mask.useBrushWithinArea(area, Brushes.GENERATOR_BRUSHES.getFirst(), size / 8, 64, 1f, false);
+    }
+}
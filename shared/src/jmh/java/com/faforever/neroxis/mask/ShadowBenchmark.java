@@ -0,0 +1,46 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.biomes.BiomeName;
+import com.faforever.neroxis.biomes.Biomes;
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import com.faforever.neroxis.util.vector.Vector3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures casting shadows over a rolling heightmap for the sun direction of every biome, as the length of the
+ * shadows depends on the elevation of the sun.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ShadowBenchmark {
+    @Param({"512", "1024"})
+    private int size;
+    @Param
+    private BiomeName biome;
+    private FloatMask heightmap;
+    private Vector3 sunDirection;
+
+    @Setup
+    public void setup() {
+        heightmap = new FloatMask(size, 0L, new SymmetrySettings(Symmetry.POINT2), "heightmap", false)
+                .addPerlinNoise(size / 16, 40f)
+                .blur(2);
+        sunDirection = Biomes.loadBiome(biome).lightingSettings().sunDirection();
+    }
+
+    @Benchmark
+    public BooleanMask copyAsShadowMask() {
+        return heightmap.copyAsShadowMask(sunDirection);
+    }
+}
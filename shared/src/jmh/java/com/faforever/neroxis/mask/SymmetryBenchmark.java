@@ -0,0 +1,63 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing masks through their symmetry points. Run with {@code -prof gc} to see the allocation per pixel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SymmetryBenchmark {
+    @Param({"512", "1024"})
+    private int size;
+    @Param({"POINT2", "POINT4", "POINT6", "QUAD"})
+    private Symmetry symmetry;
+    private FloatMask floatMask;
+    private BooleanMask booleanMask;
+    private NormalMask normalMask;
+
+    @Setup
+    public void setup() {
+        SymmetrySettings symmetrySettings = new SymmetrySettings(symmetry);
+        floatMask = new FloatMask(size, 0L, symmetrySettings, "float", false).addWhiteNoise(1f);
+        booleanMask = new BooleanMask(size, 1L, symmetrySettings, "boolean", false).randomize(.5f);
+        normalMask = floatMask.copyAsNormalMask();
+    }
+
+    @Benchmark
+    public FloatMask forceSymmetryFloat() {
+        return floatMask.forceSymmetry();
+    }
+
+    @Benchmark
+    public BooleanMask forceSymmetryBoolean() {
+        return booleanMask.forceSymmetry();
+    }
+
+    @Benchmark
+    public NormalMask forceSymmetryNormal() {
+        return normalMask.forceSymmetry();
+    }
+
+    @Benchmark
+    public FloatMask setSizeFloat() {
+        return floatMask.copy().setSize(size * 2);
+    }
+
+    @Benchmark
+    public BooleanMask randomizeBoolean() {
+        return booleanMask.randomize(.5f);
+    }
+}
@@ -0,0 +1,72 @@
+package com.faforever.neroxis.util;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import com.faforever.neroxis.mask.FloatMask;
+import com.faforever.neroxis.mask.NormalMask;
+import com.faforever.neroxis.mask.Vector4Mask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding masks into the byte layouts used by the map exports. Run with {@code -prof gc} to see the
+ * allocation per export in gc.alloc.rate.norm. The DDS encoders use the fast fit so the encoding is not hidden by
+ * the compression.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImageUtilBenchmark {
+    @Param({"1024", "2048"})
+    private int size;
+    private NormalMask normalMask;
+    private Vector4Mask vector4Mask;
+    private FloatMask waterDepth;
+    private FloatMask shadowMask;
+
+    @Setup
+    public void setup() {
+        SymmetrySettings symmetrySettings = new SymmetrySettings(Symmetry.NONE);
+        FloatMask heightmap = new FloatMask(size, 0L, symmetrySettings, "heightmap", false).addPerlinNoise(64, 20f);
+        normalMask = heightmap.copyAsNormalMask();
+        vector4Mask = new Vector4Mask(size, 1L, symmetrySettings, "vector4", false).randomize(0f, 255f);
+        waterDepth = heightmap.copy().clampMin(0f).divide(20f);
+        shadowMask = heightmap.copy().clampMax(1f).clampMin(0f);
+        ImageUtil.FAST_DDS_COMPRESSION = true;
+    }
+
+    @TearDown
+    public void tearDown() {
+        ImageUtil.FAST_DDS_COMPRESSION = false;
+    }
+
+    @Benchmark
+    public byte[] compressNormal() {
+        return ImageUtil.compressNormal(normalMask);
+    }
+
+    @Benchmark
+    public byte[] compressVector4() {
+        return ImageUtil.compressVector4(vector4Mask);
+    }
+
+    @Benchmark
+    public BufferedImage normalToARGB() {
+        return ImageUtil.normalToARGB(normalMask);
+    }
+
+    @Benchmark
+    public BufferedImage getMapwideTexture() {
+        return ImageUtil.getMapwideTexture(normalMask, waterDepth, shadowMask);
+    }
+}
@@ -0,0 +1,66 @@
+package com.faforever.neroxis.util.jsquish;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import com.faforever.neroxis.mask.FloatMask;
+import com.faforever.neroxis.mask.NormalMask;
+import com.faforever.neroxis.util.vector.Vector3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the DXT5 colour fits on a terrain normal map laid out like the exported one. The root mean square error
+ * of the decompressed image is printed once per fit so the speed can be weighed against the quality.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SquishCompressorBenchmark {
+    @Param({"512", "1024"})
+    private int size;
+    @Param({"CLUSTER_FIT", "RANGE_FIT", "BOUNDING_BOX_FIT"})
+    private Squish.CompressionMethod method;
+    private SquishCompressor compressor;
+    private byte[] rgba;
+    private byte[] blocks;
+
+    @Setup
+    public void setup() {
+        NormalMask normals = new FloatMask(size, 0L, new SymmetrySettings(Symmetry.NONE), "heightmap", false)
+                .addPerlinNoise(size / 16, 32f)
+                .copyAsNormalMask();
+        rgba = new byte[size * size * 4];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                Vector3 value = normals.get(x, y);
+                int index = 4 * (y * size + x);
+                rgba[index] = (byte) StrictMath.min(StrictMath.max((255 * (1 - value.getY())), 0), 255);
+                rgba[index + 1] = (byte) StrictMath.min(StrictMath.max((128 * value.getZ() + 128), 0), 255);
+                rgba[index + 3] = (byte) StrictMath.min(StrictMath.max((128 * value.getX() + 128), 0), 255);
+            }
+        }
+        compressor = new SquishCompressor(Squish.CompressionType.DXT5, method);
+        blocks = compressor.compressImage(rgba, size, size, null);
+
+        byte[] decompressed = Squish.decompressImage(null, size, size, blocks, Squish.CompressionType.DXT5);
+        double squaredError = 0;
+        for (int i = 0; i < rgba.length; i++) {
+            int difference = (rgba[i] & 0xFF) - (decompressed[i] & 0xFF);
+            squaredError += difference * difference;
+        }
+        System.out.printf("%n%s RMSE: %.3f%n", method, StrictMath.sqrt(squaredError / rgba.length));
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return compressor.compressImage(rgba, size, size, blocks);
+    }
+}
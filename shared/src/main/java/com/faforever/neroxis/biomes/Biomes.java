@@ -1,5 +1,6 @@
 package com.faforever.neroxis.biomes;
 
+import com.faforever.neroxis.util.DebugUtil;
 import com.faforever.neroxis.util.FileUtil;
 import com.faforever.neroxis.util.serial.biome.DecalMaterials;
 import com.faforever.neroxis.util.serial.biome.LightingSettings;
@@ -8,6 +9,9 @@ import com.faforever.neroxis.util.serial.biome.TerrainMaterials;
 import com.faforever.neroxis.util.serial.biome.WaterSettings;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Biomes {
     // ├ Biome
@@ -16,8 +20,25 @@ public class Biomes {
     // ├-- WaterSettings.scmwtr <required>
     // └-- Light.scmlighting <required>
     private static final String CUSTOM_BIOMES_DIR = "/custom_biome/";
+    private static final Map<BiomeName, Biome> BIOMES = new ConcurrentHashMap<>();
 
+    /**
+     * Load the biome, reading its files only the first time it is requested. The returned biome is shared between all
+     * callers and must not be modified
+     */
     public static Biome loadBiome(BiomeName biomeName) {
+        return BIOMES.computeIfAbsent(biomeName, Biomes::readBiome);
+    }
+
+    /**
+     * Read every biome in parallel so that later generations do not pay for loading them
+     */
+    public static void preloadBiomes() {
+        DebugUtil.timedRun("com.faforever.neroxis.biomes", "preloadBiomes",
+                           () -> Arrays.stream(BiomeName.values()).parallel().forEach(Biomes::loadBiome));
+    }
+
+    private static Biome readBiome(BiomeName biomeName) {
         String folderPath = biomeName.getFolderName();
         if (Biomes.class.getResource(CUSTOM_BIOMES_DIR + folderPath) != null) {
             folderPath = CUSTOM_BIOMES_DIR + folderPath;
@@ -8,8 +8,13 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 public class Brushes {
     public static final List<String> MOUNTAIN_BRUSHES = Arrays.asList("mountain1.png", "mountain2.png", "mountain3.png",
@@ -24,7 +29,46 @@ public class Brushes {
                                                                        "mountain6.png", "volcano2.png");
     public static final String CUSTOM_BRUSHES_DIR = "/images/brushes/";
 
+    // Pixels each cache may hold, a 1024 brush has about a million
+    private static final long MAX_CACHED_PIXELS = 16L << 20;
+    private static final SymmetrySettings BRUSH_SYMMETRY_SETTINGS = new SymmetrySettings(Symmetry.NONE, Symmetry.NONE,
+                                                                                         Symmetry.NONE);
+    private static final BrushCache<String, DecodedBrush> DECODED_BRUSHES = new BrushCache<>(
+            decodedBrush -> getPixelCount(decodedBrush.brush()));
+    private static final BrushCache<ScaledBrushKey, FloatMask> SCALED_BRUSHES = new BrushCache<>(
+            Brushes::getPixelCount);
+
     public static FloatMask loadBrush(String brushPath, Long seed) {
+        return copyBrush(DECODED_BRUSHES.get(brushPath, Brushes::decodeBrush).brush(), brushPath, seed);
+    }
+
+    /**
+     * Load the brush resized to {@code size}
+     */
+    public static FloatMask loadBrush(String brushPath, Long seed, int size) {
+        return copyBrush(getScaledBrush(brushPath, size), brushPath, seed);
+    }
+
+    /**
+     * Load the brush resized to {@code size} with its peak value scaled to {@code intensity}
+     */
+    public static FloatMask loadBrush(String brushPath, Long seed, int size, float intensity) {
+        float max = DECODED_BRUSHES.get(brushPath, Brushes::decodeBrush).max();
+        return loadBrush(brushPath, seed, size).multiply(intensity / max);
+    }
+
+    private static FloatMask getScaledBrush(String brushPath, int size) {
+        return SCALED_BRUSHES.get(new ScaledBrushKey(brushPath, size), key -> {
+            FloatMask brush = DECODED_BRUSHES.get(brushPath, Brushes::decodeBrush).brush();
+            return copyBrush(brush, brushPath, null).setSize(size).immutableCopy();
+        });
+    }
+
+    private static FloatMask copyBrush(FloatMask brush, String brushPath, Long seed) {
+        return new FloatMask(brush.getSize(), seed, BRUSH_SYMMETRY_SETTINGS, brushPath, false).init(brush);
+    }
+
+    private static DecodedBrush decodeBrush(String brushPath) {
         try {
             BufferedImage image;
             if (Brushes.class.getResource(CUSTOM_BRUSHES_DIR + brushPath) != null) {
@@ -33,11 +77,58 @@ public class Brushes {
             } else {
                 image = ImageIO.read(Paths.get(brushPath).toFile());
             }
-            return new FloatMask(image, seed, new SymmetrySettings(Symmetry.NONE, Symmetry.NONE, Symmetry.NONE), 1f,
-                                 brushPath);
+            FloatMask brush = new FloatMask(image, null, BRUSH_SYMMETRY_SETTINGS, 1f, brushPath);
+            return new DecodedBrush(brush.immutableCopy(), brush.getMax());
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException(String.format("Could not load brush: %s", brushPath));
         }
     }
+
+    private static long getPixelCount(FloatMask brush) {
+        return (long) brush.getSize() * brush.getSize();
+    }
+
+    private record DecodedBrush(FloatMask brush, float max) {}
+
+    private record ScaledBrushKey(String brushPath, int size) {}
+
+    /**
+     * Least recently used cache holding at most {@link #MAX_CACHED_PIXELS} pixels, apart from a single larger brush.
+     * Brushes are loaded outside the lock so decoding one brush does not block lookups of the others, two threads
+     * missing the same brush may both load it and the first one stored is kept.
+     */
+    private static final class BrushCache<K, V> {
+        private final Map<K, V> brushes = new LinkedHashMap<>(16, .75f, true);
+        private final ToLongFunction<V> pixelCounter;
+        private long cachedPixels;
+
+        private BrushCache(ToLongFunction<V> pixelCounter) {
+            this.pixelCounter = pixelCounter;
+        }
+
+        private V get(K key, Function<K, V> loader) {
+            synchronized (this) {
+                V brush = brushes.get(key);
+                if (brush != null) {
+                    return brush;
+                }
+            }
+
+            V brush = loader.apply(key);
+            synchronized (this) {
+                V cachedBrush = brushes.putIfAbsent(key, brush);
+                if (cachedBrush != null) {
+                    return cachedBrush;
+                }
+                cachedPixels += pixelCounter.applyAsLong(brush);
+                Iterator<V> iterator = brushes.values().iterator();
+                while (cachedPixels > MAX_CACHED_PIXELS && brushes.size() > 1) {
+                    cachedPixels -= pixelCounter.applyAsLong(iterator.next());
+                    iterator.remove();
+                }
+                return brush;
+            }
+        }
+    }
 }
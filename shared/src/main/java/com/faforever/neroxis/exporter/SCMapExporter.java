@@ -25,14 +25,12 @@ import java.awt.image.DataBufferByte;
 import java.awt.image.DataBufferInt;
 import java.awt.image.DataBufferUShort;
 import java.awt.image.RenderedImage;
-import java.io.BufferedOutputStream;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -42,20 +40,49 @@ import java.util.List;
 import java.util.Objects;
 
 import static com.faforever.neroxis.map.SCMap.PBR_SHADER_NAME;
-import static com.faforever.neroxis.util.EndianSwapper.swap;
-import static com.faforever.neroxis.util.jsquish.Squish.compressImage;
 
 public class SCMapExporter {
     public static final String PBR_DDS = "heightRoughness.dds";
     public static final String MAPWIDE_DDS = "mapwide.dds";
-    public static File file;
-    private static DataOutputStream out;
+    private final SCMap map;
+    private final byte[] compressedNormalMap;
+    private final byte[] compressedWaterMap;
+    // Null while measuring the size of the map
+    private ByteBuffer out;
+    private int size;
+
+    private SCMapExporter(SCMap map) {
+        this.map = map;
+        compressedNormalMap = compressImage(map.getNormalMap());
+        compressedWaterMap = compressImage(map.getWaterMap());
+    }
 
     public static void exportSCMAP(Path folderPath, SCMap map) throws IOException {
-        file = folderPath.resolve(map.getFilePrefix() + ".scmap").toFile();
-        boolean status = file.createNewFile();
-        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        ByteBuffer bytes = toByteBuffer(map);
+        try (FileChannel channel = FileChannel.open(folderPath.resolve(map.getFilePrefix() + ".scmap"),
+                                                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Serialize the map into a little endian buffer sized exactly to the scmap contents
+     *
+     * @param map map to serialize
+     * @return the buffer ready to be read from the start
+     */
+    public static ByteBuffer toByteBuffer(SCMap map) {
+        SCMapExporter exporter = new SCMapExporter(map);
+        exporter.writeMap();
+        exporter.out = ByteBuffer.allocate(exporter.size).order(ByteOrder.LITTLE_ENDIAN);
+        exporter.writeMap();
+        return exporter.out.flip();
+    }
 
+    private void writeMap() {
         // header
         writeInt(SCMap.SIGNATURE);
         writeInt(SCMap.VERSION_MAJOR);
@@ -83,7 +110,7 @@ public class SCMapExporter {
         writeInt(map.getSize()); // width
         writeInt(map.getSize()); // height
         writeFloat(map.getHeightMapScale());
-        writeShorts(((DataBufferUShort) map.getHeightmap().getData().getDataBuffer()).getData()); // heightmap data
+        writeShorts(((DataBufferUShort) map.getHeightmap().getRaster().getDataBuffer()).getData()); // heightmap data
 
         writeByte((byte) 0); // unknown
 
@@ -176,7 +203,7 @@ public class SCMapExporter {
 
         // normal maps
         writeInt(1); // normal map count
-        writeCompressedImage(map.getNormalMap(), normalDDSHeader);
+        writeCompressedImage(compressedNormalMap, normalDDSHeader);
 
         DDSHeader textureMaskLowDDSHeader = new DDSHeader();
         textureMaskLowDDSHeader.setWidth(map.getTextureMasksLow().getWidth());
@@ -207,7 +234,7 @@ public class SCMapExporter {
 
         // water maps
         writeInt(1); // unknown
-        writeCompressedImage(map.getWaterMap(), waterDDSHeader); // watermap data
+        writeCompressedImage(compressedWaterMap, waterDDSHeader); // watermap data
         writeImageBytes(map.getWaterFoamMap()); // water foam mask data
         writeImageBytes(map.getWaterShadowMap()); // water surface shadow mask data
         writeImageBytes(map.getWaterDepthBiasMap()); // water depth bias mask data
@@ -229,9 +256,6 @@ public class SCMapExporter {
         } else {
             writeInt(0);
         }
-
-        out.flush();
-        out.close();
     }
 
     public static void exportSCMapString(Path folderPath, String mapname, SCMap map) {
@@ -323,71 +347,92 @@ public class SCMapExporter {
         }
     }
 
-    private static void writeFloat(float f) throws IOException {
-        out.writeInt(swap(Float.floatToRawIntBits(f)));
+    private boolean reserve(int byteCount) {
+        size += byteCount;
+        return out != null;
     }
 
-    private static void writeInt(int i) throws IOException {
-        out.writeInt(swap(i));
+    private void writeFloat(float f) {
+        if (reserve(Float.BYTES)) {
+            out.putFloat(f);
+        }
     }
 
-    private static void writeShort(short s) throws IOException {
-        out.writeShort(swap(s));
+    private void writeInt(int i) {
+        if (reserve(Integer.BYTES)) {
+            out.putInt(i);
+        }
     }
 
-    private static void writeByte(byte b) throws IOException {
-        out.writeByte(b);
+    private void writeShort(short s) {
+        if (reserve(Short.BYTES)) {
+            out.putShort(s);
+        }
     }
 
-    private static void writeBytes(byte[] b) throws IOException {
-        out.write(b);
+    private void writeByte(byte b) {
+        if (reserve(Byte.BYTES)) {
+            out.put(b);
+        }
     }
 
-    private static void writeShorts(short[] s) throws IOException {
-        for (short value : s) {
-            writeShort(value);
+    private void writeBytes(byte[] b) {
+        if (reserve(b.length)) {
+            out.put(b);
         }
     }
 
-    private static void writeInts(int[] data) throws IOException {
-        for (int i : data) {
-            writeInt(i);
+    private void writeShorts(short[] s) {
+        if (reserve(s.length * Short.BYTES)) {
+            out.asShortBuffer().put(s);
+            out.position(out.position() + s.length * Short.BYTES);
         }
     }
 
-    private static void writeStringNull(String s) throws IOException {
-        for (int i = 0; i < s.length(); i++) {
-            out.writeByte(s.charAt(i));
+    private void writeInts(int[] data) {
+        if (reserve(data.length * Integer.BYTES)) {
+            out.asIntBuffer().put(data);
+            out.position(out.position() + data.length * Integer.BYTES);
         }
-        out.writeByte(0);
     }
 
-    private static void writeString(String s) throws IOException {
+    private void writeStringNull(String s) {
+        writeStringBytes(s);
+        writeByte((byte) 0);
+    }
+
+    private void writeString(String s) {
         writeInt(s.length());
-        for (int i = 0; i < s.length(); i++) {
-            out.writeByte(s.charAt(i));
+        writeStringBytes(s);
+    }
+
+    private void writeStringBytes(String s) {
+        if (reserve(s.length())) {
+            for (int i = 0; i < s.length(); i++) {
+                out.put((byte) s.charAt(i));
+            }
         }
     }
 
-    private static void writeVector3f(Vector3 v) throws IOException {
+    private void writeVector3f(Vector3 v) {
         writeFloat(v.getX());
         writeFloat(v.getY());
         writeFloat(v.getZ());
     }
 
-    private static void writeVector4f(Vector4 v) throws IOException {
+    private void writeVector4f(Vector4 v) {
         writeFloat(v.getX());
         writeFloat(v.getY());
         writeFloat(v.getZ());
         writeFloat(v.getW());
     }
 
-    private static void writeVector2f(Vector2 v) throws IOException {
+    private void writeVector2f(Vector2 v) {
         writeFloat(v.getX());
         writeFloat(v.getY());
     }
 
-    private static void writeProp(Prop prop) throws IOException {
+    private void writeProp(Prop prop) {
         writeStringNull(prop.getPath());
         writeVector3f(prop.getPosition());
         writeVector3f(new Vector3((float) StrictMath.cos(prop.getRotation()), 0f,
@@ -398,7 +443,7 @@ public class SCMapExporter {
         writeVector3f(new Vector3(1f, 1f, 1f)); //scale
     }
 
-    private static void writeDecal(Decal decal, int id) throws IOException {
+    private void writeDecal(Decal decal, int id) {
         writeInt(id);
         writeInt(decal.getType().getTypeNum());
         writeInt(2);
@@ -412,7 +457,7 @@ public class SCMapExporter {
         writeInt(-1);
     }
 
-    private static void writeDecalGroup(DecalGroup decalGroup, int id) throws IOException {
+    private void writeDecalGroup(DecalGroup decalGroup, int id) {
         writeInt(id);
         writeStringNull(decalGroup.name());
         writeInt(decalGroup.data().size());
@@ -421,7 +466,7 @@ public class SCMapExporter {
         }
     }
 
-    private static void writeWaveGenerator(WaveGenerator waveGenerator) throws IOException {
+    private void writeWaveGenerator(WaveGenerator waveGenerator) {
         writeStringNull(waveGenerator.getTextureName());
         writeStringNull(waveGenerator.getRampName());
         writeVector3f(waveGenerator.getPosition());
@@ -439,7 +484,7 @@ public class SCMapExporter {
         writeFloat(waveGenerator.getStripCount());
     }
 
-    private static void writeWaterSettings(WaterSettings waterSettings) throws IOException {
+    private void writeWaterSettings(WaterSettings waterSettings) {
         writeByte((byte) (waterSettings.waterPresent() ? 1 : 0));
         writeFloat(waterSettings.elevation());
         writeFloat(waterSettings.elevationDeep());
@@ -471,7 +516,7 @@ public class SCMapExporter {
         }
     }
 
-    private static void writeLightingSettings(LightingSettings lightingSettings) throws IOException {
+    private void writeLightingSettings(LightingSettings lightingSettings) {
         writeFloat(lightingSettings.lightingMultiplier());
         writeVector3f(lightingSettings.sunDirection());
         writeVector3f(lightingSettings.sunAmbience());
@@ -484,7 +529,7 @@ public class SCMapExporter {
         writeFloat(lightingSettings.fogEnd());
     }
 
-    private static void writeSkyBox(SkyBox skyBox) throws IOException {
+    private void writeSkyBox(SkyBox skyBox) {
         writeVector3f(skyBox.getPosition());
         writeFloat(skyBox.getHorizonHeight());
         writeFloat(skyBox.getScale());
@@ -527,27 +572,29 @@ public class SCMapExporter {
         writeFloat(skyBox.getClouds7());
     }
 
-    private static void writeRawImage(BufferedImage image, DDSHeader ddsHeader) throws IOException {
+    private void writeRawImage(BufferedImage image, DDSHeader ddsHeader) {
         byte[] headerBytes = ddsHeader.toBytes();
         writeInt(headerBytes.length + image.getWidth() * image.getHeight() * 4); // image byte count
         writeBytes(headerBytes);
-        writeInts(((DataBufferInt) image.getData().getDataBuffer()).getData()); // image data
+        writeInts(((DataBufferInt) image.getRaster().getDataBuffer()).getData()); // image data
     }
 
-    private static void writeCompressedImage(BufferedImage image, DDSHeader ddsHeader) throws IOException {
-        int[] imageData = ((DataBufferInt) image.getData().getDataBuffer()).getData();
+    private void writeCompressedImage(byte[] compressedData, DDSHeader ddsHeader) {
         byte[] headerBytes = ddsHeader.toBytes();
-        ByteBuffer imageBytes = ByteBuffer.allocate(imageData.length * 4).order(ByteOrder.LITTLE_ENDIAN);
-        imageBytes.asIntBuffer().put(imageData);
-        byte[] compressedData = compressImage(imageBytes.array(), ddsHeader.getWidth(), ddsHeader.getHeight(), null,
-                                              Squish.CompressionType.DXT5);
-
         writeInt(headerBytes.length + compressedData.length); // image byte count
         writeBytes(headerBytes);
         writeBytes(compressedData); // image data
     }
 
-    private static void writeImageBytes(BufferedImage image) throws IOException {
-        writeBytes(((DataBufferByte) image.getData().getDataBuffer()).getData());
+    private void writeImageBytes(BufferedImage image) {
+        writeBytes(((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+    }
+
+    private static byte[] compressImage(BufferedImage image) {
+        int[] imageData = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        ByteBuffer imageBytes = ByteBuffer.allocate(imageData.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        imageBytes.asIntBuffer().put(imageData);
+        return ImageUtil.getDXT5Compressor(Squish.CompressionMethod.CLUSTER_FIT)
+                        .compressImage(imageBytes.array(), image.getWidth(), image.getHeight(), null);
     }
 }
@@ -22,24 +22,31 @@ import com.faforever.neroxis.util.vector.Vector4;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBuffer;
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferUShort;
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-
-import static com.faforever.neroxis.util.EndianSwapper.swap;
+import java.util.Map;
+import java.util.function.Supplier;
 import static com.faforever.neroxis.util.jsquish.Squish.decompressImage;
 
 public class SCMapImporter {
-    public static File file;
-    private static DataInputStream in;
+    private final ByteBuffer in;
+
+    private SCMapImporter(ByteBuffer in) {
+        this.in = in;
+    }
 
     public static SCMap importSCMAP(Path folderPath) throws IOException {
         File dir = folderPath.toFile();
@@ -49,9 +56,24 @@ public class SCMapImporter {
             throw new IllegalArgumentException("Folder does not contain an scmap file");
         }
 
-        file = mapFiles[0];
+        File file = mapFiles[0];
+
+        // Read the file onto the heap instead of mapping it, so the file is released as soon as it is read and
+        // can be overwritten while image layers are still waiting to be decoded
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+        SCMap map;
+        try {
+            map = new SCMapImporter(bytes.order(ByteOrder.LITTLE_ENDIAN)).readMap();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Unexpected end of SCMap " + file.getName());
+        }
+        map.setFilePrefix(file.getName().replace(".scmap", ""));
+        return map;
+    }
 
-        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    private SCMap readMap() throws IOException {
+        Map<SCMap.ImageLayer, Supplier<BufferedImage>> imageLoaders = new EnumMap<>(SCMap.ImageLayer.class);
 
         // header
         if (readInt() != SCMap.SIGNATURE) {
@@ -74,7 +96,7 @@ public class SCMapImporter {
         if (readShort() != 0) {
             throw new UnsupportedEncodingException("File not valid SCMap");
         }
-        int[] previewImageData = readRawImage();
+        imageLoaders.put(SCMap.ImageLayer.PREVIEW, readRawImage());
         int version = readInt();
         if (version != 56 && version != 60) {
             throw new UnsupportedEncodingException(String.format("SCMap version %d not supported", version));
@@ -84,7 +106,7 @@ public class SCMapImporter {
         int widthInt = readInt();
         int heightInt = readInt();
         float heightMapScale = readFloat();
-        short[] heightMapData = readShorts((widthInt + 1) * (heightInt + 1));
+        imageLoaders.put(SCMap.ImageLayer.HEIGHTMAP, readShortImage(widthInt + 1, heightInt + 1));
         if (readByte() != 0) {
             throw new UnsupportedEncodingException("File not valid SCMap");
         }
@@ -137,7 +159,7 @@ public class SCMapImporter {
         for (int i = 0; i < TerrainMaterials.TERRAIN_NORMAL_COUNT; i++) {
             String path = readStringNull();
             float scale = readFloat();
-            textures[i] = new TerrainMaterials.TextureScale(path, scale);
+            normals[i] = new TerrainMaterials.TextureScale(path, scale);
         }
 
         TerrainMaterials mapTerrainMaterials = new TerrainMaterials(List.of(cubeMaps), List.of(textures),
@@ -170,24 +192,23 @@ public class SCMapImporter {
         if (readInt() != 1) {
             throw new UnsupportedEncodingException("File not valid SCMap");
         }
-        int[] normalMapData = readCompressedImage();
+        imageLoaders.put(SCMap.ImageLayer.NORMAL_MAP, readCompressedImage());
 
         // texture maps
-        int[] textureMaskLowData = readRawImage();
-        int[] textureMaskHighData = readRawImage();
+        imageLoaders.put(SCMap.ImageLayer.TEXTURE_MASKS_LOW, readRawImage());
+        imageLoaders.put(SCMap.ImageLayer.TEXTURE_MASKS_HIGH, readRawImage());
 
         // water maps
         if (readInt() != 1) {
             throw new UnsupportedEncodingException("File not valid SCMap");
         }
-        int[] waterMapData = readCompressedImage();
-        int halfSize = (heightInt / 2) * (widthInt / 2);
-        byte[] waterFoamMaskData = readBytes(halfSize);
-        byte[] waterFlatnessData = readBytes(halfSize);
-        byte[] waterDepthBiasMaskData = readBytes(halfSize);
+        imageLoaders.put(SCMap.ImageLayer.WATER_MAP, readCompressedImage());
+        imageLoaders.put(SCMap.ImageLayer.WATER_FOAM_MAP, readByteImage(widthInt / 2, heightInt / 2));
+        imageLoaders.put(SCMap.ImageLayer.WATER_SHADOW_MAP, readByteImage(widthInt / 2, heightInt / 2));
+        imageLoaders.put(SCMap.ImageLayer.WATER_DEPTH_BIAS_MAP, readByteImage(widthInt / 2, heightInt / 2));
 
         // terrain type
-        byte[] terrainTypeData = readBytes(widthInt * heightInt);
+        imageLoaders.put(SCMap.ImageLayer.TERRAIN_TYPE, readByteImage(widthInt, heightInt));
 
         // Additional Skybox
         SkyBox skyBox = null;
@@ -202,14 +223,12 @@ public class SCMapImporter {
             props[i] = readProp();
         }
 
-        in.close();
-
-        PropMaterials propMaterials = new PropMaterials(null, null, null);
-        DecalMaterials decalMaterials = new DecalMaterials(null, null, null, null, null, null);
+        PropMaterials propMaterials = new PropMaterials(List.of(), List.of(), List.of());
+        DecalMaterials decalMaterials = new DecalMaterials(List.of(), List.of(), List.of(), List.of(), List.of(),
+                                                           List.of());
         SCMap map = new SCMap(widthInt,
                               new Biome(null, mapTerrainMaterials, propMaterials, decalMaterials, mapWaterSettings,
-                                        mapLightingSettings));
-        map.setFilePrefix(file.getName().replace(".scmap", ""));
+                                        mapLightingSettings), imageLoaders);
         map.setMinorVersion(version);
         map.setTerrainShaderPath(shaderPath);
         map.setBackgroundPath(backgroundPath);
@@ -223,29 +242,6 @@ public class SCMapImporter {
         map.setCartographicMapLandStartColor(miniMapLandStartColor);
         map.setCartographicMapLandEndColor(miniMapLandEndColor);
 
-        map.setPreview(getBufferedImageFromRawData(BufferedImage.TYPE_INT_ARGB, previewImageData));
-
-        map.setHeightmap(getBufferedImageFromRawData(BufferedImage.TYPE_USHORT_GRAY, getIntegerArray(heightMapData)));
-
-        map.setNormalMap(getBufferedImageFromRawData(BufferedImage.TYPE_INT_ARGB, normalMapData));
-
-        map.setTextureMasksLow(getBufferedImageFromRawData(BufferedImage.TYPE_INT_ARGB, textureMaskLowData));
-
-        map.setTextureMasksHigh(getBufferedImageFromRawData(BufferedImage.TYPE_INT_ARGB, textureMaskHighData));
-
-        map.setWaterMap(getBufferedImageFromRawData(BufferedImage.TYPE_INT_ARGB, waterMapData));
-
-        map.setWaterFoamMap(
-                getBufferedImageFromRawData(BufferedImage.TYPE_BYTE_GRAY, getIntegerArray(waterFoamMaskData)));
-
-        map.setWaterShadowMap(
-                getBufferedImageFromRawData(BufferedImage.TYPE_BYTE_GRAY, getIntegerArray(waterFlatnessData)));
-
-        map.setWaterDepthBiasMap(
-                getBufferedImageFromRawData(BufferedImage.TYPE_BYTE_GRAY, getIntegerArray(waterDepthBiasMaskData)));
-
-        map.setTerrainType(getBufferedImageFromRawData(BufferedImage.TYPE_BYTE_GRAY, getIntegerArray(terrainTypeData)));
-
         for (WaveGenerator waveGenerator : waveGenerators) {
             map.addWaveGenerator(waveGenerator);
         }
@@ -262,47 +258,38 @@ public class SCMapImporter {
         return map;
     }
 
-    private static float readFloat() throws IOException {
-        return Float.intBitsToFloat(swap(in.readInt()));
+    private float readFloat() {
+        return in.getFloat();
     }
 
-    private static int readInt() throws IOException {
-        return swap(in.readInt());
+    private int readInt() {
+        return in.getInt();
     }
 
-    private static short readShort() throws IOException {
-        return swap(in.readShort());
+    private short readShort() {
+        return in.getShort();
     }
 
-    private static byte readByte() throws IOException {
-        return in.readByte();
+    private byte readByte() {
+        return in.get();
     }
 
-    private static byte[] readBytes(int numBytes) throws IOException {
+    private byte[] readBytes(int numBytes) {
         byte[] readBytes = new byte[numBytes];
-        for (int i = 0; i < numBytes; i++) {
-            readBytes[i] = readByte();
-        }
+        in.get(readBytes);
         return readBytes;
     }
 
-    private static short[] readShorts(int numShorts) throws IOException {
-        short[] readShorts = new short[numShorts];
-        for (int i = 0; i < numShorts; i++) {
-            readShorts[i] = readShort();
-        }
-        return readShorts;
-    }
-
-    private static int[] readInts(int numInts) throws IOException {
-        int[] readInts = new int[numInts];
-        for (int i = 0; i < numInts; i++) {
-            readInts[i] = readInt();
-        }
-        return readInts;
+    /**
+     * Return a view of the next bytes in the file and skip past them
+     */
+    private ByteBuffer readSection(int numBytes) {
+        ByteBuffer section = in.slice(in.position(), numBytes).order(ByteOrder.LITTLE_ENDIAN);
+        in.position(in.position() + numBytes);
+        return section;
     }
 
-    private static String readStringNull() throws IOException {
+    private String readStringNull() {
         StringBuilder readString = new StringBuilder();
         byte read = readByte();
         while (read != 0) {
@@ -312,7 +299,7 @@ public class SCMapImporter {
         return readString.toString();
     }
 
-    private static String readString(int length) throws IOException {
+    private String readString(int length) {
         StringBuilder readString = new StringBuilder();
         for (int i = 0; i < length; i++) {
             byte read = readByte();
@@ -321,19 +308,19 @@ public class SCMapImporter {
         return readString.toString();
     }
 
-    private static Vector3 readVector3f() throws IOException {
+    private Vector3 readVector3f() {
         return new Vector3(readFloat(), readFloat(), readFloat());
     }
 
-    private static Vector4 readVector4f() throws IOException {
+    private Vector4 readVector4f() {
         return new Vector4(readFloat(), readFloat(), readFloat(), readFloat());
     }
 
-    private static Vector2 readVector2f() throws IOException {
+    private Vector2 readVector2f() {
         return new Vector2(readFloat(), readFloat());
     }
 
-    private static LightingSettings readLightingSettings() throws IOException {
+    private LightingSettings readLightingSettings() {
         float lightingMultiplier = readFloat();
         Vector3 sunDirection = readVector3f();
         Vector3 sunAmbience = readVector3f();
@@ -348,7 +335,7 @@ public class SCMapImporter {
                                     specularColor, bloom, fogColor, fogStart, fogEnd);
     }
 
-    private static WaterSettings readWaterSettings() throws IOException {
+    private WaterSettings readWaterSettings() {
         boolean waterPresent = readByte() == 1;
         float elevation = readFloat();
         float elevationDeep = readFloat();
@@ -389,7 +376,7 @@ public class SCMapImporter {
                                  texPathCubeMap, texPathWaterRamp, waveTextures);
     }
 
-    private static WaveGenerator readWaveGenerator() throws IOException {
+    private WaveGenerator readWaveGenerator() {
         String textureName = readStringNull();
         String rampName = readStringNull();
         Vector3 position = readVector3f();
@@ -412,7 +399,7 @@ public class SCMapImporter {
         return waveGenerator;
     }
 
-    private static Decal readDecal() throws IOException {
+    private Decal readDecal() {
         readInt(); // id
         int type = readInt();
         int textureCount = readInt();
@@ -430,7 +417,7 @@ public class SCMapImporter {
         return new Decal(texturePaths[0], position, rotation, scale, cutOffLOD, DecalType.of(type));
     }
 
-    private static DecalGroup readDecalGroup() throws IOException {
+    private DecalGroup readDecalGroup() {
         readInt(); // id
         String name = readStringNull();
         int length = readInt();
@@ -441,25 +428,59 @@ public class SCMapImporter {
         return new DecalGroup(name, List.of(data));
     }
 
-    private static int[] readRawImage() throws IOException {
+    private Supplier<BufferedImage> readRawImage() throws IOException {
         int byteCount = readInt() - 128;
         DDSHeader ddsHeader = DDSHeader.parseHeader(readBytes(128));
-        if (ddsHeader.getWidth() * ddsHeader.getHeight() * 4 != byteCount) {
+        int width = ddsHeader.getWidth();
+        int height = ddsHeader.getHeight();
+        if (width * height * 4 != byteCount) {
             throw new UnsupportedEncodingException("Not a recognized dds image format");
         }
-        return readInts(byteCount / 4);
+        ByteBuffer imageBytes = readSection(byteCount);
+        return () -> {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            imageBytes.asIntBuffer().get(((DataBufferInt) image.getRaster().getDataBuffer()).getData());
+            return image;
+        };
     }
 
-    private static int[] readCompressedImage() throws IOException {
+    private Supplier<BufferedImage> readCompressedImage() {
         int byteCount = readInt() - 128;
-        int[] data = new int[byteCount / 4];
         DDSHeader ddsHeader = DDSHeader.parseHeader(readBytes(128));
-        ByteBuffer.wrap(decompressImage(null, ddsHeader.getWidth(), ddsHeader.getHeight(), readBytes(byteCount),
-                                        Squish.CompressionType.DXT5)).asIntBuffer().get(data);
-        return data;
+        int width = ddsHeader.getWidth();
+        int height = ddsHeader.getHeight();
+        ByteBuffer imageBytes = readSection(byteCount);
+        return () -> {
+            byte[] blocks = new byte[byteCount];
+            imageBytes.get(0, blocks);
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            ByteBuffer.wrap(decompressImage(null, width, height, blocks, Squish.CompressionType.DXT5))
+                      .order(ByteOrder.LITTLE_ENDIAN)
+                      .asIntBuffer()
+                      .get(((DataBufferInt) image.getRaster().getDataBuffer()).getData());
+            return image;
+        };
+    }
+
+    private Supplier<BufferedImage> readShortImage(int width, int height) {
+        ByteBuffer imageBytes = readSection(width * height * Short.BYTES);
+        return () -> {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_USHORT_GRAY);
+            imageBytes.asShortBuffer().get(((DataBufferUShort) image.getRaster().getDataBuffer()).getData());
+            return image;
+        };
+    }
+
+    private Supplier<BufferedImage> readByteImage(int width, int height) {
+        ByteBuffer imageBytes = readSection(width * height);
+        return () -> {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+            imageBytes.get(0, ((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+            return image;
+        };
     }
 
-    private static SkyBox readSkyBox() throws IOException {
+    private SkyBox readSkyBox() {
         SkyBox skyBox = new SkyBox();
         skyBox.setPosition(readVector3f());
         skyBox.setHorizonHeight(readFloat());
@@ -508,7 +529,7 @@ public class SCMapImporter {
         return skyBox;
     }
 
-    private static Prop readProp() throws IOException {
+    private Prop readProp() {
         String path = readStringNull();
         Vector3 position = readVector3f();
         Vector3 rotationX = readVector3f();
@@ -518,33 +539,4 @@ public class SCMapImporter {
         float rotation = (float) StrictMath.atan2(rotationX.getZ(), rotationX.getX());
         return new Prop(path, position, rotation, false);
     }
-
-    private static BufferedImage getBufferedImageFromRawData(int bufferedImageType, int[] imageData) {
-        int imageSize = (int) StrictMath.sqrt(imageData.length);
-        BufferedImage image = new BufferedImage(imageSize, imageSize, bufferedImageType);
-        DataBuffer imageDataBuffer = image.getRaster().getDataBuffer();
-        for (int i = 0; i < imageDataBuffer.getSize(); i++) {
-            imageDataBuffer.setElem(i, imageData[i]);
-        }
-        return image;
-    }
-
-    private static int[] getIntegerArray(byte[] bytes) {
-        int[] intArray = new int[bytes.length];
-        int i = 0;
-        for (int value : bytes) {
-            intArray[i++] = value;
-        }
-        return intArray;
-    }
-
-    private static int[] getIntegerArray(short[] shorts) {
-        int[] intArray = new int[shorts.length];
-        int i = 0;
-        for (int value : shorts) {
-            intArray[i++] = value;
-        }
-        return intArray;
-    }
 }
-
@@ -12,6 +12,7 @@ import com.faforever.neroxis.util.vector.Vector3;
 import com.faforever.neroxis.util.vector.Vector4;
 import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
 
@@ -24,7 +25,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static com.faforever.neroxis.util.ImageUtil.insertImageIntoNewImageOfSize;
 import static com.faforever.neroxis.util.ImageUtil.scaleImage;
@@ -83,7 +87,7 @@ public class SCMap {
     private Biome biome;
     private SkyBox skyBox = new SkyBox();
     // always 256 x 256 px
-    private BufferedImage preview = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+    private BufferedImage preview;
     private BufferedImage heightmap;
     private BufferedImage normalMap;
     private BufferedImage textureMasksLow;
@@ -100,28 +104,60 @@ public class SCMap {
     private int cartographicMapShoreColor = new Color(141, 200, 225).getRGB();
     private int cartographicMapLandStartColor = new Color(119, 101, 108).getRGB();
     private int cartographicMapLandEndColor = new Color(206, 206, 176).getRGB();
+    @Getter(AccessLevel.NONE)
+    private final Map<ImageLayer, Supplier<BufferedImage>> imageLoaders = new EnumMap<>(ImageLayer.class);
 
     public SCMap(int size, Biome biome) {
+        this(size, biome, Map.of());
+    }
+
+    /**
+     * Create a map whose given image layers are only decoded by their loader when first accessed. The getters of
+     * these layers are synchronized so a layer is decoded once even when several threads read it
+     */
+    public SCMap(int size, Biome biome, Map<ImageLayer, Supplier<BufferedImage>> imageLoaders) {
         this.size = size;
         this.biome = biome;
+        this.imageLoaders.putAll(imageLoaders);
         playableArea = new Vector4(0, 0, size, size);
 
-        heightmap = new BufferedImage(size + 1, size + 1, BufferedImage.TYPE_USHORT_GRAY);
-        normalMap = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-        textureMasksLow = new BufferedImage(size + 1, size + 1, BufferedImage.TYPE_INT_ARGB);
-        textureMasksHigh = new BufferedImage(size + 1, size + 1, BufferedImage.TYPE_INT_ARGB);
-
-        waterMap = new BufferedImage(size / 2, size / 2, BufferedImage.TYPE_INT_ARGB);
-        waterFoamMap = new BufferedImage(size / 2, size / 2, BufferedImage.TYPE_BYTE_GRAY);
-        waterShadowMap = new BufferedImage(size / 2, size / 2, BufferedImage.TYPE_BYTE_GRAY);
-        for (int y = 0; y < size / 2; y++) {
-            for (int x = 0; x < size / 2; x++) {
-                waterShadowMap.getRaster().setPixel(x, y, new int[]{255});
+        if (!imageLoaders.containsKey(ImageLayer.PREVIEW)) {
+            preview = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        }
+        if (!imageLoaders.containsKey(ImageLayer.HEIGHTMAP)) {
+            heightmap = new BufferedImage(size + 1, size + 1, BufferedImage.TYPE_USHORT_GRAY);
+        }
+        if (!imageLoaders.containsKey(ImageLayer.NORMAL_MAP)) {
+            normalMap = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        }
+        if (!imageLoaders.containsKey(ImageLayer.TEXTURE_MASKS_LOW)) {
+            textureMasksLow = new BufferedImage(size + 1, size + 1, BufferedImage.TYPE_INT_ARGB);
+        }
+        if (!imageLoaders.containsKey(ImageLayer.TEXTURE_MASKS_HIGH)) {
+            textureMasksHigh = new BufferedImage(size + 1, size + 1, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        if (!imageLoaders.containsKey(ImageLayer.WATER_MAP)) {
+            waterMap = new BufferedImage(size / 2, size / 2, BufferedImage.TYPE_INT_ARGB);
+        }
+        if (!imageLoaders.containsKey(ImageLayer.WATER_FOAM_MAP)) {
+            waterFoamMap = new BufferedImage(size / 2, size / 2, BufferedImage.TYPE_BYTE_GRAY);
+        }
+        if (!imageLoaders.containsKey(ImageLayer.WATER_SHADOW_MAP)) {
+            waterShadowMap = new BufferedImage(size / 2, size / 2, BufferedImage.TYPE_BYTE_GRAY);
+            for (int y = 0; y < size / 2; y++) {
+                for (int x = 0; x < size / 2; x++) {
+                    waterShadowMap.getRaster().setPixel(x, y, new int[]{255});
+                }
             }
         }
-        waterDepthBiasMap = new BufferedImage(size / 2, size / 2, BufferedImage.TYPE_BYTE_GRAY);
+        if (!imageLoaders.containsKey(ImageLayer.WATER_DEPTH_BIAS_MAP)) {
+            waterDepthBiasMap = new BufferedImage(size / 2, size / 2, BufferedImage.TYPE_BYTE_GRAY);
+        }
 
-        terrainType = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+        if (!imageLoaders.containsKey(ImageLayer.TERRAIN_TYPE)) {
+            terrainType = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+        }
     }
 
     private static void checkImageSize(BufferedImage image, int size) {
@@ -142,6 +178,97 @@ public class SCMap {
         }
     }
 
+    private BufferedImage loadImage(ImageLayer imageLayer) {
+        Supplier<BufferedImage> imageLoader = imageLoaders.remove(imageLayer);
+        return imageLoader == null ? null : imageLoader.get();
+    }
+
+    /**
+     * Decode every image layer that has not been accessed yet
+     */
+    public void loadImages() {
+        getPreview();
+        getHeightmap();
+        getNormalMap();
+        getTextureMasksLow();
+        getTextureMasksHigh();
+        getWaterMap();
+        getWaterFoamMap();
+        getWaterShadowMap();
+        getWaterDepthBiasMap();
+        getTerrainType();
+    }
+
+    public synchronized BufferedImage getPreview() {
+        if (preview == null) {
+            preview = loadImage(ImageLayer.PREVIEW);
+        }
+        return preview;
+    }
+
+    public synchronized BufferedImage getHeightmap() {
+        if (heightmap == null) {
+            heightmap = loadImage(ImageLayer.HEIGHTMAP);
+        }
+        return heightmap;
+    }
+
+    public synchronized BufferedImage getNormalMap() {
+        if (normalMap == null) {
+            normalMap = loadImage(ImageLayer.NORMAL_MAP);
+        }
+        return normalMap;
+    }
+
+    public synchronized BufferedImage getTextureMasksLow() {
+        if (textureMasksLow == null) {
+            textureMasksLow = loadImage(ImageLayer.TEXTURE_MASKS_LOW);
+        }
+        return textureMasksLow;
+    }
+
+    public synchronized BufferedImage getTextureMasksHigh() {
+        if (textureMasksHigh == null) {
+            textureMasksHigh = loadImage(ImageLayer.TEXTURE_MASKS_HIGH);
+        }
+        return textureMasksHigh;
+    }
+
+    public synchronized BufferedImage getWaterMap() {
+        if (waterMap == null) {
+            waterMap = loadImage(ImageLayer.WATER_MAP);
+        }
+        return waterMap;
+    }
+
+    public synchronized BufferedImage getWaterFoamMap() {
+        if (waterFoamMap == null) {
+            waterFoamMap = loadImage(ImageLayer.WATER_FOAM_MAP);
+        }
+        return waterFoamMap;
+    }
+
+    public synchronized BufferedImage getWaterShadowMap() {
+        if (waterShadowMap == null) {
+            waterShadowMap = loadImage(ImageLayer.WATER_SHADOW_MAP);
+        }
+        return waterShadowMap;
+    }
+
+    public synchronized BufferedImage getWaterDepthBiasMap() {
+        if (waterDepthBiasMap == null) {
+            waterDepthBiasMap = loadImage(ImageLayer.WATER_DEPTH_BIAS_MAP);
+        }
+        return waterDepthBiasMap;
+    }
+
+    public synchronized BufferedImage getTerrainType() {
+        if (terrainType == null) {
+            terrainType = loadImage(ImageLayer.TERRAIN_TYPE);
+        }
+        return terrainType;
+    }
+
     public void setPreview(BufferedImage preview) {
         checkImageSize(preview, 256);
         this.preview = preview;
@@ -298,11 +425,13 @@ public class SCMap {
     }
 
     public void changeStratumSize(int stratumSize) {
+        loadImages();
         textureMasksHigh = scaleImage(textureMasksHigh, stratumSize, stratumSize);
         textureMasksLow = scaleImage(textureMasksLow, stratumSize, stratumSize);
     }
 
     public void changeMapSize(int contentSize, int boundsSize, Vector2 boundOffset) {
+        loadImages();
         int oldSize = size;
         Vector2 topLeftOffset = new Vector2(boundOffset.getX() - (float) contentSize / 2,
                                             boundOffset.getY() - (float) contentSize / 2);
@@ -574,7 +703,7 @@ public class SCMap {
                                                                              .add(offset)
                                                                              .roundToNearestHalfPoint();
             positionedObject.setPosition(new Vector3(newPosition));
-            if (ImageUtil.inImageBounds(newPosition, heightmap)) {
+            if (ImageUtil.inImageBounds(newPosition, getHeightmap())) {
                 repositionedObjects.add(positionedObject);
             }
         });
@@ -583,6 +712,7 @@ public class SCMap {
     }
 
     private void setObjectHeights(Collection<? extends PositionedObject> positionedObjects) {
+        BufferedImage heightmap = getHeightmap();
         positionedObjects.forEach(positionedObject -> {
             Vector2 position = new Vector2(positionedObject.getPosition());
             if (ImageUtil.inImageBounds(position, heightmap)) {
@@ -714,4 +844,20 @@ public class SCMap {
 
         return stringBuilder.toString();
     }
+
+    /**
+     * Image layers stored in the scmap file
+     */
+    public enum ImageLayer {
+        PREVIEW,
+        HEIGHTMAP,
+        NORMAL_MAP,
+        TEXTURE_MASKS_LOW,
+        TEXTURE_MASKS_HIGH,
+        WATER_MAP,
+        WATER_FOAM_MAP,
+        WATER_SHADOW_MAP,
+        WATER_DEPTH_BIAS_MAP,
+        TERRAIN_TYPE
+    }
 }
@@ -4,61 +4,84 @@ import com.faforever.neroxis.map.AIMarker;
 import com.faforever.neroxis.map.SCMap;
 import com.faforever.neroxis.map.SymmetryType;
 import com.faforever.neroxis.mask.BooleanMask;
+import com.faforever.neroxis.util.CoordinateGrid;
 import com.faforever.neroxis.util.vector.Vector2;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 
 public class AIMarkerPlacer {
+    private static final float CANDIDATE_DISTANCE = 64;
+    private static final float CONNECTION_DISTANCE = 128;
+
     public static void placeAIMarkers(BooleanMask passable, List<AIMarker> markers, String nameFormat) {
         LinkedHashSet<Vector2> coordinates = new LinkedHashSet<>(passable.getSpacedCoordinatesEqualTo(true, 32, 8));
         coordinates.addAll(passable.copyAsDistanceField()
                                    .copyAsLocalMaximums(8f, (float) passable.getSize())
                                    .getSpacedCoordinatesEqualTo(true, 16, 4));
-        LinkedHashSet<Vector2> unusedCoordinates = new LinkedHashSet<>();
-        coordinates.forEach(location -> {
-            if (!unusedCoordinates.contains(location)) {
-                if (!passable.inTeam(location, false)) {
-                    unusedCoordinates.add(location);
-                    return;
+        List<Vector2> candidates = new ArrayList<>(coordinates);
+        CoordinateGrid candidateGrid = new CoordinateGrid(candidates, passable.getSize(), CANDIDATE_DISTANCE);
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidateGrid.isRemoved(i)) {
+                continue;
+            }
+            Vector2 location = candidates.get(i);
+            if (!passable.inTeam(location, false)) {
+                candidateGrid.remove(i);
+                continue;
+            }
+            int locationIndex = i;
+            candidateGrid.forEachNear(location, CANDIDATE_DISTANCE, index -> {
+                Vector2 location1 = candidates.get(index);
+                if (index != locationIndex
+                    && location.getDistance(location1) < CANDIDATE_DISTANCE
+                    && passable.isLineTrue(location, location1)) {
+                    candidateGrid.remove(index);
                 }
-                coordinates.forEach(location1 -> {
-                    if (location != location1) {
-                        if (location.getDistance(location1) < 64) {
-                            LinkedHashSet<Vector2> lineCoordinates = location.getLine(location1);
-                            boolean connected = !lineCoordinates.removeIf(
-                                    loc -> !passable.inBounds(loc) || !passable.get(loc));
-                            if (connected) {
-                                unusedCoordinates.add(location1);
-                            }
-                        }
-                    }
-                });
+            });
+        }
+        List<Vector2> usedCoordinates = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (!candidateGrid.isRemoved(i)) {
+                usedCoordinates.add(candidates.get(i).roundToNearestHalfPoint());
             }
-        });
-        coordinates.removeAll(unusedCoordinates);
-        coordinates.forEach(location -> location.roundToNearestHalfPoint());
-        List<Vector2> coordinatesList = new ArrayList<>(coordinates);
-        coordinates.forEach((location) -> {
-            AIMarker aiMarker = new AIMarker(String.format(nameFormat, coordinatesList.indexOf(location)), location,
+        }
+        for (int i = 0; i < usedCoordinates.size(); i++) {
+            AIMarker aiMarker = new AIMarker(String.format(nameFormat, i), usedCoordinates.get(i),
                                              new LinkedHashSet<>());
             markers.add(aiMarker);
             List<Vector2> symmetryPoints = passable.getSymmetryPoints(aiMarker.getPosition(), SymmetryType.SPAWN);
+            int markerIndex = i;
             symmetryPoints.forEach(symmetryPoint -> markers.add(new AIMarker(
-                    String.format(nameFormat + "s%d", coordinatesList.indexOf(location),
-                                  symmetryPoints.indexOf(symmetryPoint)), symmetryPoint, new LinkedHashSet<>())));
-        });
-        markers.forEach(aiMarker -> markers.forEach(aiMarker1 -> {
-            if (aiMarker != aiMarker1 && aiMarker.getPosition().getXZDistance(aiMarker1.getPosition()) <= 128) {
-                LinkedHashSet<Vector2> lineCoordinates = aiMarker.getPosition().getXZLine(aiMarker1.getPosition());
-                boolean connected = !lineCoordinates.removeIf(
-                        location -> !passable.inBounds(location) || !passable.get(location));
-                if (connected) {
+                    String.format(nameFormat + "s%d", markerIndex, symmetryPoints.indexOf(symmetryPoint)),
+                    symmetryPoint, new LinkedHashSet<>())));
+        }
+        connectMarkers(passable, markers);
+    }
+
+    /**
+     * Connect every pair of markers close enough to each other with a passable line between them. Neighbors are
+     * added in the order of {@code markers}
+     */
+    private static void connectMarkers(BooleanMask passable, List<AIMarker> markers) {
+        List<Vector2> positions = markers.stream().map(aiMarker -> new Vector2(aiMarker.getPosition())).toList();
+        CoordinateGrid markerGrid = new CoordinateGrid(positions, passable.getSize(), CONNECTION_DISTANCE);
+        BitSet nearbyMarkers = new BitSet(markers.size());
+        for (int i = 0; i < markers.size(); i++) {
+            AIMarker aiMarker = markers.get(i);
+            markerGrid.forEachNear(positions.get(i), CONNECTION_DISTANCE, nearbyMarkers::set);
+            nearbyMarkers.clear(i);
+            for (int j = nearbyMarkers.nextSetBit(0); j >= 0; j = nearbyMarkers.nextSetBit(j + 1)) {
+                AIMarker aiMarker1 = markers.get(j);
+                if (aiMarker.getPosition().getXZDistance(aiMarker1.getPosition()) <= CONNECTION_DISTANCE
+                    && passable.isXZLineTrue(aiMarker.getPosition(), aiMarker1.getPosition())) {
                     aiMarker.addNeighbor(aiMarker1.getId());
                 }
             }
-        }));
+            nearbyMarkers.clear();
+        }
     }
 
     public static void placeAirAIMarkers(SCMap map) {
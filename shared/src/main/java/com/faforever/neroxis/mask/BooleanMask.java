@@ -4,9 +4,12 @@ import com.faforever.neroxis.map.Symmetry;
 import com.faforever.neroxis.map.SymmetrySettings;
 import com.faforever.neroxis.map.SymmetryType;
 import com.faforever.neroxis.util.BezierCurve;
+import com.faforever.neroxis.util.CoordinateGrid;
+import com.faforever.neroxis.util.KernelUtil;
 import com.faforever.neroxis.util.functional.BiIntBooleanConsumer;
 import com.faforever.neroxis.util.functional.ToBooleanBiIntFunction;
 import com.faforever.neroxis.util.vector.Vector2;
+import com.faforever.neroxis.util.vector.Vector3;
 
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
@@ -18,8 +21,8 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.function.LongBinaryOperator;
 import java.util.stream.Collectors;
 
 import static com.faforever.neroxis.brushes.Brushes.loadBrush;
@@ -68,7 +71,7 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
         this(other.getSize(), other.getNextSeed(), other.getSymmetrySettings(), name, other.isParallel());
         enqueue(dependencies -> {
             T source = (T) dependencies.getFirst();
-            apply((x, y) -> setPrimitive(x, y, source.valueAtGreaterThanEqualTo(x, y, minValue)));
+            loopInRowBands((x, y) -> setPrimitive(x, y, source.valueAtGreaterThanEqualTo(x, y, minValue)));
         }, other);
     }
 
@@ -81,8 +84,8 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
         this(other.getSize(), other.getNextSeed(), other.getSymmetrySettings(), name, other.isParallel());
         enqueue(dependencies -> {
             T source = (T) dependencies.getFirst();
-            apply((x, y) -> setPrimitive(x, y, source.valueAtGreaterThanEqualTo(x, y, minValue)
-                                               && source.valueAtLessThanEqualTo(x, y, maxValue)));
+            loopInRowBands((x, y) -> setPrimitive(x, y, source.valueAtGreaterThanEqualTo(x, y, minValue)
+                                                        && source.valueAtLessThanEqualTo(x, y, maxValue)));
         }, other);
     }
 
@@ -118,10 +121,21 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
         return (size * size / BOOLEANS_PER_LONG) + 1;
     }
 
-    private void setPrimitive(int x, int y, boolean value) {
+    void setPrimitive(int x, int y, boolean value) {
         setBit(x, y, value, getSize(), mask);
     }
 
+    @Override
+    protected void copyPixel(int sourceIndex, int targetIndex) {
+        setBit(targetIndex, getBit(sourceIndex, mask), mask);
+    }
+
+    @Override
+    protected int getRowBandAlignment() {
+        // Bands have to start on a word boundary as neighbouring pixels share a long
+        return BOOLEANS_PER_LONG >> StrictMath.min(Integer.numberOfTrailingZeros(getSize()), 6);
+    }
+
     @Override
     public BooleanMask blur(int radius) {
         return blur(radius, .5f);
@@ -131,13 +145,10 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
     public BooleanMask blur(int radius, BooleanMask other) {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
-            int[][] innerCount = getInnerCount();
             BooleanMask limiter = (BooleanMask) dependencies.getFirst();
-            apply((x, y) -> {
-                if (limiter.getPrimitive(x, y)) {
-                    setPrimitive(x, y, transformAverage(calculateAreaAverageAsInts(radius, x, y, innerCount), .5f));
-                }
-            });
+            long[] maskCopy = getMaskCopy();
+            KernelUtil.boxThreshold(mask, maskCopy, getSize(), radius, .5f, limiter::getPrimitive);
+            mask = maskCopy;
         }, other);
     }
 
@@ -149,6 +160,11 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
         }, other);
     }
 
+    @Override
+    protected void copyBackingData() {
+        fill(mask, maskBooleanSize);
+    }
+
     @Override
     protected void initializeMask(int size) {
         enqueue(() -> {
@@ -229,11 +245,9 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
             } else if (oldSize != newSize) {
                 long[] oldMask = mask;
                 initializeMask(newSize);
-                Map<Integer, Integer> coordinateMap = getSymmetricScalingCoordinateMap(oldSize, newSize);
-                applyWithSymmetry(SymmetryType.SPAWN, (x, y) -> {
-                    boolean value = getBit(coordinateMap.get(x), coordinateMap.get(y), oldSize, oldMask);
-                    applyAtSymmetryPoints(x, y, SymmetryType.SPAWN, (sx, sy) -> setPrimitive(sx, sy, value));
-                });
+                int[] coordinates = getSymmetricScalingCoordinates(oldSize, newSize);
+                applyAndCopyWithSymmetry(SymmetryType.SPAWN, (x, y) -> setPrimitive(x, y, getBit(
+                        coordinates[x], coordinates[y], oldSize, oldMask)));
             }
         });
     }
@@ -260,24 +274,12 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
      */
     public BooleanMask blur(int radius, float density) {
         return enqueue(() -> {
-            int[][] innerCount = getInnerCount();
-            apply((x, y) -> setPrimitive(x, y, transformAverage(calculateAreaAverageAsInts(radius, x, y, innerCount),
-                                                                density)));
+            long[] blurredMask = new long[mask.length];
+            KernelUtil.boxThreshold(mask, blurredMask, getSize(), radius, density, null);
+            mask = blurredMask;
         });
     }
 
-    @Override
-    protected int[][] getInnerCount() {
-        int size = getSize();
-        int[][] innerCount = new int[size][size];
-        apply((x, y) -> calculateInnerValue(innerCount, x, y, getPrimitive(x, y) ? 1 : 0));
-        return innerCount;
-    }
-
-    private boolean transformAverage(float value, float threshold) {
-        return value >= threshold;
-    }
-
     @Override
     public Boolean getSum() {
         throw new UnsupportedOperationException("Sum not supported for BooleanMask");
@@ -327,7 +329,8 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
     public BooleanMask addWithOffset(BooleanMask other, int xOffset, int yOffset, boolean center, boolean wrapEdges) {
         return enqueue(dependencies -> {
             BooleanMask source = (BooleanMask) dependencies.getFirst();
-            applyWithOffset(source, (BiIntBooleanConsumer) this::addPrimitiveAt, xOffset, yOffset, center, wrapEdges);
+            applyWithOffset(source, this::addPrimitiveAt, (word, sourceWord) -> word | sourceWord, xOffset, yOffset,
+                            center, wrapEdges);
         }, other);
     }
 
@@ -383,8 +386,8 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
                                           boolean wrapEdges) {
         return enqueue(dependencies -> {
             BooleanMask source = (BooleanMask) dependencies.getFirst();
-            applyWithOffset(source, (BiIntBooleanConsumer) this::subtractPrimitiveAt, xOffset, yOffset, center,
-                            wrapEdges);
+            applyWithOffset(source, this::subtractPrimitiveAt, (word, sourceWord) -> word & ~sourceWord, xOffset,
+                            yOffset, center, wrapEdges);
         }, other);
     }
 
@@ -433,8 +436,8 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
                                           boolean wrapEdges) {
         return enqueue(dependencies -> {
             BooleanMask source = (BooleanMask) dependencies.getFirst();
-            applyWithOffset(source, (BiIntBooleanConsumer) this::multiplyPrimitiveAt, xOffset, yOffset, center,
-                            wrapEdges);
+            applyWithOffset(source, this::multiplyPrimitiveAt, (word, sourceWord) -> word & sourceWord, xOffset,
+                            yOffset, center, wrapEdges);
         }, other);
     }
 
@@ -483,8 +486,8 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
                                         boolean wrapEdges) {
         return enqueue(dependencies -> {
             BooleanMask source = (BooleanMask) dependencies.getFirst();
-            applyWithOffset(source, (BiIntBooleanConsumer) this::dividePrimitiveAt, xOffset, yOffset, center,
-                            wrapEdges);
+            applyWithOffset(source, this::dividePrimitiveAt, (word, sourceWord) -> word ^ sourceWord, xOffset,
+                            yOffset, center, wrapEdges);
         }, other);
     }
 
@@ -623,7 +626,7 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
                                            float minValue, float maxValue, int maxStepSize, boolean wrapEdges) {
         return enqueue(() -> {
             Vector2 location = new Vector2(start);
-            BooleanMask brush = loadBrush(brushName, null).setSize(size).copyAsBooleanMask(minValue, maxValue);
+            BooleanMask brush = loadBrush(brushName, null, size).copyAsBooleanMask(minValue, maxValue);
             float targetX = target.getX();
             float targetY = target.getY();
             if (wrapEdges) {
@@ -771,6 +774,8 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
             for (int i = 0; i < mask.length; i++) {
                 mask[i] = ~mask[i];
             }
+            // Keep the unused bits of the last word cleared so they are not counted as true pixels
+            mask[mask.length - 1] &= (SINGLE_BIT_VALUE << (maskBooleanSize * maskBooleanSize % BOOLEANS_PER_LONG)) - 1;
         });
     }
 
@@ -780,15 +785,7 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
      * @param radius radius around true pixels to set to true
      */
     public BooleanMask inflate(float radius) {
-        return enqueue(() -> {
-            long[] maskCopy = getMaskCopy();
-            apply((x, y) -> {
-                if (getPrimitive(x, y) && isEdge(x, y)) {
-                    markInRadius(radius, maskCopy, x, y, true);
-                }
-            });
-            mask = maskCopy;
-        });
+        return enqueue(() -> KernelUtil.dilate(mask, getSize(), true, getSquaredMarkRadius(radius)));
     }
 
     /**
@@ -797,15 +794,7 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
      * @param radius radius around true pixels to set pixels to false
      */
     public BooleanMask deflate(float radius) {
-        return enqueue(() -> {
-            long[] maskCopy = getMaskCopy();
-            apply((x, y) -> {
-                if (!getPrimitive(x, y) && isEdge(x, y)) {
-                    markInRadius(radius, maskCopy, x, y, false);
-                }
-            });
-            mask = maskCopy;
-        });
+        return enqueue(() -> KernelUtil.dilate(mask, getSize(), false, getSquaredMarkRadius(radius)));
     }
 
     /**
@@ -883,23 +872,8 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
         return maskCopy;
     }
 
-    private void markInRadius(float radius, long[] maskCopy, int x, int y, boolean value) {
-        float radius2 = (radius + 0.5f) * (radius + 0.5f);
-        int size = getSize();
-        int searchRange = (int) StrictMath.ceil(radius);
-        int minX = x - searchRange;
-        int maxX = x + searchRange + 1;
-        int minY = y - searchRange;
-        int maxY = y + searchRange + 1;
-        for (int x2 = minX; x2 < maxX; ++x2) {
-            for (int y2 = minY; y2 < maxY; ++y2) {
-                int bitIndex = bitIndex(x2, y2, size);
-                if (inBounds(x2, y2, size) && getBit(bitIndex, maskCopy) != value
-                    && (x - x2) * (x - x2) + (y - y2) * (y - y2) <= radius2) {
-                    setBit(bitIndex, value, maskCopy);
-                }
-            }
-        }
+    private static float getSquaredMarkRadius(float radius) {
+        return (radius + 0.5f) * (radius + 0.5f);
     }
 
     /**
@@ -1023,7 +997,7 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
 
     public BooleanMask addBrush(Vector2 location, String brushName, float minValue, float maxValue, int size) {
         return enqueue(() -> {
-            FloatMask brush = loadBrush(brushName, null).setSize(size);
+            FloatMask brush = loadBrush(brushName, null, size);
             addWithOffset(brush, minValue, maxValue, location, false);
         });
     }
@@ -1273,6 +1247,50 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
         return distanceField;
     }
 
+    /**
+     * Whether every point {@link Vector2#getLine} visits walking from {@code start} to {@code end} is in bounds and
+     * true, without building the line
+     */
+    public boolean isLineTrue(Vector2 start, Vector2 end) {
+        return isLineTrue(start.getX(), start.getY(), end.getX(), end.getY(), false);
+    }
+
+    /**
+     * Whether every point {@link Vector3#getXZLine} visits walking from {@code start} to {@code end} is in bounds and
+     * true, without building the line
+     */
+    public boolean isXZLineTrue(Vector3 start, Vector3 end) {
+        return isLineTrue(start.getX(), start.getZ(), end.getX(), end.getZ(), true);
+    }
+
+    private boolean isLineTrue(float startX, float startY, float endX, float endY, boolean roundSteps) {
+        assertNotPipelined();
+        float x = startX;
+        float y = startY;
+        while (getDistance(x, y, endX, endY) > 1) {
+            int roundedX = StrictMath.round(x);
+            int roundedY = StrictMath.round(y);
+            if (!inBounds(roundedX, roundedY) || !getPrimitive(roundedX, roundedY)) {
+                return false;
+            }
+            float angle = (float) StrictMath.atan2(endY - y, endX - x);
+            if (roundSteps) {
+                x = StrictMath.round(x + StrictMath.cos(angle));
+                y = StrictMath.round(y + StrictMath.sin(angle));
+            } else {
+                x = (float) (x + StrictMath.cos(angle));
+                y = (float) (y + StrictMath.sin(angle));
+            }
+        }
+        return true;
+    }
+
+    private static float getDistance(float x, float y, float otherX, float otherY) {
+        float dx = x - otherX;
+        float dy = y - otherY;
+        return (float) StrictMath.sqrt(dx * dx + dy * dy);
+    }
+
     public List<Vector2> getSpacedCoordinates(float radius, int spacing) {
         List<Vector2> coordinateList = getAllCoordinates(spacing);
         return spaceCoordinates(radius, coordinateList);
@@ -1280,10 +1298,13 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
 
     private List<Vector2> spaceCoordinates(float radius, List<Vector2> coordinateList) {
         List<Vector2> chosenCoordinates = new ArrayList<>();
-        while (!coordinateList.isEmpty()) {
-            Vector2 location = coordinateList.removeFirst();
+        CoordinateGrid coordinateGrid = new CoordinateGrid(coordinateList, getSize(), radius);
+        while (!coordinateGrid.isEmpty()) {
+            int index = coordinateGrid.getRemainingIndex(0);
+            Vector2 location = coordinateGrid.get(index);
+            coordinateGrid.remove(index);
             chosenCoordinates.add(location);
-            coordinateList.removeIf((loc) -> location.getDistance(loc) < radius);
+            coordinateGrid.removeWithin(location, radius);
         }
         return chosenCoordinates;
     }
@@ -1335,15 +1356,18 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
         }
         List<Vector2> chosenCoordinates = new ArrayList<>();
         enqueue(() -> {
-            while (!coordinateList.isEmpty()) {
-                Vector2 location = coordinateList.remove(random.nextInt(coordinateList.size()));
+            CoordinateGrid coordinateGrid = new CoordinateGrid(coordinateList, getSize(),
+                                                               StrictMath.max(minSpacing, maxSpacing));
+            while (!coordinateGrid.isEmpty()) {
+                int index = coordinateGrid.getRemainingIndex(random.nextInt(coordinateGrid.getRemainingCount()));
+                Vector2 location = coordinateGrid.get(index);
+                coordinateGrid.remove(index);
                 float spacing = random.nextFloat() * (maxSpacing - minSpacing) + minSpacing;
                 chosenCoordinates.add(location);
-                coordinateList.removeIf(loc -> location.getDistance(loc) < spacing);
+                coordinateGrid.removeWithin(location, spacing);
                 if (symmetryType != null) {
                     List<Vector2> symmetryPoints = getSymmetryPoints(location, symmetryType);
-                    symmetryPoints.forEach(
-                            symPoint -> coordinateList.removeIf(loc -> symPoint.getDistance(loc) < spacing));
+                    symmetryPoints.forEach(symPoint -> coordinateGrid.removeWithin(symPoint, spacing));
                 }
             }
         });
@@ -1411,56 +1435,188 @@ public final class BooleanMask extends PrimitiveMask<Boolean, BooleanMask> {
         });
     }
 
-    private BooleanMask applyWithOffset(BooleanMask other, BiIntBooleanConsumer action, int xOffset, int yOffset,
-                                        boolean center, boolean wrapEdges) {
+    /**
+     * Combines {@code other} into this mask at the given offset. Whenever the two masks do not share their data the
+     * rows are combined a whole word at a time with {@code operation}, which has to match {@code action} bit for bit
+     */
+    private BooleanMask applyWithOffset(BooleanMask other, BiIntBooleanConsumer action, LongBinaryOperator operation,
+                                        int xOffset, int yOffset, boolean center, boolean wrapEdges) {
         return enqueue(() -> {
+            // Shifting the words of a mask onto itself would read bits that have already been modified
+            if (other.mask == mask) {
+                applyWithOffset(other, action, xOffset, yOffset, center, wrapEdges);
+                return;
+            }
+
             int size = getSize();
             int otherSize = other.getSize();
-            int smallerSize = StrictMath.min(size, otherSize);
-            int biggerSize = StrictMath.max(size, otherSize);
-            if (smallerSize == otherSize) {
+            if (otherSize <= size) {
                 if (symmetrySettings.spawnSymmetry().isPerfectSymmetry()) {
-                    Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    other.apply((x, y) -> {
-                        int shiftX = coordinateXMap.get(x);
-                        int shiftY = coordinateYMap.get(y);
-                        if (inBounds(shiftX, shiftY, size)) {
-                            boolean value = other.getPrimitive(x, y);
-                            applyAtSymmetryPoints(shiftX, shiftY, SymmetryType.SPAWN,
-                                                  (sx, sy) -> action.accept(sx, sy, value));
-                        }
-                    });
+                    int[] rowMap = getShiftedCoordinates(xOffset, center, wrapEdges, otherSize, size);
+                    int[] columnMap = getShiftedCoordinates(yOffset, center, wrapEdges, otherSize, size);
+                    applyWordsAtSymmetryPoints(other, rowMap, columnMap, operation);
                 } else {
-                    applyAtSymmetryPointsWithOutOfBounds(xOffset, yOffset, SymmetryType.SPAWN, (sx, sy) -> {
-                        Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(sx, center, wrapEdges, otherSize,
-                                                                                       size);
-                        Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(sy, center, wrapEdges, otherSize,
-                                                                                       size);
-                        other.apply((x, y) -> {
-                            int shiftX = coordinateXMap.get(x);
-                            int shiftY = coordinateYMap.get(y);
-                            if (inBounds(shiftX, shiftY, size)) {
-                                action.accept(shiftX, shiftY, other.getPrimitive(x, y));
-                            }
-                        });
-                    });
+                    applyAtSymmetryPointsWithOutOfBounds(xOffset, yOffset, SymmetryType.SPAWN, (sx, sy) -> applyWords(
+                            other.mask, otherSize, getShiftedCoordinates(sx, center, wrapEdges, otherSize, size),
+                            getShiftedCoordinates(sy, center, wrapEdges, otherSize, size), operation));
                 }
             } else {
-                Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                apply((x, y) -> {
-                    int shiftX = coordinateXMap.get(x);
-                    int shiftY = coordinateYMap.get(y);
-                    if (inBounds(shiftX, shiftY, otherSize)) {
-                        action.accept(x, y, other.getPrimitive(shiftX, shiftY));
-                    }
-                });
+                int[] rowMap = getInverseCoordinates(getShiftedCoordinates(xOffset, center, wrapEdges, size, otherSize),
+                                                     otherSize);
+                int[] columnMap = getInverseCoordinates(
+                        getShiftedCoordinates(yOffset, center, wrapEdges, size, otherSize), otherSize);
+                applyWords(other.mask, otherSize, rowMap, columnMap, operation);
             }
         });
     }
+
+    /**
+     * Perfect symmetries only mirror, rotate by right angles or transpose, so every symmetry point is an affine
+     * function of the original point. The source is transformed to match each of them and then shifted into place.
+     */
+    private void applyWordsAtSymmetryPoints(BooleanMask other, int[] rowMap, int[] columnMap,
+                                            LongBinaryOperator operation) {
+        int size = getSize();
+        int otherSize = other.getSize();
+        applyWords(other.mask, otherSize, rowMap, columnMap, operation);
+
+        List<Vector2> origins = getSymmetryPointsWithOutOfBounds(0, 0, SymmetryType.SPAWN);
+        List<Vector2> rowSteps = getSymmetryPointsWithOutOfBounds(1, 0, SymmetryType.SPAWN);
+        List<Vector2> columnSteps = getSymmetryPointsWithOutOfBounds(0, 1, SymmetryType.SPAWN);
+        for (int i = 0; i < origins.size(); i++) {
+            Vector2 origin = origins.get(i);
+            int rowToRow = (int) (rowSteps.get(i).getX() - origin.getX());
+            int rowToColumn = (int) (rowSteps.get(i).getY() - origin.getY());
+            int columnToRow = (int) (columnSteps.get(i).getX() - origin.getX());
+            int columnToColumn = (int) (columnSteps.get(i).getY() - origin.getY());
+            int originRow = (int) origin.getX();
+            int originColumn = (int) origin.getY();
+            if (rowToRow != 0) {
+                long[] transformed = getTransformedBits(other.mask, otherSize, false, rowToRow < 0,
+                                                        columnToColumn < 0);
+                applyWords(transformed, otherSize, getTransformedCoordinates(rowMap, originRow, rowToRow, size),
+                           getTransformedCoordinates(columnMap, originColumn, columnToColumn, size), operation);
+            } else {
+                long[] transformed = getTransformedBits(other.mask, otherSize, true, columnToRow < 0, rowToColumn < 0);
+                applyWords(transformed, otherSize, getTransformedCoordinates(columnMap, originRow, columnToRow, size),
+                           getTransformedCoordinates(rowMap, originColumn, rowToColumn, size), operation);
+            }
+        }
+    }
+
+    /**
+     * Combines the bits of a square source mask into this mask. Row and column i of the source are written to
+     * {@code rowMap[i]} and {@code columnMap[i]}, coordinates outside of this mask are skipped
+     */
+    private void applyWords(long[] source, int sourceSize, int[] rowMap, int[] columnMap,
+                            LongBinaryOperator operation) {
+        int size = getSize();
+        List<int[]> columnRuns = new ArrayList<>();
+        int column = 0;
+        while (column < sourceSize) {
+            int targetColumn = columnMap[column];
+            if (targetColumn < 0 || targetColumn >= size) {
+                column++;
+                continue;
+            }
+            int start = column;
+            do {
+                column++;
+            } while (column < sourceSize
+                     && columnMap[column] == targetColumn + column - start
+                     && columnMap[column] < size);
+            columnRuns.add(new int[]{start, targetColumn, column - start});
+        }
+
+        for (int row = 0; row < sourceSize; row++) {
+            int targetRow = rowMap[row];
+            if (targetRow < 0 || targetRow >= size) {
+                continue;
+            }
+            for (int[] run : columnRuns) {
+                applyBits(mask, bitIndex(targetRow, run[1], size), source, bitIndex(row, run[0], sourceSize), run[2],
+                          operation);
+            }
+        }
+    }
+
+    private static void applyBits(long[] target, int targetBitIndex, long[] source, int sourceBitIndex, int length,
+                                  LongBinaryOperator operation) {
+        int end = targetBitIndex + length;
+        int bitIndex = targetBitIndex;
+        while (bitIndex < end) {
+            int arrayIndex = arrayIndex(bitIndex);
+            int bitOffset = bitIndex % BOOLEANS_PER_LONG;
+            int count = StrictMath.min(BOOLEANS_PER_LONG - bitOffset, end - bitIndex);
+            long range = (count == BOOLEANS_PER_LONG ? ~0L : (SINGLE_BIT_VALUE << count) - 1) << bitOffset;
+            long sourceWord = getWord(source, sourceBitIndex + bitIndex - targetBitIndex) << bitOffset;
+            long word = target[arrayIndex];
+            target[arrayIndex] = (word & ~range) | (operation.applyAsLong(word, sourceWord) & range);
+            bitIndex += count;
+        }
+    }
+
+    /**
+     * @return the 64 bits starting at the given bit index
+     */
+    private static long getWord(long[] mask, int bitIndex) {
+        int arrayIndex = arrayIndex(bitIndex);
+        int bitOffset = bitIndex % BOOLEANS_PER_LONG;
+        long word = mask[arrayIndex] >>> bitOffset;
+        if (bitOffset != 0 && arrayIndex + 1 < mask.length) {
+            word |= mask[arrayIndex + 1] << (BOOLEANS_PER_LONG - bitOffset);
+        }
+        return word;
+    }
+
+    private static long[] getTransformedBits(long[] mask, int size, boolean transpose, boolean reverseRows,
+                                             boolean reverseColumns) {
+        long[] transformed = new long[minimumArraySize(size)];
+        for (int row = 0; row < size; row++) {
+            int sourceRow = reverseRows ? size - 1 - row : row;
+            for (int column = 0; column < size; column++) {
+                int sourceColumn = reverseColumns ? size - 1 - column : column;
+                boolean value = transpose ? getBit(sourceColumn, sourceRow, size, mask) : getBit(sourceRow,
+                                                                                                  sourceColumn, size,
+                                                                                                  mask);
+                if (value) {
+                    setBit(row, column, true, size, transformed);
+                }
+            }
+        }
+        return transformed;
+    }
+
+    /**
+     * Maps the in bounds coordinates with {@code origin + coordinate * step}, reversing their order when the step is
+     * negative so that they stay ascending. Out of bounds coordinates are marked with -1
+     */
+    private static int[] getTransformedCoordinates(int[] coordinates, int origin, int step, int size) {
+        int length = coordinates.length;
+        int[] transformed = new int[length];
+        for (int i = 0; i < length; i++) {
+            int coordinate = coordinates[step < 0 ? length - 1 - i : i];
+            transformed[i] = coordinate >= 0 && coordinate < size ? origin + coordinate * step : -1;
+        }
+        return transformed;
+    }
+
+
+    private static int[] getInverseCoordinates(int[] coordinates, int size) {
+        int[] inverse = new int[size];
+        Arrays.fill(inverse, -1);
+        for (int i = 0; i < coordinates.length; i++) {
+            int coordinate = coordinates[i];
+            if (coordinate >= 0 && coordinate < size) {
+                inverse[coordinate] = i;
+            }
+        }
+        return inverse;
+    }
+
+    private BooleanMask applyWithOffset(BooleanMask other, BiIntBooleanConsumer action, int xOffset, int yOffset,
+                                        boolean center, boolean wrapEdges) {
+        return enqueue(() -> loopWithOffset(other.getSize(), xOffset, yOffset, center, wrapEdges,
+                                            (x, y, otherIndex) -> action.accept(x, y, getBit(otherIndex, other.mask))));
+    }
 }
@@ -3,7 +3,9 @@ package com.faforever.neroxis.mask;
 import com.faforever.neroxis.map.Symmetry;
 import com.faforever.neroxis.map.SymmetrySettings;
 import com.faforever.neroxis.map.SymmetryType;
+import com.faforever.neroxis.util.KernelUtil;
 import com.faforever.neroxis.util.MathUtil;
+import com.faforever.neroxis.util.ResampleUtil;
 import com.faforever.neroxis.util.functional.BiIntFloatConsumer;
 import com.faforever.neroxis.util.functional.ToFloatBiIntFunction;
 import com.faforever.neroxis.util.vector.Vector;
@@ -19,14 +21,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.IntStream;
 
 import static com.faforever.neroxis.brushes.Brushes.loadBrush;
 
 @SuppressWarnings({"unchecked", "UnusedReturnValue", "unused"})
 public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
-    private float[][] mask;
+    private final MipPyramid mipPyramid = new MipPyramid();
+    private float[] mask;
+    private int maskSize;
 
     public FloatMask(int size, Long seed, SymmetrySettings symmetrySettings) {
         this(size, seed, symmetrySettings, null, false);
@@ -103,7 +106,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         enqueue(dependencies -> {
             U source1 = (U) dependencies.get(0);
             U source2 = (U) dependencies.get(1);
-            apply((x, y) -> setPrimitive(x, y, source1.get(x, y).dot(source2.get(x, y))));
+            apply((x, y) -> setPrimitive(x, y, source1.getDot(x, y, source2)));
         }, other1, other2);
     }
 
@@ -116,7 +119,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         assertCompatibleMask(other);
         enqueue(dependencies -> {
             U source = (U) dependencies.getFirst();
-            apply((x, y) -> setPrimitive(x, y, source.get(x, y).dot(vector)));
+            apply((x, y) -> setPrimitive(x, y, source.getDot(x, y, vector)));
         }, other);
     }
 
@@ -129,12 +132,21 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         assertCompatibleMask(other);
         enqueue(dependencies -> {
             U source = (U) dependencies.getFirst();
-            apply((x, y) -> setPrimitive(x, y, source.get(x, y).get(index)));
+            apply((x, y) -> setPrimitive(x, y, source.getComponent(x, y, index)));
         }, other);
     }
 
     void setPrimitive(int x, int y, float value) {
-        mask[x][y] = value;
+        mask[getIndex(x, y)] = value;
+    }
+
+    private int getIndex(int x, int y) {
+        return x * maskSize + y;
+    }
+
+    @Override
+    protected void copyPixel(int sourceIndex, int targetIndex) {
+        mask[targetIndex] = mask[sourceIndex];
     }
 
     /**
@@ -156,7 +168,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         FloatMask noise = new FloatMask(size, null, symmetrySettings, getName() + "PerlinNoise", isParallel());
         noise.enqueue(dependencies -> {
             Vector2Mask source = (Vector2Mask) dependencies.getFirst();
-            noise.setPrimitiveWithSymmetry(SymmetryType.SPAWN, (x, y) -> {
+            noise.setPrimitiveWithSymmetryInRowBands(SymmetryType.SPAWN, (x, y) -> {
                 int xLow = (int) (x / gradientScale);
                 float dXLow = x / gradientScale - xLow;
                 int xHigh = xLow + 1;
@@ -175,29 +187,30 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
             float noiseMin = noise.getMin();
             float noiseMax = noise.getMax();
             float noiseRange = noiseMax - noiseMin;
-            noise.apply((x, y) -> noise.setPrimitive(x, y, (noise.getPrimitive(x, y) - noiseMin) / noiseRange * scale));
+            noise.loopInRowBands(
+                    (x, y) -> noise.setPrimitive(x, y, (noise.getPrimitive(x, y) - noiseMin) / noiseRange * scale));
         }, gradientVectors);
         return enqueue(dependencies -> add((FloatMask) dependencies.getFirst()), noise);
     }
 
     @Override
     public Float getMin() {
-        return (float) Arrays.stream(mask)
-                             .flatMapToDouble(row -> IntStream.range(0, row.length).mapToDouble(i -> row[i]))
-                             .min()
-                             .orElseThrow(() -> new IllegalStateException("Empty Mask"));
+        return (float) IntStream.range(0, mask.length)
+                                .mapToDouble(i -> mask[i])
+                                .min()
+                                .orElseThrow(() -> new IllegalStateException("Empty Mask"));
     }
 
     @Override
     public Float getMax() {
-        return (float) Arrays.stream(mask)
-                             .flatMapToDouble(row -> IntStream.range(0, row.length).mapToDouble(i -> row[i]))
-                             .max()
-                             .orElseThrow(() -> new IllegalStateException("Empty Mask"));
+        return (float) IntStream.range(0, mask.length)
+                                .mapToDouble(i -> mask[i])
+                                .max()
+                                .orElseThrow(() -> new IllegalStateException("Empty Mask"));
     }
 
     public float getPrimitive(int x, int y) {
-        return mask[x][y];
+        return mask[getIndex(x, y)];
     }
 
     private void setPrimitive(Vector2 location, float value) {
@@ -328,8 +341,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
 
     public FloatMask useBrush(Vector2 location, String brushName, float intensity, int size, boolean wrapEdges) {
         return enqueue(() -> {
-            FloatMask brush = loadBrush(brushName, null);
-            brush.multiply(intensity / brush.getMax()).setSize(size);
+            FloatMask brush = loadBrush(brushName, null, size, intensity);
             addWithOffset(brush, location, true, wrapEdges);
         });
     }
@@ -355,15 +367,15 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
     public FloatMask gradient() {
         return enqueue(() -> {
             int size = getSize();
-            float[][] newMask = new float[size][size];
-            apply((x, y) -> {
+            float[] newMask = new float[size * size];
+            loopInRowBands((x, y) -> {
                 int xNeg = StrictMath.max(0, x - 1);
                 int xPos = StrictMath.min(size - 1, x + 1);
                 int yNeg = StrictMath.max(0, y - 1);
                 int yPos = StrictMath.min(size - 1, y + 1);
                 float xSlope = (getPrimitive(xPos, y) - getPrimitive(xNeg, y)) / (xPos - xNeg);
                 float ySlope = (getPrimitive(x, yPos) - getPrimitive(x, yNeg)) / (yPos - yNeg);
-                newMask[x][y] = (float) StrictMath.sqrt(xSlope * xSlope + ySlope * ySlope);
+                newMask[getIndex(x, y)] = (float) StrictMath.sqrt(xSlope * xSlope + ySlope * ySlope);
             });
             mask = newMask;
         });
@@ -375,8 +387,8 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
     public FloatMask supcomGradient() {
         return enqueue(() -> {
             int size = getSize();
-            float[][] newMask = new float[size][size];
-            apply((x, y) -> {
+            float[] newMask = new float[size * size];
+            loopInRowBands((x, y) -> {
                 int xPos = StrictMath.min(size - 1, x + 1);
                 int yPos = StrictMath.min(size - 1, y + 1);
                 int xNeg = StrictMath.max(0, x - 1);
@@ -385,7 +397,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
                 float yPosSlope = StrictMath.abs(getPrimitive(x, y) - getPrimitive(x, yPos));
                 float xNegSlope = StrictMath.abs(getPrimitive(x, y) - getPrimitive(xNeg, y));
                 float yNegSlope = StrictMath.abs(getPrimitive(x, y) - getPrimitive(x, yNeg));
-                newMask[x][y] = Collections.max(List.of(xPosSlope, yPosSlope, xNegSlope, yNegSlope));
+                newMask[getIndex(x, y)] = Collections.max(List.of(xPosSlope, yPosSlope, xNegSlope, yNegSlope));
             });
             mask = newMask;
         });
@@ -410,8 +422,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
             assertSmallerSize(size);
             ArrayList<Vector2> possibleLocations = new ArrayList<>(source.getAllCoordinatesEqualTo(true, 1));
             int length = possibleLocations.size();
-            FloatMask brush = loadBrush(brushName, null);
-            brush.multiply(intensity / brush.getMax()).setSize(size);
+            FloatMask brush = loadBrush(brushName, null, size, intensity);
             for (int i = 0; i < numUses; i++) {
                 Vector2 location = possibleLocations.get(random.nextInt(length));
                 addWithOffset(brush, location, true, wrapEdges);
@@ -419,31 +430,87 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         }, other);
     }
 
+    /**
+     * Return a boolean mask which is true where the terrain is shadowed from the light. A ray is marched from every
+     * pixel which is not already shadowed, shadowing pixels until it reaches one above its shadow line
+     *
+     * @param lightDirection direction of the light
+     * @return a new shadow mask
+     */
     public BooleanMask copyAsShadowMask(Vector3 lightDirection) {
         float angle = (float) ((lightDirection.getAzimuth() - StrictMath.PI) % (StrictMath.PI * 2));
         float slope = (float) StrictMath.tan(lightDirection.getElevation());
+        // Same step as Vector2.addPolar so that the rays visit the same pixels as when marching a vector
+        float stepX = (float) StrictMath.cos(angle);
+        float stepY = (float) StrictMath.sin(angle);
         BooleanMask shadowMask = new BooleanMask(getSize(), getNextSeed(), new SymmetrySettings(Symmetry.NONE),
                                                  getName() +
                                                  "Shadow", isParallel());
-        return shadowMask.enqueue(dependencies -> shadowMask.apply((x, y) -> {
+        return shadowMask.enqueue(dependencies -> {
             FloatMask source = (FloatMask) dependencies.getFirst();
-            Vector2 location = new Vector2(x, y);
-            if (shadowMask.getPrimitive(location)) {
-                return;
-            }
-            float startHeight = source.getPrimitive(location);
-            int dist = 1;
-            location.addPolar(angle, 1);
-            while (source.inBounds(location)) {
-                if (startHeight - source.getPrimitive(location) > dist * slope) {
-                    shadowMask.setPrimitive(location, true);
-                } else {
-                    break;
+            int size = source.getSize();
+            // Pixels are visited in loop order as rays skip pixels shadowed by the rays before them
+            shadowMask.apply((x, y) -> {
+                if (shadowMask.getPrimitive(x, y)) {
+                    return;
                 }
-                location.addPolar(angle, 1);
-                ++dist;
-            }
-        }), this).inflate(1).deflate(1);
+                float startHeight = source.getPrimitive(x, y);
+                float locationX = x + stepX;
+                float locationY = y + stepY;
+                int rayX = StrictMath.round(locationX);
+                int rayY = StrictMath.round(locationY);
+                int dist = 1;
+                while (inBounds(rayX, rayY, size) && startHeight - source.getPrimitive(rayX, rayY) > dist * slope) {
+                    shadowMask.setPrimitive(rayX, rayY, true);
+                    locationX += stepX;
+                    locationY += stepY;
+                    rayX = StrictMath.round(locationX);
+                    rayY = StrictMath.round(locationY);
+                    ++dist;
+                }
+            });
+        }, this).inflate(1).deflate(1);
+    }
+
+    /**
+     * Return a new mask scaled to the given size. Unlike {@link #resample} every source pixel contributes: shrinking
+     * averages the area each new pixel covers, starting from the halved copies of this mask cached since it last
+     * changed, and growing interpolates bilinearly
+     *
+     * @param newSize size of the new mask
+     * @return a new resampled mask
+     */
+    public FloatMask copyAsResampled(int newSize) {
+        FloatMask resampledMask = new FloatMask(newSize, getNextSeed(), getSymmetrySettings(),
+                                                getName() + "Resampled", isParallel());
+        return resampledMask.enqueue(dependencies -> {
+            FloatMask source = (FloatMask) dependencies.getFirst();
+            float[] resampled = source.getResampledData(newSize);
+            resampledMask.applyAndCopyWithSymmetry(SymmetryType.SPAWN,
+                                                   (x, y) -> resampledMask.setPrimitive(x, y,
+                                                                                        resampled[x * newSize + y]));
+        }, this);
+    }
+
+    /**
+     * Scales the mask to the given size in place with the filtering of {@link #copyAsResampled}
+     *
+     * @param newSize size to scale the mask to
+     * @return the scaled mask
+     */
+    public FloatMask resampleFiltered(int newSize) {
+        if (newSize == getSize()) {
+            return this;
+        }
+        return init(copyAsResampled(newSize));
+    }
+
+    private float[] getResampledData(int newSize) {
+        int size = getSize();
+        if (newSize >= size) {
+            return ResampleUtil.bilinear(mask, size, newSize);
+        }
+        return mipPyramid.areaAverage(mask, size, getDataVersion(), newSize);
     }
 
     public float getPrimitive(Vector2 location) {
@@ -494,66 +561,49 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
     private void addCalculatedParabolicDistance(boolean useColumns) {
         assertNotPipelined();
         int size = getSize();
-        for (int i = 0; i < size; i++) {
-            List<Vector2> vertices = new ArrayList<>();
-            List<Vector2> intersections = new ArrayList<>();
-            int index = 0;
-            float value;
-            if (!useColumns) {
-                value = getPrimitive(i, 0);
-            } else {
-                value = getPrimitive(0, i);
-            }
-            vertices.add(new Vector2(0, value));
-            intersections.add(new Vector2(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY));
-            intersections.add(new Vector2(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY));
-            for (int j = 1; j < size; j++) {
-                if (!useColumns) {
-                    value = getPrimitive(i, j);
-                } else {
-                    value = getPrimitive(j, i);
-                }
-                Vector2 current = new Vector2(j, value);
-                Vector2 vertex = vertices.get(index);
-                float xIntersect = ((current.getY() + current.getX() * current.getX()) -
-                                    (vertex.getY() + vertex.getX() * vertex.getX())) /
-                                   (2 * current.getX() - 2 * vertex.getX());
-                while (xIntersect <= intersections.get(index).getX()) {
-                    index -= 1;
-                    vertex = vertices.get(index);
-                    xIntersect = ((current.getY() + current.getX() * current.getX()) -
-                                  (vertex.getY() + vertex.getX() * vertex.getX())) /
-                                 (2 * current.getX() - 2 * vertex.getX());
-                }
-                index += 1;
-                if (index < vertices.size()) {
-                    vertices.set(index, current);
-                } else {
-                    vertices.add(current);
-                }
-                if (index < intersections.size() - 1) {
-                    intersections.set(index, new Vector2(xIntersect, Float.POSITIVE_INFINITY));
-                    intersections.set(index + 1, new Vector2(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY));
-                } else {
-                    intersections.set(index, new Vector2(xIntersect, Float.POSITIVE_INFINITY));
-                    intersections.add(new Vector2(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY));
-                }
-            }
-            index = 0;
-            for (int j = 0; j < size; j++) {
-                while (intersections.get(index + 1).getX() < j) {
+        int stride = useColumns ? size : 1;
+        // Every row or column only reads and writes its own pixels so bands of them can run concurrently
+        forEachRowBand(0, size, (startLine, endLine) -> {
+            // Lower envelope of the parabolas rooted at each pixel of the line, where the parabola of vertex k is
+            // lowest from intersections[k] to intersections[k + 1]
+            float[] vertexX = new float[size];
+            float[] vertexY = new float[size];
+            float[] intersections = new float[size + 1];
+            for (int i = startLine; i < endLine; i++) {
+                int lineStart = useColumns ? i : i * size;
+                int index = 0;
+                vertexX[0] = 0;
+                vertexY[0] = mask[lineStart];
+                intersections[0] = Float.NEGATIVE_INFINITY;
+                intersections[1] = Float.POSITIVE_INFINITY;
+                for (int j = 1; j < size; j++) {
+                    float currentX = j;
+                    float currentY = mask[lineStart + j * stride];
+                    float xIntersect = getParabolaIntersection(currentX, currentY, vertexX[index], vertexY[index]);
+                    while (xIntersect <= intersections[index]) {
+                        index -= 1;
+                        xIntersect = getParabolaIntersection(currentX, currentY, vertexX[index], vertexY[index]);
+                    }
                     index += 1;
+                    vertexX[index] = currentX;
+                    vertexY[index] = currentY;
+                    intersections[index] = xIntersect;
+                    intersections[index + 1] = Float.POSITIVE_INFINITY;
                 }
-                Vector2 vertex = vertices.get(index);
-                float dx = j - vertex.getX();
-                float height = dx * dx + vertex.getY();
-                if (!useColumns) {
-                    setPrimitive(i, j, height);
-                } else {
-                    setPrimitive(j, i, height);
+                index = 0;
+                for (int j = 0; j < size; j++) {
+                    while (intersections[index + 1] < j) {
+                        index += 1;
+                    }
+                    float dx = j - vertexX[index];
+                    mask[lineStart + j * stride] = dx * dx + vertexY[index];
                 }
             }
-        }
+        });
+    }
+
+    private static float getParabolaIntersection(float currentX, float currentY, float vertexX, float vertexY) {
+        return ((currentY + currentX * currentX) - (vertexY + vertexX * vertexX)) / (2 * currentX - 2 * vertexX);
     }
 
     /**
@@ -565,9 +615,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
 
     @Override
     public FloatMask blur(int radius) {
-        int[][] innerCount = getInnerCount();
-        return apply(
-                (x, y) -> setPrimitive(x, y, transformAverage(calculateAreaAverageAsInts(radius, x, y, innerCount))));
+        return enqueue(() -> KernelUtil.boxBlur(mask, getSize(), radius));
     }
 
     @Override
@@ -575,28 +623,34 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             BooleanMask limiter = (BooleanMask) dependencies.getFirst();
-            int[][] innerCount = getInnerCount();
-            apply((x, y) -> {
-                if (limiter.get(x, y)) {
-                    setPrimitive(x, y, transformAverage(calculateAreaAverageAsInts(radius, x, y, innerCount)));
-                }
-            });
+            KernelUtil.boxBlur(mask, getSize(), radius, limiter::getPrimitive);
         }, other);
     }
 
     @Override
     protected FloatMask copyFrom(FloatMask other) {
-        return enqueue(dependencies -> fill(((FloatMask) dependencies.getFirst()).mask), other);
+        return enqueue(dependencies -> {
+            FloatMask source = (FloatMask) dependencies.getFirst();
+            fill(source.mask, source.maskSize);
+        }, other);
+    }
+
+    @Override
+    protected void copyBackingData() {
+        fill(mask, maskSize);
     }
 
     @Override
     protected void initializeMask(int size) {
-        enqueue(() -> mask = new float[size][size]);
+        enqueue(() -> {
+            mask = new float[size * size];
+            maskSize = size;
+        });
     }
 
     @Override
     protected int getImmediateSize() {
-        return mask.length;
+        return maskSize;
     }
 
     @Override
@@ -640,16 +694,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
 
     @Override
     protected FloatMask fill(Float value) {
-        return enqueue(() -> {
-            int maskSize = mask.length;
-            mask[0][0] = value;
-            for (int i = 1; i < maskSize; i += i) {
-                System.arraycopy(mask[0], 0, mask[0], i, StrictMath.min((maskSize - i), i));
-            }
-            for (int r = 1; r < maskSize; ++r) {
-                System.arraycopy(mask[0], 0, mask[r], 0, maskSize);
-            }
-        });
+        return enqueue(() -> Arrays.fill(mask, value));
     }
 
     @Override
@@ -666,38 +711,21 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
                 initializeMask(newSize);
                 fill(value);
             } else if (oldSize != newSize) {
-                float[][] oldMask = mask;
+                float[] oldMask = mask;
                 initializeMask(newSize);
-                Map<Integer, Integer> coordinateMap = getSymmetricScalingCoordinateMap(oldSize, newSize);
-                applyWithSymmetry(SymmetryType.SPAWN, (x, y) -> {
-                    float value = oldMask[coordinateMap.get(x)][coordinateMap.get(y)];
-                    applyAtSymmetryPoints(x, y, SymmetryType.SPAWN, (sx, sy) -> setPrimitive(sx, sy, value));
-                });
+                int[] coordinates = getSymmetricScalingCoordinates(oldSize, newSize);
+                applyAndCopyWithSymmetry(SymmetryType.SPAWN, (x, y) -> setPrimitive(x, y, oldMask[
+                        coordinates[x] * oldSize + coordinates[y]]));
             }
         });
     }
 
-    private FloatMask fill(float[][] maskToFillFrom) {
-        int maskSize = maskToFillFrom.length;
-        mask = new float[maskSize][maskSize];
-        for (int r = 0; r < maskSize; ++r) {
-            System.arraycopy(maskToFillFrom[r], 0, mask[r], 0, maskSize);
-        }
+    private FloatMask fill(float[] maskToFillFrom, int maskSize) {
+        mask = maskToFillFrom.clone();
+        this.maskSize = maskSize;
         return this;
     }
 
-    private float transformAverage(float value) {
-        return value / 1000f;
-    }
-
-    @Override
-    protected int[][] getInnerCount() {
-        int size = getSize();
-        int[][] innerCount = new int[size][size];
-        apply((x, y) -> calculateInnerValue(innerCount, x, y, StrictMath.round(getPrimitive(x, y) * 1000)));
-        return innerCount;
-    }
-
     private FloatMask add(ToFloatBiIntFunction valueFunction) {
         return apply((x, y) -> addPrimitiveAt(x, y, valueFunction.apply(x, y)));
     }
@@ -715,26 +743,26 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
     }
 
     private void multiplyPrimitiveAt(int x, int y, float value) {
-        mask[x][y] *= value;
+        mask[getIndex(x, y)] *= value;
     }
 
     private void addPrimitiveAt(int x, int y, float value) {
-        mask[x][y] += value;
+        mask[getIndex(x, y)] += value;
     }
 
     private void subtractPrimitiveAt(int x, int y, float value) {
-        mask[x][y] -= value;
+        mask[getIndex(x, y)] -= value;
     }
 
     private void dividePrimitiveAt(int x, int y, float value) {
-        mask[x][y] /= value;
+        mask[getIndex(x, y)] /= value;
     }
 
     @Override
     public Float getSum() {
-        return (float) Arrays.stream(mask)
-                             .flatMapToDouble(row -> IntStream.range(0, row.length).mapToDouble(i -> row[i]))
-                             .sum();
+        return (float) IntStream.range(0, mask.length)
+                                .mapToDouble(i -> mask[i])
+                                .sum();
     }
 
     public FloatMask setWithOffset(FloatMask other, int xOffset, int yOffset, boolean center, boolean wrapEdges) {
@@ -749,13 +777,16 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             FloatMask source = (FloatMask) dependencies.getFirst();
-            apply((x, y) -> mask[x][y] += source.mask[x][y]);
+            float[] sourceMask = source.mask;
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] += sourceMask[i];
+            }
         }, other);
     }
 
     @Override
     protected void addValueAt(int x, int y, Float value) {
-        mask[x][y] += value;
+        mask[getIndex(x, y)] += value;
     }
 
     @Override
@@ -796,7 +827,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
 
     @Override
     protected void subtractValueAt(int x, int y, Float value) {
-        mask[x][y] -= value;
+        mask[getIndex(x, y)] -= value;
     }
 
     @Override
@@ -811,7 +842,10 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             FloatMask source = (FloatMask) dependencies.getFirst();
-            apply((x, y) -> mask[x][y] -= source.mask[x][y]);
+            float[] sourceMask = source.mask;
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] -= sourceMask[i];
+            }
         }, other);
     }
 
@@ -857,13 +891,16 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             FloatMask source = (FloatMask) dependencies.getFirst();
-            apply((x, y) -> mask[x][y] *= source.mask[x][y]);
+            float[] sourceMask = source.mask;
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] *= sourceMask[i];
+            }
         }, other);
     }
 
     @Override
     protected void multiplyValueAt(int x, int y, Float value) {
-        mask[x][y] *= value;
+        mask[getIndex(x, y)] *= value;
     }
 
     @Override
@@ -908,13 +945,16 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             FloatMask source = (FloatMask) dependencies.getFirst();
-            apply((x, y) -> mask[x][y] /= source.mask[x][y]);
+            float[] sourceMask = source.mask;
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] /= sourceMask[i];
+            }
         }, other);
     }
 
     @Override
     protected void divideValueAt(int x, int y, Float value) {
-        mask[x][y] /= value;
+        mask[getIndex(x, y)] /= value;
     }
 
     @Override
@@ -954,9 +994,20 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
     }
 
     public FloatMask setPrimitiveWithSymmetry(SymmetryType symmetryType, ToFloatBiIntFunction valueFunction) {
-        return applyWithSymmetry(symmetryType, (x, y) -> {
-            float value = valueFunction.apply(x, y);
-            applyAtSymmetryPoints(x, y, symmetryType, (sx, sy) -> setPrimitive(sx, sy, value));
+        return applyAndCopyWithSymmetry(symmetryType, (x, y) -> setPrimitive(x, y, valueFunction.apply(x, y)));
+    }
+
+    /**
+     * Same as {@link #setPrimitiveWithSymmetry} for value functions which only read other masks, so the values can
+     * be computed in row bands before they are written to the symmetry points in order
+     */
+    private FloatMask setPrimitiveWithSymmetryInRowBands(SymmetryType symmetryType,
+                                                         ToFloatBiIntFunction valueFunction) {
+        return enqueue(() -> {
+            int size = getSize();
+            float[] values = new float[size * size];
+            loopWithSymmetryInRowBands(symmetryType, (x, y) -> values[getIndex(x, y)] = valueFunction.apply(x, y));
+            setPrimitiveWithSymmetry(symmetryType, (x, y) -> values[getIndex(x, y)]);
         });
     }
 
@@ -990,54 +1041,7 @@ public final class FloatMask extends PrimitiveMask<Float, FloatMask> {
 
     private FloatMask applyWithOffset(FloatMask other, BiIntFloatConsumer action, int xOffset, int yOffset,
                                       boolean center, boolean wrapEdges) {
-        return enqueue(() -> {
-            int size = getSize();
-            int otherSize = other.getSize();
-            int smallerSize = StrictMath.min(size, otherSize);
-            int biggerSize = StrictMath.max(size, otherSize);
-            if (smallerSize == otherSize) {
-                if (symmetrySettings.spawnSymmetry().isPerfectSymmetry()) {
-                    Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    other.apply((x, y) -> {
-                        int shiftX = coordinateXMap.get(x);
-                        int shiftY = coordinateYMap.get(y);
-                        if (inBounds(shiftX, shiftY, size)) {
-                            float value = other.getPrimitive(x, y);
-                            applyAtSymmetryPoints(shiftX, shiftY, SymmetryType.SPAWN,
-                                                  (sx, sy) -> action.accept(sx, sy, value));
-                        }
-                    });
-                } else {
-                    applyAtSymmetryPointsWithOutOfBounds(xOffset, yOffset, SymmetryType.SPAWN, (sx, sy) -> {
-                        Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(sx, center, wrapEdges, otherSize,
-                                                                                       size);
-                        Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(sy, center, wrapEdges, otherSize,
-                                                                                       size);
-                        other.apply((x, y) -> {
-                            int shiftX = coordinateXMap.get(x);
-                            int shiftY = coordinateYMap.get(y);
-                            if (inBounds(shiftX, shiftY, size)) {
-                                action.accept(shiftX, shiftY, other.getPrimitive(x, y));
-                            }
-                        });
-                    });
-                }
-            } else {
-                Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                apply((x, y) -> {
-                    int shiftX = coordinateXMap.get(x);
-                    int shiftY = coordinateYMap.get(y);
-                    if (inBounds(shiftX, shiftY, otherSize)) {
-                        action.accept(x, y, other.getPrimitive(shiftX, shiftY));
-                    }
-                });
-            }
-        });
+        return enqueue(() -> loopWithOffset(other.getSize(), xOffset, yOffset, center, wrapEdges,
+                                            (x, y, otherIndex) -> action.accept(x, y, other.mask[otherIndex])));
     }
 }
@@ -2,6 +2,7 @@ package com.faforever.neroxis.mask;
 
 import com.faforever.neroxis.map.SymmetrySettings;
 import com.faforever.neroxis.map.SymmetryType;
+import com.faforever.neroxis.util.KernelUtil;
 import com.faforever.neroxis.util.functional.ToIntBiIntFunction;
 import com.faforever.neroxis.util.functional.TriIntConsumer;
 import com.faforever.neroxis.util.vector.Vector2;
@@ -12,11 +13,11 @@ import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.Map;
 
 @SuppressWarnings({"UnusedReturnValue", "unused"})
 public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
-    private int[][] mask;
+    private int[] mask;
+    private int maskSize;
 
     public IntegerMask(int size, Long seed, SymmetrySettings symmetrySettings) {
         this(size, seed, symmetrySettings, null, false);
@@ -76,7 +77,16 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
     }
 
     private void setPrimitive(int x, int y, int value) {
-        mask[x][y] = value;
+        mask[getIndex(x, y)] = value;
+    }
+
+    private int getIndex(int x, int y) {
+        return x * maskSize + y;
+    }
+
+    @Override
+    protected void copyPixel(int sourceIndex, int targetIndex) {
+        mask[targetIndex] = mask[sourceIndex];
     }
 
     public int getPrimitive(Vector2 location) {
@@ -84,7 +94,7 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
     }
 
     public int getPrimitive(int x, int y) {
-        return mask[x][y];
+        return mask[getIndex(x, y)];
     }
 
     private void setPrimitive(Vector2 location, int value) {
@@ -94,7 +104,6 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
     @Override
     public Integer getMin() {
         return Arrays.stream(mask)
-                     .flatMapToInt(Arrays::stream)
                      .min()
                      .orElseThrow(() -> new IllegalStateException("Empty Mask"));
     }
@@ -102,16 +111,13 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
     @Override
     public Integer getMax() {
         return Arrays.stream(mask)
-                     .flatMapToInt(Arrays::stream)
                      .max()
                      .orElseThrow(() -> new IllegalStateException("Empty Mask"));
     }
 
     @Override
     public IntegerMask blur(int radius) {
-        int[][] innerCount = getInnerCount();
-        return apply(
-                (x, y) -> setPrimitive(x, y, transformAverage(calculateAreaAverageAsInts(radius, x, y, innerCount))));
+        return enqueue(() -> KernelUtil.boxBlur(mask, getSize(), radius));
     }
 
     @Override
@@ -119,28 +125,34 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             BooleanMask limiter = (BooleanMask) dependencies.get(0);
-            int[][] innerCount = getInnerCount();
-            apply((x, y) -> {
-                if (limiter.get(x, y)) {
-                    setPrimitive(x, y, transformAverage(calculateAreaAverageAsInts(radius, x, y, innerCount)));
-                }
-            });
+            KernelUtil.boxBlur(mask, getSize(), radius, limiter::getPrimitive);
         }, other);
     }
 
     @Override
     protected IntegerMask copyFrom(IntegerMask other) {
-        return enqueue(dependencies -> fill(((IntegerMask) dependencies.get(0)).mask), other);
+        return enqueue(dependencies -> {
+            IntegerMask source = (IntegerMask) dependencies.get(0);
+            fill(source.mask, source.maskSize);
+        }, other);
+    }
+
+    @Override
+    protected void copyBackingData() {
+        fill(mask, maskSize);
     }
 
     @Override
     protected void initializeMask(int size) {
-        enqueue(() -> mask = new int[size][size]);
+        enqueue(() -> {
+            mask = new int[size * size];
+            maskSize = size;
+        });
     }
 
     @Override
     protected int getImmediateSize() {
-        return mask.length;
+        return maskSize;
     }
 
     @Override
@@ -180,16 +192,7 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
 
     @Override
     protected IntegerMask fill(Integer value) {
-        return enqueue(() -> {
-            int maskSize = mask.length;
-            mask[0][0] = value;
-            for (int i = 1; i < maskSize; i += i) {
-                System.arraycopy(mask[0], 0, mask[0], i, StrictMath.min((maskSize - i), i));
-            }
-            for (int r = 1; r < maskSize; ++r) {
-                System.arraycopy(mask[0], 0, mask[r], 0, maskSize);
-            }
-        });
+        return enqueue(() -> Arrays.fill(mask, value));
     }
 
     @Override
@@ -206,28 +209,19 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
                 initializeMask(newSize);
                 fill(value);
             } else if (oldSize != newSize) {
-                int[][] oldMask = mask;
+                int[] oldMask = mask;
                 initializeMask(newSize);
-                Map<Integer, Integer> coordinateMap = getSymmetricScalingCoordinateMap(oldSize, newSize);
-                applyWithSymmetry(SymmetryType.SPAWN, (x, y) -> {
-                    int value = oldMask[coordinateMap.get(x)][coordinateMap.get(y)];
-                    applyAtSymmetryPoints(x, y, SymmetryType.SPAWN, (sx, sy) -> setPrimitive(sx, sy, value));
-                });
+                int[] coordinates = getSymmetricScalingCoordinates(oldSize, newSize);
+                applyAndCopyWithSymmetry(SymmetryType.SPAWN, (x, y) -> setPrimitive(x, y, oldMask[
+                        coordinates[x] * oldSize + coordinates[y]]));
             }
         });
     }
 
-    private int transformAverage(float value) {
-        return StrictMath.round(value);
-    }
-
-    private IntegerMask fill(int[][] maskToFillFrom) {
+    private IntegerMask fill(int[] maskToFillFrom, int maskSize) {
         assertNotPipelined();
-        int maskSize = maskToFillFrom.length;
-        mask = new int[maskSize][maskSize];
-        for (int r = 0; r < maskSize; ++r) {
-            System.arraycopy(maskToFillFrom[r], 0, mask[r], 0, maskSize);
-        }
+        mask = maskToFillFrom.clone();
+        this.maskSize = maskSize;
         return this;
     }
 
@@ -248,15 +242,15 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
     }
 
     private void addPrimitiveAt(int x, int y, float value) {
-        mask[x][y] += value;
+        mask[getIndex(x, y)] += value;
     }
 
     private void subtractPrimitiveAt(int x, int y, float value) {
-        mask[x][y] -= value;
+        mask[getIndex(x, y)] -= value;
     }
 
     private void multiplyPrimitiveAt(int x, int y, float value) {
-        mask[x][y] *= value;
+        mask[getIndex(x, y)] *= value;
     }
 
     public BufferedImage writeToImage(BufferedImage image, float scaleFactor) {
@@ -268,19 +262,12 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
     }
 
     private void dividePrimitiveAt(int x, int y, float value) {
-        mask[x][y] /= value;
-    }
-
-    @Override
-    protected int[][] getInnerCount() {
-        int[][] innerCount = new int[getSize()][getSize()];
-        apply((x, y) -> calculateInnerValue(innerCount, x, y, getPrimitive(x, y)));
-        return innerCount;
+        mask[getIndex(x, y)] /= value;
     }
 
     @Override
     public Integer getSum() {
-        return Arrays.stream(mask).flatMapToInt(Arrays::stream).sum();
+        return Arrays.stream(mask).sum();
     }
 
     @Override
@@ -288,13 +275,16 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             IntegerMask source = (IntegerMask) dependencies.get(0);
-            apply((x, y) -> mask[x][y] += source.mask[x][y]);
+            int[] sourceMask = source.mask;
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] += sourceMask[i];
+            }
         }, other);
     }
 
     @Override
     protected void addValueAt(int x, int y, Integer value) {
-        mask[x][y] += value;
+        mask[getIndex(x, y)] += value;
     }
 
     @Override
@@ -335,7 +325,7 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
 
     @Override
     protected void subtractValueAt(int x, int y, Integer value) {
-        mask[x][y] -= value;
+        mask[getIndex(x, y)] -= value;
     }
 
     @Override
@@ -350,7 +340,10 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             IntegerMask source = (IntegerMask) dependencies.get(0);
-            apply((x, y) -> mask[x][y] -= source.mask[x][y]);
+            int[] sourceMask = source.mask;
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] -= sourceMask[i];
+            }
         }, other);
     }
 
@@ -396,13 +389,16 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             IntegerMask source = (IntegerMask) dependencies.get(0);
-            apply((x, y) -> mask[x][y] *= source.mask[x][y]);
+            int[] sourceMask = source.mask;
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] *= sourceMask[i];
+            }
         }, other);
     }
 
     @Override
     protected void multiplyValueAt(int x, int y, Integer value) {
-        mask[x][y] *= value;
+        mask[getIndex(x, y)] *= value;
     }
 
     @Override
@@ -447,13 +443,16 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
             IntegerMask source = (IntegerMask) dependencies.get(0);
-            apply((x, y) -> mask[x][y] /= source.mask[x][y]);
+            int[] sourceMask = source.mask;
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] /= sourceMask[i];
+            }
         }, other);
     }
 
     @Override
     protected void divideValueAt(int x, int y, Integer value) {
-        mask[x][y] /= value;
+        mask[getIndex(x, y)] /= value;
     }
 
     @Override
@@ -523,54 +522,7 @@ public final class IntegerMask extends PrimitiveMask<Integer, IntegerMask> {
 
     public IntegerMask applyWithOffset(IntegerMask other, TriIntConsumer action, int xOffset, int yOffset,
                                        boolean center, boolean wrapEdges) {
-        return enqueue(() -> {
-            int size = getSize();
-            int otherSize = other.getSize();
-            int smallerSize = StrictMath.min(size, otherSize);
-            int biggerSize = StrictMath.max(size, otherSize);
-            if (smallerSize == otherSize) {
-                if (symmetrySettings.spawnSymmetry().isPerfectSymmetry()) {
-                    Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    other.apply((x, y) -> {
-                        int shiftX = coordinateXMap.get(x);
-                        int shiftY = coordinateYMap.get(y);
-                        if (inBounds(shiftX, shiftY, size)) {
-                            int value = other.getPrimitive(x, y);
-                            applyAtSymmetryPoints(shiftX, shiftY, SymmetryType.SPAWN,
-                                                  (sx, sy) -> action.accept(x, y, value));
-                        }
-                    });
-                } else {
-                    applyAtSymmetryPointsWithOutOfBounds(xOffset, yOffset, SymmetryType.SPAWN, (sx, sy) -> {
-                        Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(sx, center, wrapEdges, otherSize,
-                                                                                       size);
-                        Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(sy, center, wrapEdges, otherSize,
-                                                                                       size);
-                        other.apply((x, y) -> {
-                            int shiftX = coordinateXMap.get(x);
-                            int shiftY = coordinateYMap.get(y);
-                            if (inBounds(shiftX, shiftY, size)) {
-                                action.accept(shiftX, shiftY, other.getPrimitive(x, y));
-                            }
-                        });
-                    });
-                }
-            } else {
-                Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                apply((x, y) -> {
-                    int shiftX = coordinateXMap.get(x);
-                    int shiftY = coordinateYMap.get(y);
-                    if (inBounds(shiftX, shiftY, otherSize)) {
-                        action.accept(x, y, other.getPrimitive(shiftX, shiftY));
-                    }
-                });
-            }
-        });
+        return enqueue(() -> loopWithOffset(other.getSize(), xOffset, yOffset, center, wrapEdges,
+                                            (x, y, otherIndex) -> action.accept(x, y, other.mask[otherIndex])));
     }
 }
@@ -8,6 +8,7 @@ import com.faforever.neroxis.util.Pipeline;
 import com.faforever.neroxis.util.functional.BiIntConsumer;
 import com.faforever.neroxis.util.functional.BiIntFunction;
 import com.faforever.neroxis.util.functional.BiIntObjConsumer;
+import com.faforever.neroxis.util.functional.TriIntConsumer;
 import com.faforever.neroxis.util.vector.Vector2;
 import com.faforever.neroxis.util.vector.Vector3;
 import com.faforever.neroxis.visualization.VisualDebugger;
@@ -19,29 +20,43 @@ import java.awt.image.BufferedImage;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @SuppressWarnings({"unchecked", "UnusedReturnValue", "unused"})
-public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMask {
+public abstract sealed class Mask<T, U extends Mask<T, U>> implements Cloneable permits OperationsMask {
     private static final String MOCK_NAME = "Mock";
     private static final String COPY_NAME = "Copy";
-    protected final Random random;
+    private static final int MIN_ROW_PARALLEL_SIZE = 256;
+    private static final int ROW_BANDS_PER_THREAD = 4;
+    /**
+     * Whether operations which only write the pixel they are visiting are split into bands of rows run on the
+     * common {@link ForkJoinPool}. The results are identical to running them on a single thread.
+     */
+    public static boolean ROW_PARALLEL = false;
+    private static final Map<Long, int[]> SCALING_COORDINATES = new ConcurrentHashMap<>();
+    private static final AtomicLong NEXT_DATA_VERSION = new AtomicLong();
+    protected Random random;
     @Getter
     private final String name;
     @Getter
     protected final SymmetrySettings symmetrySettings;
     private boolean immutable;
+    private boolean dataShared;
     private int plannedSize;
+    private long dataVersion = NEXT_DATA_VERSION.incrementAndGet();
     @Getter
     @Setter
     private boolean parallel;
     @Getter
+    private final Pipeline pipeline;
+    @Getter
     @Setter
     private boolean visualDebug;
     private boolean visible;
@@ -51,34 +66,70 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
 
     protected Mask(U other, String name) {
         this(other.getSize(), (name != null && name.endsWith(MOCK_NAME)) ? null : other.getNextSeed(),
-             other.getSymmetrySettings(), name, other.isParallel());
+             other.getSymmetrySettings(), name, other.isParallel(), other.getPipeline());
         init(other);
     }
 
+    /**
+     * @param parallel whether operations are enqueued into the {@link Pipeline} bound to the calling thread until it
+     *                 is started
+     * @throws IllegalStateException if {@code parallel} is set and no pipeline is bound to the calling thread
+     */
     protected Mask(int size, Long seed, SymmetrySettings symmetrySettings, String name, boolean parallel) {
+        this(size, seed, symmetrySettings, name, parallel, parallel ? getBoundPipeline() : null);
+    }
+
+    private Mask(int size, Long seed, SymmetrySettings symmetrySettings, String name, boolean parallel,
+                 Pipeline pipeline) {
         this.symmetrySettings = symmetrySettings;
         this.name = name == null ? String.valueOf(hashCode()) : name;
         this.plannedSize = size;
         this.parallel = parallel;
+        this.pipeline = pipeline;
         random = seed != null ? new Random(seed) : null;
         visible = true;
         initializeMask(size);
     }
 
+    private static Pipeline getBoundPipeline() {
+        Pipeline pipeline = Pipeline.current();
+        if (pipeline == null) {
+            throw new IllegalStateException("Parallel masks must be created inside Pipeline.runInContext");
+        }
+        return pipeline;
+    }
+
     protected static int getShiftedValue(int val, int offset, int size, boolean wrapEdges) {
         return wrapEdges ? (val + offset + size) % size : val + offset;
     }
 
-    protected static Map<Integer, Integer> getSymmetricScalingCoordinateMap(int currentSize, int scaledSize) {
-        float scale = (float) currentSize / scaledSize;
-        float halfScaledSize = scaledSize / 2f;
-        Map<Integer, Integer> map = new LinkedHashMap<>();
-        for (int i = 0; i < StrictMath.ceil(halfScaledSize); ++i) {
-            int scaledI = (int) StrictMath.floor(i * scale);
-            map.put(i, scaledI);
-            map.put(scaledSize - 1 - i, currentSize - 1 - scaledI);
+    /**
+     * @return the coordinate in a mask of {@code currentSize} each coordinate of a mask of {@code scaledSize} is
+     * scaled from, mirrored about the center so symmetric masks stay symmetric. The array is cached and shared, so it
+     * must not be modified
+     */
+    protected static int[] getSymmetricScalingCoordinates(int currentSize, int scaledSize) {
+        return SCALING_COORDINATES.computeIfAbsent((long) currentSize << 32 | scaledSize, ignored -> {
+            float scale = (float) currentSize / scaledSize;
+            float halfScaledSize = scaledSize / 2f;
+            int[] coordinates = new int[scaledSize];
+            for (int i = 0; i < StrictMath.ceil(halfScaledSize); ++i) {
+                int scaledI = (int) StrictMath.floor(i * scale);
+                coordinates[i] = scaledI;
+                coordinates[scaledSize - 1 - i] = currentSize - 1 - scaledI;
+            }
+            return coordinates;
+        });
+    }
+
+    protected static int[] getShiftedCoordinates(int offset, boolean center, boolean wrapEdges, int fromSize,
+                                                 int toSize) {
+        int trueOffset = center ? offset - fromSize / 2 : offset;
+        int[] coordinates = new int[fromSize];
+        for (int i = 0; i < fromSize; i++) {
+            coordinates[i] = getShiftedValue(i, trueOffset, toSize, wrapEdges);
         }
-        return map;
+        return coordinates;
     }
 
     public U init(U other) {
@@ -113,7 +164,7 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
     }
 
     public int getSize() {
-        if (parallel && !Pipeline.isRunning()) {
+        if (isPipelined()) {
             return plannedSize;
         } else {
             return getImmediateSize();
@@ -180,12 +231,31 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
         set(StrictMath.round(location.getX()), StrictMath.round(location.getY()), value);
     }
 
+    /**
+     * Creates an immutable snapshot of the mask. Outside of the planning phase of the pipeline the snapshot shares
+     * the backing data with this mask, which only copies the data once it is modified again
+     *
+     * @return the immutable snapshot
+     */
     @SneakyThrows
     public U immutableCopy() {
-        Mask<?, U> copy = copy(getName() + MOCK_NAME);
-        return copy.enqueue(copy::makeImmutable);
+        if (isPipelined()) {
+            Mask<?, U> copy = copy(getName() + MOCK_NAME);
+            return copy.enqueue(copy::makeImmutable);
+        }
+
+        dataShared = true;
+        Mask<?, U> snapshot = (Mask<?, U>) clone();
+        snapshot.random = null;
+        snapshot.makeImmutable();
+        return (U) snapshot;
     }
 
+    /**
+     * Replaces the backing data with a copy so that writes are not visible to snapshots sharing the current data
+     */
+    protected abstract void copyBackingData();
+
     protected abstract U fill(T value);
 
     protected abstract T getZeroValue();
@@ -219,15 +289,21 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
     protected U enqueue(Consumer<List<Mask<?, ?>>> function, Mask<?, ?>... usedMasks) {
         assertMutable();
         List<Mask<?, ?>> dependencies = List.of(usedMasks);
-        if (parallel && !Pipeline.isRunning()) {
-            if (dependencies.stream().anyMatch(dep -> !dep.parallel)) {
+        if (isPipelined()) {
+            if (dependencies.stream().anyMatch(dep -> !dep.parallel || dep.pipeline != pipeline)) {
                 throw new IllegalArgumentException("Non parallel masks used as dependents");
             }
-            Pipeline.add(this, dependencies, function);
+            pipeline.add(this, dependencies, usedDependencies -> {
+                unshareData();
+                function.accept(usedDependencies);
+                dataVersion = NEXT_DATA_VERSION.incrementAndGet();
+            });
         } else {
             boolean visibleState = visible;
             visible = false;
+            unshareData();
             function.accept(dependencies);
+            dataVersion = NEXT_DATA_VERSION.incrementAndGet();
             visible = visibleState;
             if (((DebugUtil.DEBUG && isVisualDebug()) || (DebugUtil.VISUALIZE && !isMock() && !isParallel())) &&
                 visible) {
@@ -239,6 +315,21 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
         return (U) this;
     }
 
+    /**
+     * @return a version which changes whenever an operation runs on the mask, masks only share a version while they
+     * share the same data
+     */
+    protected long getDataVersion() {
+        return dataVersion;
+    }
+
+    private void unshareData() {
+        if (dataShared) {
+            copyBackingData();
+            dataShared = false;
+        }
+    }
+
     protected void assertMutable() {
         if (immutable) {
             throw new IllegalStateException("Mask is a mock and cannot be modified");
@@ -266,12 +357,81 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
         }
     }
 
+    /**
+     * Same as {@link #loop} but splits the rows into bands run concurrently when {@link #ROW_PARALLEL} is set.
+     * The action may only write state belonging to the pixel it is called for.
+     */
+    protected void loopInRowBands(BiIntConsumer maskAction) {
+        assertNotPipelined();
+        int size = getSize();
+        forEachRowBand(0, size, (startX, endX) -> {
+            for (int x = startX; x < endX; x++) {
+                for (int y = 0; y < size; y++) {
+                    maskAction.accept(x, y);
+                }
+            }
+        });
+    }
+
+    /**
+     * Same as {@link #loopWithSymmetry} but splits the rows into bands run concurrently when {@link #ROW_PARALLEL}
+     * is set. The action may only write state belonging to the pixel it is called for.
+     */
+    protected void loopWithSymmetryInRowBands(SymmetryType symmetryType, BiIntConsumer maskAction) {
+        assertNotPipelined();
+        forEachRowBand(getMinXBound(symmetryType), getMaxXBound(symmetryType), (startX, endX) -> {
+            for (int x = startX; x < endX; x++) {
+                int minY = getMinYBound(x, symmetryType);
+                int maxY = getMaxYBound(x, symmetryType);
+                for (int y = minY; y < maxY; y++) {
+                    maskAction.accept(x, y);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the number of rows every band has to be a multiple of so that no two bands share backing storage
+     */
+    protected int getRowBandAlignment() {
+        return 1;
+    }
+
+    /**
+     * Calls the action with consecutive bands of the rows from {@code startX} to {@code endX}, concurrently when
+     * {@link #ROW_PARALLEL} is set
+     */
+    protected void forEachRowBand(int startX, int endX, BiIntConsumer bandAction) {
+        int rows = endX - startX;
+        int alignment = getRowBandAlignment();
+        int threads = ForkJoinPool.getCommonPoolParallelism() + 1;
+        if (!ROW_PARALLEL || getSize() < MIN_ROW_PARALLEL_SIZE || Runtime.getRuntime().availableProcessors() < 2
+            || startX % alignment != 0 || rows <= alignment) {
+            bandAction.accept(startX, endX);
+            return;
+        }
+
+        int bandRows = StrictMath.ceilDiv(StrictMath.ceilDiv(rows, threads * ROW_BANDS_PER_THREAD), alignment)
+                       * alignment;
+        IntStream.range(0, StrictMath.ceilDiv(rows, bandRows)).parallel().forEach(band -> {
+            int bandStartX = startX + band * bandRows;
+            bandAction.accept(bandStartX, StrictMath.min(endX, bandStartX + bandRows));
+        });
+    }
+
     protected void assertNotPipelined() {
-        if (parallel && !Pipeline.isRunning()) {
+        if (isPipelined()) {
             throw new IllegalStateException("Mask is pipelined and cannot return an immediate result");
         }
     }
 
+    /**
+     * @return whether operations on this mask are currently enqueued in its {@link Pipeline} instead of run
+     */
+    protected boolean isPipelined() {
+        return parallel && pipeline != null && !pipeline.isRunning();
+    }
+
     private Vector2 getRotatedPoint(float x, float y, float angle) {
         float halfSize = getSize() / 2f;
         float xOffset = x - halfSize;
@@ -618,17 +778,20 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
 
     public U forceSymmetry(SymmetryType symmetryType, boolean reverse) {
         if (!reverse) {
-            return applyWithSymmetry(symmetryType, (x, y) -> {
-                T value = get(x, y);
-                applyAtSymmetryPoints(x, y, symmetryType, (sx, sy) -> set(sx, sy, value));
-            });
+            return applyAndCopyWithSymmetry(symmetryType, (x, y) -> {});
         } else {
             if (symmetrySettings.getSymmetry(symmetryType).getNumSymPoints() != 2) {
                 throw new IllegalArgumentException("Symmetry has more than two symmetry points");
             }
-            return applyWithSymmetry(symmetryType, (x, y) -> {
-                List<Vector2> symPoints = getSymmetryPoints(x, y, symmetryType);
-                symPoints.forEach(symPoint -> set(x, y, get((int) symPoint.getX(), (int) symPoint.getY())));
+            return enqueue(() -> {
+                SymmetryTable symmetryTable = getSymmetryTable(symmetryType);
+                for (int slot = 0; slot < symmetryTable.getSourceCount(); slot++) {
+                    int partner = symmetryTable.getPartner(slot, 0);
+                    if (partner != -1) {
+                        copyPixel(partner, symmetryTable.getSource(slot));
+                    }
+                }
+                forceSpawnSymmetryAfter(symmetryType);
             });
         }
     }
@@ -644,13 +807,56 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
     protected U applyWithSymmetry(SymmetryType symmetryType, BiIntConsumer maskAction) {
         return enqueue(() -> {
             loopWithSymmetry(symmetryType, maskAction);
-            if (!symmetrySettings.getSymmetry(symmetryType).isPerfectSymmetry() &&
-                symmetrySettings.spawnSymmetry().isPerfectSymmetry()) {
-                forceSymmetry(SymmetryType.SPAWN);
+            forceSpawnSymmetryAfter(symmetryType);
+        });
+    }
+
+    /**
+     * Same as {@link #applyWithSymmetry} with an action writing a pixel and then the same value to its symmetry points
+     * through {@link #applyAtSymmetryPoints}, but copies the written pixel to the symmetry points stored in the
+     * cached {@link SymmetryTable}
+     *
+     * @param pixelAction action which only writes the pixel it is called for
+     */
+    protected U applyAndCopyWithSymmetry(SymmetryType symmetryType, BiIntConsumer pixelAction) {
+        return enqueue(() -> {
+            assertNotPipelined();
+            int size = getSize();
+            SymmetryTable symmetryTable = getSymmetryTable(symmetryType);
+            int partnerCount = symmetryTable.getPartnerCount();
+            for (int slot = 0; slot < symmetryTable.getSourceCount(); slot++) {
+                int source = symmetryTable.getSource(slot);
+                pixelAction.accept(source / size, source % size);
+                for (int i = 0; i < partnerCount; i++) {
+                    int partner = symmetryTable.getPartner(slot, i);
+                    if (partner != -1) {
+                        copyPixel(source, partner);
+                    }
+                }
             }
+            forceSpawnSymmetryAfter(symmetryType);
         });
     }
 
+    private void forceSpawnSymmetryAfter(SymmetryType symmetryType) {
+        if (!symmetrySettings.getSymmetry(symmetryType).isPerfectSymmetry() &&
+            symmetrySettings.spawnSymmetry().isPerfectSymmetry()) {
+            forceSymmetry(SymmetryType.SPAWN);
+        }
+    }
+
+    SymmetryTable getSymmetryTable(SymmetryType symmetryType) {
+        return SymmetryTable.get(this, symmetryType);
+    }
+
+    /**
+     * Copies the value of one pixel to another, both given as {@code x * size + y}
+     */
+    protected void copyPixel(int sourceIndex, int targetIndex) {
+        int size = getSize();
+        set(targetIndex / size, targetIndex % size, get(sourceIndex / size, sourceIndex % size));
+    }
+
     public U forceSymmetry(float angle) {
         if (symmetrySettings.getSymmetry(SymmetryType.SPAWN) != Symmetry.POINT2) {
             throw new IllegalArgumentException("Spawn Symmetry must equal POINT2");
@@ -698,10 +904,7 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
     }
 
     protected U setWithSymmetry(SymmetryType symmetryType, BiIntFunction<T> valueFunction) {
-        return applyWithSymmetry(symmetryType, (x, y) -> {
-            T value = valueFunction.apply(x, y);
-            applyAtSymmetryPoints(x, y, symmetryType, (sx, sy) -> set(sx, sy, value));
-        });
+        return applyAndCopyWithSymmetry(symmetryType, (x, y) -> set(x, y, valueFunction.apply(x, y)));
     }
 
     protected U applyAtSymmetryPointsWithOutOfBounds(Vector2 location, SymmetryType symmetryType, BiIntConsumer action) {
@@ -715,62 +918,83 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
     protected U applyAtSymmetryPoints(int x, int y, SymmetryType symmetryType, BiIntConsumer action) {
         return enqueue(() -> {
             action.accept(x, y);
-            List<Vector2> symPoints = getSymmetryPoints(x, y, symmetryType);
-            symPoints.forEach(symPoint -> action.accept((int) symPoint.getX(), (int) symPoint.getY()));
+            getSymmetryTable(symmetryType).forEachSymmetryPoint(x, y, action);
         });
     }
 
     protected U applyWithOffset(U other, BiIntObjConsumer<T> action, int xOffset, int yOffset, boolean center, boolean wrapEdges) {
         return enqueue(() -> {
-            int size = getSize();
             int otherSize = other.getSize();
-            int smallerSize = StrictMath.min(size, otherSize);
-            int biggerSize = StrictMath.max(size, otherSize);
-            if (smallerSize == otherSize) {
-                if (symmetrySettings.spawnSymmetry().isPerfectSymmetry()) {
-                    Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    other.apply((x, y) -> {
-                        int shiftX = coordinateXMap.get(x);
-                        int shiftY = coordinateYMap.get(y);
+            loopWithOffset(otherSize, xOffset, yOffset, center, wrapEdges,
+                           (x, y, otherIndex) -> action.accept(x, y, other.get(otherIndex / otherSize,
+                                                                             otherIndex % otherSize)));
+        });
+    }
+
+    /**
+     * Pairs the pixels of a mask of {@code otherSize} shifted by the offset with the pixels of this mask they land
+     * on. A smaller mask is written to its symmetry points as well, with perfect symmetry by writing every pixel to
+     * the symmetry points of where it lands and otherwise by shifting it to every symmetry point of the offset.
+     *
+     * @param action called with the coordinates in this mask and the pixel index {@code x * otherSize + y} in the
+     *               other mask
+     */
+    protected void loopWithOffset(int otherSize, int xOffset, int yOffset, boolean center, boolean wrapEdges,
+                                  TriIntConsumer action) {
+        int size = getSize();
+        if (otherSize <= size) {
+            if (symmetrySettings.spawnSymmetry().isPerfectSymmetry()) {
+                SymmetryTable symmetryTable = getSymmetryTable(SymmetryType.SPAWN);
+                int partnerCount = symmetryTable.getPartnerCount();
+                int xShift = center ? xOffset - otherSize / 2 : xOffset;
+                int yShift = center ? yOffset - otherSize / 2 : yOffset;
+                for (int x = 0; x < otherSize; x++) {
+                    int shiftX = getShiftedValue(x, xShift, size, wrapEdges);
+                    for (int y = 0; y < otherSize; y++) {
+                        int shiftY = getShiftedValue(y, yShift, size, wrapEdges);
                         if (inBounds(shiftX, shiftY, size)) {
-                            T value = other.get(x, y);
-                            applyAtSymmetryPoints(shiftX, shiftY, SymmetryType.SPAWN,
-                                                  (sx, sy) -> action.accept(sx, sy, value));
+                            int otherIndex = x * otherSize + y;
+                            action.accept(shiftX, shiftY, otherIndex);
+                            for (int i = 0; i < partnerCount; i++) {
+                                int partner = symmetryTable.getSymmetryPoint(shiftX, shiftY, i);
+                                if (partner != -1) {
+                                    action.accept(partner / size, partner % size, otherIndex);
+                                }
+                            }
                         }
-                    });
-                } else {
-                    applyAtSymmetryPointsWithOutOfBounds(xOffset, yOffset, SymmetryType.SPAWN, (sx, sy) -> {
-                        Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(sx, center, wrapEdges, otherSize,
-                                                                                       size);
-                        Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(sy, center, wrapEdges, otherSize,
-                                                                                       size);
-                        other.apply((x, y) -> {
-                            int shiftX = coordinateXMap.get(x);
-                            int shiftY = coordinateYMap.get(y);
+                    }
+                }
+            } else {
+                List<Vector2> symmetryPoints = getSymmetryPointsWithOutOfBounds(xOffset, yOffset, SymmetryType.SPAWN);
+                for (int i = -1; i < symmetryPoints.size(); i++) {
+                    int pointX = i == -1 ? xOffset : (int) symmetryPoints.get(i).getX();
+                    int pointY = i == -1 ? yOffset : (int) symmetryPoints.get(i).getY();
+                    int xShift = center ? pointX - otherSize / 2 : pointX;
+                    int yShift = center ? pointY - otherSize / 2 : pointY;
+                    for (int x = 0; x < otherSize; x++) {
+                        int shiftX = getShiftedValue(x, xShift, size, wrapEdges);
+                        for (int y = 0; y < otherSize; y++) {
+                            int shiftY = getShiftedValue(y, yShift, size, wrapEdges);
                             if (inBounds(shiftX, shiftY, size)) {
-                                action.accept(shiftX, shiftY, other.get(x, y));
+                                action.accept(shiftX, shiftY, x * otherSize + y);
                             }
-                        });
-                    });
+                        }
+                    }
                 }
-            } else {
-                Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                apply((x, y) -> {
-                    int shiftX = coordinateXMap.get(x);
-                    int shiftY = coordinateYMap.get(y);
+            }
+        } else {
+            int xShift = center ? xOffset - size / 2 : xOffset;
+            int yShift = center ? yOffset - size / 2 : yOffset;
+            for (int x = 0; x < size; x++) {
+                int shiftX = getShiftedValue(x, xShift, otherSize, wrapEdges);
+                for (int y = 0; y < size; y++) {
+                    int shiftY = getShiftedValue(y, yShift, otherSize, wrapEdges);
                     if (inBounds(shiftX, shiftY, otherSize)) {
-                        T value = other.get(shiftX, shiftY);
-                        action.accept(x, y, value);
+                        action.accept(x, y, shiftX * otherSize + shiftY);
                     }
-                });
+                }
             }
-        });
+        }
     }
 
     protected U applyAtSymmetryPointsWithOutOfBounds(int x, int y, SymmetryType symmetryType, BiIntConsumer action) {
@@ -781,35 +1005,6 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
         });
     }
 
-    protected void populateCoordinateMaps(int xCoordinate, int yCoordinate, boolean center, boolean wrapEdges, int fromSize, int toSize, Map<Integer, Integer> coordinateXMap, Map<Integer, Integer> coordinateYMap) {
-        int offsetX;
-        int offsetY;
-        if (center) {
-            offsetX = xCoordinate - fromSize / 2;
-            offsetY = yCoordinate - fromSize / 2;
-        } else {
-            offsetX = xCoordinate;
-            offsetY = yCoordinate;
-        }
-        for (int i = 0; i < fromSize; ++i) {
-            coordinateXMap.put(i, getShiftedValue(i, offsetX, toSize, wrapEdges));
-            coordinateYMap.put(i, getShiftedValue(i, offsetY, toSize, wrapEdges));
-        }
-    }
-
-    protected Map<Integer, Integer> getShiftedCoordinateMap(int offset, boolean center, boolean wrapEdges, int fromSize, int toSize) {
-        int trueOffset;
-        if (center) {
-            trueOffset = offset - fromSize / 2;
-        } else {
-            trueOffset = offset;
-        }
-
-        return IntStream.range(0, fromSize)
-                        .boxed()
-                        .collect(Collectors.toMap(i -> i, i -> getShiftedValue(i, trueOffset, toSize, wrapEdges)));
-    }
-
     protected void loopWithSymmetry(SymmetryType symmetryType, BiIntConsumer maskAction) {
         assertNotPipelined();
         int minX = getMinXBound(symmetryType);
@@ -839,7 +1034,7 @@ public abstract sealed class Mask<T, U extends Mask<T, U>> permits OperationsMas
                     String.format("Masks not the same symmetry: %s is %s and %s is %s", name, symmetrySettings,
                                   otherName, otherSymmetrySettings));
         }
-        if (isParallel() && !Pipeline.isRunning() && !other.isParallel()) {
+        if (isPipelined() && (!other.isParallel() || other.getPipeline() != pipeline)) {
             throw new IllegalArgumentException(
                     String.format("Masks not the same processing chain: %s and %s", name, otherName));
         }
@@ -0,0 +1,46 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.util.ResampleUtil;
+
+import java.util.Arrays;
+
+/**
+ * Area averaged copies of a float mask at successively halved sizes, built on demand and kept until the mask data
+ * changes. Snapshots of a mask share its pyramid, so levels built while shrinking one snapshot are reused by the
+ * others and by the mask itself as long as its data version is unchanged.
+ */
+final class MipPyramid {
+    private long dataVersion;
+    private float[][] levels = new float[0][];
+    private int[] levelSizes = new int[0];
+
+    /**
+     * Shrinks the values by area averaging, starting from the smallest cached level which is still at least the new
+     * size. Missing levels down to that size are built and cached for the given data version.
+     *
+     * @return a new array of the shrunk values
+     */
+    synchronized float[] areaAverage(float[] values, int size, long version, int newSize) {
+        if (version != dataVersion) {
+            dataVersion = version;
+            levels = new float[0][];
+            levelSizes = new int[0];
+        }
+
+        float[] source = values;
+        int sourceSize = size;
+        for (int level = 0; sourceSize > 1 && (sourceSize + 1) / 2 >= newSize; level++) {
+            if (level == levels.length) {
+                int levelSize = (sourceSize + 1) / 2;
+                levels = Arrays.copyOf(levels, level + 1);
+                levelSizes = Arrays.copyOf(levelSizes, level + 1);
+                levels[level] = ResampleUtil.areaAverage(source, sourceSize, levelSize);
+                levelSizes[level] = levelSize;
+            }
+            source = levels[level];
+            sourceSize = levelSizes[level];
+        }
+
+        return sourceSize == newSize ? source.clone() : ResampleUtil.areaAverage(source, sourceSize, newSize);
+    }
+}
@@ -81,11 +81,6 @@ public final class NormalMask extends VectorMask<Vector3, NormalMask> {
         return image;
     }
 
-    @Override
-    protected Vector3[][] getNullMask(int size) {
-        return new Vector3[size][size];
-    }
-
     public NormalMask cross(NormalMask other) {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
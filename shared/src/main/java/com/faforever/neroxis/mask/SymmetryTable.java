@@ -0,0 +1,245 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetryType;
+import com.faforever.neroxis.util.functional.BiIntConsumer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Symmetry points of integer pixels for one mask size and symmetry, shared by every mask with those settings.
+ * The pixels visited by {@link Mask#loopWithSymmetry} are stored in loop order together with the indices of their
+ * symmetry points in flat arrays, any other pixel has its symmetry points computed on the fly. Both give exactly the
+ * in bounds points of {@link Mask#getSymmetryPoints} truncated to integers, without allocating per pixel.
+ * The least recently used tables are dropped once the cached tables take more than {@link #MAX_CACHED_BYTES}, a
+ * single POINT2 table of a 2049 mask alone takes about 16MB.
+ */
+final class SymmetryTable {
+    static final long MAX_CACHED_BYTES = 64L << 20;
+    private static final Map<Key, SymmetryTable> CACHE = new LinkedHashMap<>(16, .75f, true);
+    private static long cachedBytes;
+
+    private final int size;
+    private final Symmetry symmetry;
+    private final Symmetry teamSymmetry;
+    private final int partnerCount;
+    // Cosine and sine of the rotations of the POINT symmetries in the order of their symmetry points
+    private final double[] rotationCos;
+    private final double[] rotationSin;
+    private final int minX;
+    private final int[] rowMinY;
+    private final int[] rowMaxY;
+    private final int[] rowStartSlot;
+    // Pixel index of the source pixel in each slot and the pixel indices of its symmetry points, -1 when out of bounds
+    private final int[] sources;
+    private final int[] partners;
+
+    private SymmetryTable(Mask<?, ?> mask, SymmetryType symmetryType) {
+        size = mask.getSize();
+        symmetry = mask.getSymmetrySettings().getSymmetry(symmetryType);
+        teamSymmetry = mask.getSymmetrySettings().teamSymmetry();
+        partnerCount = symmetry.getNumSymPoints() - 1;
+        rotationCos = new double[partnerCount];
+        rotationSin = new double[partnerCount];
+        initializeRotations();
+
+        minX = mask.getMinXBound(symmetryType);
+        int rows = StrictMath.max(mask.getMaxXBound(symmetryType) - minX, 0);
+        rowMinY = new int[rows];
+        rowMaxY = new int[rows];
+        rowStartSlot = new int[rows];
+        int sourceCount = 0;
+        for (int row = 0; row < rows; row++) {
+            rowMinY[row] = mask.getMinYBound(minX + row, symmetryType);
+            rowMaxY[row] = StrictMath.max(mask.getMaxYBound(minX + row, symmetryType), rowMinY[row]);
+            rowStartSlot[row] = sourceCount;
+            sourceCount += rowMaxY[row] - rowMinY[row];
+        }
+
+        sources = new int[sourceCount];
+        partners = new int[sourceCount * partnerCount];
+        for (int row = 0; row < rows; row++) {
+            int x = minX + row;
+            for (int y = rowMinY[row]; y < rowMaxY[row]; y++) {
+                int slot = rowStartSlot[row] + y - rowMinY[row];
+                sources[slot] = x * size + y;
+                for (int i = 0; i < partnerCount; i++) {
+                    partners[slot * partnerCount + i] = computePartner(x, y, i);
+                }
+            }
+        }
+    }
+
+    static SymmetryTable get(Mask<?, ?> mask, SymmetryType symmetryType) {
+        Symmetry symmetry = mask.getSymmetrySettings().getSymmetry(symmetryType);
+        // Only QUAD and DIAG order their symmetry points by the team symmetry
+        Symmetry teamSymmetry = symmetry == Symmetry.QUAD || symmetry == Symmetry.DIAG ?
+                                mask.getSymmetrySettings().teamSymmetry() :
+                                null;
+        Key key = new Key(mask.getSize(), symmetry, teamSymmetry);
+        synchronized (CACHE) {
+            SymmetryTable table = CACHE.get(key);
+            if (table != null) {
+                return table;
+            }
+        }
+
+        // Build outside the lock so masks of other sizes and symmetries are not held up
+        SymmetryTable table = new SymmetryTable(mask, symmetryType);
+        synchronized (CACHE) {
+            SymmetryTable cachedTable = CACHE.putIfAbsent(key, table);
+            if (cachedTable != null) {
+                return cachedTable;
+            }
+            cachedBytes += table.getByteSize();
+            // The new table is the most recently used and is always kept
+            Iterator<SymmetryTable> iterator = CACHE.values().iterator();
+            while (cachedBytes > MAX_CACHED_BYTES && CACHE.size() > 1) {
+                cachedBytes -= iterator.next().getByteSize();
+                iterator.remove();
+            }
+            return table;
+        }
+    }
+
+    static long getCachedBytes() {
+        synchronized (CACHE) {
+            return cachedBytes;
+        }
+    }
+
+    private long getByteSize() {
+        return Integer.BYTES * ((long) sources.length + partners.length + 3L * rowMinY.length)
+               + Double.BYTES * 2L * partnerCount;
+    }
+
+    private void initializeRotations() {
+        int numSymPoints = symmetry.getNumSymPoints();
+        switch (symmetry) {
+            case POINT6, POINT8, POINT10, POINT12, POINT14, POINT16 -> {
+                for (int i = 1; i < numSymPoints / 2; i++) {
+                    float angle = (float) (2 * StrictMath.PI * i / numSymPoints);
+                    setRotation(2 * i - 1, angle);
+                    setRotation(2 * i, (float) (angle + StrictMath.PI));
+                }
+            }
+            case POINT3, POINT5, POINT7, POINT9, POINT11, POINT13, POINT15 -> {
+                for (int i = 1; i < numSymPoints; i++) {
+                    setRotation(i - 1, (float) (2 * StrictMath.PI * i / numSymPoints));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void setRotation(int partner, float angle) {
+        rotationCos[partner] = StrictMath.cos(angle);
+        rotationSin[partner] = StrictMath.sin(angle);
+    }
+
+    int getPartnerCount() {
+        return partnerCount;
+    }
+
+    int getSourceCount() {
+        return sources.length;
+    }
+
+    /**
+     * @return the pixel index of the source pixel in the slot, slots follow the order of {@link Mask#loopWithSymmetry}
+     */
+    int getSource(int slot) {
+        return sources[slot];
+    }
+
+    /**
+     * @return the pixel index of a symmetry point of the source pixel in the slot, or -1 if it is out of bounds
+     */
+    int getPartner(int slot, int partner) {
+        return partners[slot * partnerCount + partner];
+    }
+
+    /**
+     * Calls the action with the coordinates of every in bounds symmetry point of the pixel, excluding the pixel itself
+     */
+    void forEachSymmetryPoint(int x, int y, BiIntConsumer action) {
+        for (int i = 0; i < partnerCount; i++) {
+            int partner = getSymmetryPoint(x, y, i);
+            if (partner != -1) {
+                action.accept(partner / size, partner % size);
+            }
+        }
+    }
+
+    /**
+     * @return the pixel index of a symmetry point of the pixel, or -1 if it is out of bounds
+     */
+    int getSymmetryPoint(int x, int y, int partner) {
+        int slot = getSlot(x, y);
+        return slot != -1 ? partners[slot * partnerCount + partner] : computePartner(x, y, partner);
+    }
+
+    private int getSlot(int x, int y) {
+        int row = x - minX;
+        if (row < 0 || row >= rowMinY.length || y < rowMinY[row] || y >= rowMaxY[row]) {
+            return -1;
+        }
+        return rowStartSlot[row] + y - rowMinY[row];
+    }
+
+    /**
+     * Same points and order as {@link Mask#getSymmetryPointsWithOutOfBounds} for integer coordinates
+     */
+    private int computePartner(int x, int y, int partner) {
+        return switch (symmetry) {
+            case POINT2 -> getIndex(size - x - 1, size - y - 1);
+            case POINT4 -> switch (partner) {
+                case 0 -> getIndex(size - x - 1, size - y - 1);
+                case 1 -> getIndex(y, size - x - 1);
+                default -> getIndex(size - y - 1, x);
+            };
+            case POINT6, POINT8, POINT10, POINT12, POINT14, POINT16 ->
+                    partner == 0 ? getIndex(size - x - 1, size - y - 1) : getRotatedIndex(x, y, partner);
+            case POINT3, POINT5, POINT7, POINT9, POINT11, POINT13, POINT15 -> getRotatedIndex(x, y, partner);
+            case X -> getIndex(size - x - 1, y);
+            case Z -> getIndex(x, size - y - 1);
+            case XZ -> getIndex(y, x);
+            case ZX -> getIndex(size - y - 1, size - x - 1);
+            case QUAD -> switch (partner) {
+                case 0 -> teamSymmetry == Symmetry.Z ? getIndex(x, size - y - 1) : getIndex(size - x - 1, y);
+                case 1 -> teamSymmetry == Symmetry.Z ? getIndex(size - x - 1, y) : getIndex(x, size - y - 1);
+                default -> getIndex(size - x - 1, size - y - 1);
+            };
+            case DIAG -> switch (partner) {
+                case 0 -> teamSymmetry == Symmetry.ZX ? getIndex(size - y - 1, size - x - 1) : getIndex(y, x);
+                case 1 -> teamSymmetry == Symmetry.ZX ? getIndex(y, x) : getIndex(size - y - 1, size - x - 1);
+                default -> getIndex(size - x - 1, size - y - 1);
+            };
+            case NONE -> -1;
+        };
+    }
+
+    private int getIndex(int x, int y) {
+        return Mask.inBounds(x, y, size) ? x * size + y : -1;
+    }
+
+    private int getRotatedIndex(int x, int y, int partner) {
+        float halfSize = size / 2f;
+        float xOffset = x - halfSize;
+        float yOffset = y - halfSize;
+        double cosAngle = rotationCos[partner];
+        double sinAngle = rotationSin[partner];
+        float newX = (float) (xOffset * cosAngle - yOffset * sinAngle + halfSize);
+        float newY = (float) (xOffset * sinAngle + yOffset * cosAngle + halfSize);
+        // Bounds are checked on the rounded point but the point is used truncated, as with the Vector2 points
+        if (!Mask.inBounds(StrictMath.round(newX), StrictMath.round(newY), size)) {
+            return -1;
+        }
+        return (int) newX * size + (int) newY;
+    }
+
+    private record Key(int size, Symmetry symmetry, Symmetry teamSymmetry) {}
+}
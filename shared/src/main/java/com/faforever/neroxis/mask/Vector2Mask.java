@@ -58,19 +58,14 @@ public final class Vector2Mask extends VectorMask<Vector2, Vector2Mask> {
         return new Vector2(components[0], components[1]).multiply(scaleFactor);
     }
 
-    @Override
-    protected Vector2[][] getNullMask(int size) {
-        return new Vector2[size][size];
-    }
-
     public Vector2Mask setComponents(FloatMask comp0, FloatMask comp1) {
         assertCompatibleComponents(comp0, comp1);
         return enqueue(dependencies -> {
             FloatMask source1 = (FloatMask) dependencies.get(0);
             FloatMask source2 = (FloatMask) dependencies.get(1);
             apply((x, y) -> {
-                setComponentAt(x, y, source1.get(x, y), 0);
-                setComponentAt(x, y, source2.get(x, y), 1);
+                setComponentAt(x, y, source1.getPrimitive(x, y), 0);
+                setComponentAt(x, y, source2.getPrimitive(x, y), 1);
             });
         }, comp0, comp1);
     }
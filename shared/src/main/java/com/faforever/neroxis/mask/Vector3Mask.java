@@ -69,11 +69,6 @@ public final class Vector3Mask extends VectorMask<Vector3, Vector3Mask> {
         return new Vector3(components[0], components[1], components[2]).multiply(scaleFactor);
     }
 
-    @Override
-    protected Vector3[][] getNullMask(int size) {
-        return new Vector3[size][size];
-    }
-
     public Vector3Mask setComponents(FloatMask comp0, FloatMask comp1, FloatMask comp2) {
         assertCompatibleComponents(comp0, comp1, comp2);
         return enqueue(dependencies -> {
@@ -81,9 +76,9 @@ public final class Vector3Mask extends VectorMask<Vector3, Vector3Mask> {
             FloatMask source2 = (FloatMask) dependencies.get(1);
             FloatMask source3 = (FloatMask) dependencies.get(2);
             apply((x, y) -> {
-                setComponentAt(x, y, source1.get(x, y), 0);
-                setComponentAt(x, y, source2.get(x, y), 1);
-                setComponentAt(x, y, source3.get(x, y), 2);
+                setComponentAt(x, y, source1.getPrimitive(x, y), 0);
+                setComponentAt(x, y, source2.getPrimitive(x, y), 1);
+                setComponentAt(x, y, source3.getPrimitive(x, y), 2);
             });
         }, comp0, comp1, comp2);
     }
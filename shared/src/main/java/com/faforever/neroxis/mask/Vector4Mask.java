@@ -57,11 +57,6 @@ public final class Vector4Mask extends VectorMask<Vector4, Vector4Mask> {
         return new Vector4(components[0], components[1], components[2], components[3]).multiply(scaleFactor);
     }
 
-    @Override
-    protected Vector4[][] getNullMask(int size) {
-        return new Vector4[size][size];
-    }
-
     public Vector4Mask setComponents(FloatMask comp0, FloatMask comp1, FloatMask comp2, FloatMask comp3) {
         assertCompatibleComponents(comp0, comp1, comp2, comp3);
         return enqueue(dependencies -> {
@@ -70,10 +65,10 @@ public final class Vector4Mask extends VectorMask<Vector4, Vector4Mask> {
             FloatMask source3 = (FloatMask) dependencies.get(2);
             FloatMask source4 = (FloatMask) dependencies.get(3);
             apply((x, y) -> {
-                setComponentAt(x, y, source1.get(x, y), 0);
-                setComponentAt(x, y, source2.get(x, y), 1);
-                setComponentAt(x, y, source3.get(x, y), 2);
-                setComponentAt(x, y, source4.get(x, y), 3);
+                setComponentAt(x, y, source1.getPrimitive(x, y), 0);
+                setComponentAt(x, y, source2.getPrimitive(x, y), 1);
+                setComponentAt(x, y, source3.getPrimitive(x, y), 2);
+                setComponentAt(x, y, source4.getPrimitive(x, y), 3);
             });
         }, comp0, comp1, comp2, comp3);
     }
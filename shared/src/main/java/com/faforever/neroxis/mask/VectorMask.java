@@ -2,6 +2,7 @@ package com.faforever.neroxis.mask;
 
 import com.faforever.neroxis.map.SymmetrySettings;
 import com.faforever.neroxis.map.SymmetryType;
+import com.faforever.neroxis.util.KernelUtil;
 import com.faforever.neroxis.util.functional.BiIntFloatIntConsumer;
 import com.faforever.neroxis.util.functional.ToFloatBiIntFunction;
 import com.faforever.neroxis.util.vector.Vector;
@@ -14,13 +15,13 @@ import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 @SuppressWarnings({"unchecked", "UnusedReturnValue", "unused"})
 public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMask<T, U>> extends OperationsMask<T, U> permits NormalMask, Vector2Mask, Vector3Mask, Vector4Mask {
-    protected T[][] mask;
+    // One row major plane per component, pixel (x, y) of component c is stored at planes[c][x * maskSize + y]
+    private float[][] planes;
+    private int maskSize;
 
     public VectorMask(BufferedImage sourceImage, Long seed, SymmetrySettings symmetrySettings, float scaleFactor,
                       String name, boolean parallel) {
@@ -46,9 +47,8 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
         enqueue(dependencies -> {
             List<FloatMask> sources = dependencies.stream().map(dep -> ((FloatMask) dep)).toList();
             apply((x, y) -> {
-                T value = getZeroValue();
                 for (int i = 0; i < numComponents; ++i) {
-                    value.set(i, sources.get(i).get(x, y));
+                    setComponentAt(x, y, sources.get(i).getPrimitive(x, y), i);
                 }
             });
         }, components);
@@ -75,37 +75,48 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
 
     @Override
     public U blur(int radius) {
-        T[][] innerCount = getInnerCount();
-        return set((x, y) -> calculateAreaAverage(radius, x, y, innerCount).round().divide(1000));
+        return enqueue(() -> {
+            for (float[] plane : planes) {
+                KernelUtil.boxBlurRounded(plane, maskSize, radius, null);
+            }
+        });
     }
 
     @Override
     public U blur(int radius, BooleanMask other) {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
-            BooleanMask limiter = (BooleanMask) dependencies.get(0);
-            T[][] innerCount = getInnerCount();
-            set((x, y) -> limiter.get(x, y) ? calculateAreaAverage(radius, x, y, innerCount).round().divide(1000) : get(
-                    x, y));
+            BooleanMask limiter = (BooleanMask) dependencies.getFirst();
+            for (float[] plane : planes) {
+                KernelUtil.boxBlurRounded(plane, maskSize, radius, limiter::getPrimitive);
+            }
         }, other);
     }
 
     @Override
     protected U copyFrom(U other) {
-        return enqueue(dependencies -> fill(((U) dependencies.get(0)).mask), other);
+        return enqueue(dependencies -> {
+            VectorMask<T, U> source = (VectorMask<T, U>) dependencies.getFirst();
+            fill(source.planes, source.maskSize);
+        }, other);
+    }
+
+    @Override
+    protected void copyBackingData() {
+        fill(planes, maskSize);
     }
 
     @Override
     protected void initializeMask(int size) {
         enqueue(() -> {
-            mask = getNullMask(size);
+            allocatePlanes(size);
             fill(getZeroValue());
         });
     }
 
     @Override
     protected int getImmediateSize() {
-        return mask.length;
+        return maskSize;
     }
 
     @Override
@@ -113,19 +124,26 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
         int numImageComponents = image.getColorModel().getNumComponents();
         assertMatchingDimension(numImageComponents);
         WritableRaster imageRaster = image.getRaster();
-        loop((x, y) -> imageRaster.setPixel(x, y, get(x, y).toArray()));
+        float[] pixel = new float[planes.length];
+        loop((x, y) -> {
+            int index = getIndex(x, y);
+            for (int i = 0; i < planes.length; ++i) {
+                pixel[i] = planes[i][index];
+            }
+            imageRaster.setPixel(x, y, pixel);
+        });
         return image;
     }
 
     @Override
     public String toHash() throws NoSuchAlgorithmException {
         int size = getSize();
-        int dimension = get(0, 0).getDimension();
+        int dimension = planes.length;
         ByteBuffer bytes = ByteBuffer.allocate(size * size * 4 * dimension);
         loopWithSymmetry(SymmetryType.SPAWN, (x, y) -> {
-            Vector<?> value = get(x, y);
+            int index = getIndex(x, y);
             for (int i = 0; i < dimension; ++i) {
-                bytes.putFloat(value.get(i));
+                bytes.putFloat(planes[i][index]);
             }
         });
         byte[] data = MessageDigest.getInstance("MD5").digest(bytes.array());
@@ -138,17 +156,55 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
 
     @Override
     public T get(int x, int y) {
-        return mask[x][y].copy();
+        T value = getZeroValue();
+        int index = getIndex(x, y);
+        for (int i = 0; i < planes.length; ++i) {
+            value.set(i, planes[i][index]);
+        }
+        return value;
+    }
+
+    /**
+     * Read a single component without building a vector, for bulk readers such as the image encoders
+     */
+    public float getComponent(int x, int y, int component) {
+        return planes[component][getIndex(x, y)];
+    }
+
+    float getDot(int x, int y, VectorMask<T, U> other) {
+        int index = getIndex(x, y);
+        int otherIndex = other.getIndex(x, y);
+        float sum = 0;
+        for (int i = 0; i < planes.length; ++i) {
+            sum += planes[i][index] * other.planes[i][otherIndex];
+        }
+        return sum;
+    }
+
+    float getDot(int x, int y, T vector) {
+        int index = getIndex(x, y);
+        float sum = 0;
+        for (int i = 0; i < planes.length; ++i) {
+            sum += planes[i][index] * vector.get(i);
+        }
+        return sum;
     }
 
     @Override
     protected void set(int x, int y, T value) {
-        mask[x][y] = value.copy();
+        int index = getIndex(x, y);
+        for (int i = 0; i < planes.length; ++i) {
+            planes[i][index] = value.get(i);
+        }
     }
 
     @Override
     protected U fill(T value) {
-        return set((x, y) -> value);
+        return enqueue(() -> {
+            for (int i = 0; i < planes.length; ++i) {
+                Arrays.fill(planes[i], value.get(i));
+            }
+        });
     }
 
     @Override
@@ -157,85 +213,86 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
             int oldSize = getSize();
             if (oldSize == 1) {
                 T value = get(0, 0);
-                mask = getNullMask(newSize);
+                allocatePlanes(newSize);
                 fill(value);
             } else if (oldSize != newSize) {
-                T[][] oldMask = mask;
-                mask = getNullMask(newSize);
-                Map<Integer, Integer> coordinateMap = getSymmetricScalingCoordinateMap(oldSize, newSize);
-                setWithSymmetry(SymmetryType.SPAWN,
-                                (x, y) -> oldMask[coordinateMap.get(x)][coordinateMap.get(y)].copy());
+                float[][] oldPlanes = planes;
+                allocatePlanes(newSize);
+                int[] coordinates = getSymmetricScalingCoordinates(oldSize, newSize);
+                applyAndCopyWithSymmetry(SymmetryType.SPAWN, (x, y) -> {
+                    int index = getIndex(x, y);
+                    int oldIndex = coordinates[x] * oldSize + coordinates[y];
+                    for (int i = 0; i < planes.length; ++i) {
+                        planes[i][index] = oldPlanes[i][oldIndex];
+                    }
+                });
             }
         });
     }
 
-    protected T[][] getInnerCount() {
-        T[][] innerCount = getNullMask(getSize());
-        apply((x, y) -> calculateInnerValue(innerCount, x, y, get(x, y)));
-        return innerCount;
+    private void allocatePlanes(int size) {
+        planes = new float[getZeroValue().getDimension()][size * size];
+        maskSize = size;
     }
 
-    protected void calculateInnerValue(T[][] innerCount, int x, int y, T val) {
-        innerCount[x][y] = val.copy().multiply(1000).round();
-        if (x > 0) {
-            innerCount[x][y].add(innerCount[x - 1][y]);
-        }
-        if (y > 0) {
-            innerCount[x][y].add(innerCount[x][y - 1]);
-        }
-        if (x > 0 && y > 0) {
-            innerCount[x][y].subtract(innerCount[x - 1][y - 1]);
+    private U fill(float[][] planesToFillFrom, int maskSize) {
+        planes = new float[planesToFillFrom.length][];
+        for (int i = 0; i < planes.length; ++i) {
+            planes[i] = planesToFillFrom[i].clone();
         }
+        this.maskSize = maskSize;
+        return (U) this;
     }
 
-    protected T calculateAreaAverage(int radius, int x, int y, T[][] innerCount) {
-        T result = getZeroValue();
-        int xLeft = StrictMath.max(0, x - radius);
-        int size = getSize();
-        int xRight = StrictMath.min(size - 1, x + radius);
-        int yUp = StrictMath.max(0, y - radius);
-        int yDown = StrictMath.min(size - 1, y + radius);
-        T countA = xLeft > 0 && yUp > 0 ? innerCount[xLeft - 1][yUp - 1] : getZeroValue();
-        T countB = yUp > 0 ? innerCount[xRight][yUp - 1] : getZeroValue();
-        T countC = xLeft > 0 ? innerCount[xLeft - 1][yDown] : getZeroValue();
-        T countD = innerCount[xRight][yDown];
-        int area = (xRight - xLeft + 1) * (yDown - yUp + 1);
-        return result.add(countD).add(countA).subtract(countB).subtract(countC).divide(area);
-    }
-
-    protected U fill(T[][] maskToFillFrom) {
-        int maskSize = maskToFillFrom.length;
-        mask = getNullMask(maskSize);
-        for (int x = 0; x < maskSize; x++) {
-            for (int y = 0; y < maskSize; y++) {
-                set(x, y, maskToFillFrom[x][y]);
-            }
-        }
-        return (U) this;
+    private int getIndex(int x, int y) {
+        return x * maskSize + y;
     }
 
-    protected abstract T[][] getNullMask(int size);
+    @Override
+    protected void copyPixel(int sourceIndex, int targetIndex) {
+        for (float[] plane : planes) {
+            plane[targetIndex] = plane[sourceIndex];
+        }
+    }
 
     public float getMaxMagnitude() {
-        return Arrays.stream(mask)
-                     .flatMap(Arrays::stream)
-                     .map(Vector::getMagnitude)
-                     .max(Comparator.comparing(magnitude -> magnitude))
-                     .orElseThrow(() -> new IllegalStateException("Empty Mask"));
+        int length = maskSize * maskSize;
+        if (length == 0) {
+            throw new IllegalStateException("Empty Mask");
+        }
+        float maxMagnitude = Float.NEGATIVE_INFINITY;
+        for (int index = 0; index < length; ++index) {
+            float sum = 0;
+            for (float[] plane : planes) {
+                sum += plane[index] * plane[index];
+            }
+            maxMagnitude = StrictMath.max(maxMagnitude, (float) StrictMath.sqrt(sum));
+        }
+        return maxMagnitude;
     }
 
     public T getMaxComponents() {
-        return Arrays.stream(mask)
-                     .flatMap(Arrays::stream)
-                     .reduce((first, second) -> first.copy().max(second))
-                     .orElseThrow(() -> new IllegalStateException("Empty Mask"));
+        T maxComponents = getZeroValue();
+        for (int i = 0; i < planes.length; ++i) {
+            float max = Float.NEGATIVE_INFINITY;
+            for (float value : planes[i]) {
+                max = StrictMath.max(max, value);
+            }
+            maxComponents.set(i, max);
+        }
+        return maxComponents;
     }
 
     public T getMinComponents() {
-        return Arrays.stream(mask)
-                     .flatMap(Arrays::stream)
-                     .reduce((first, second) -> first.copy().min(second))
-                     .orElseThrow(() -> new IllegalStateException("Empty Mask"));
+        T minComponents = getZeroValue();
+        for (int i = 0; i < planes.length; ++i) {
+            float min = Float.POSITIVE_INFINITY;
+            for (float value : planes[i]) {
+                min = StrictMath.min(min, value);
+            }
+            minComponents.set(i, min);
+        }
+        return minComponents;
     }
 
     protected void setComponentAt(Vector2 loc, float value, int component) {
@@ -263,7 +320,10 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     protected void addScalarAt(int x, int y, float value) {
-        mask[x][y].add(value);
+        int index = getIndex(x, y);
+        for (float[] plane : planes) {
+            plane[index] += value;
+        }
     }
 
     protected void subtractScalarAt(Vector2 loc, float value) {
@@ -271,17 +331,17 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     protected void subtractScalarAt(int x, int y, float value) {
-        mask[x][y].subtract(value);
+        int index = getIndex(x, y);
+        for (float[] plane : planes) {
+            plane[index] -= value;
+        }
     }
 
     public U blurComponent(int radius, int component, BooleanMask other) {
         assertCompatibleMask(other);
         return enqueue(dependencies -> {
-            BooleanMask limiter = (BooleanMask) dependencies.get(0);
-            int[][] innerCount = getComponentInnerCount(component);
-            setComponent(
-                    (x, y) -> limiter.get(x, y) ? calculateComponentAreaAverage(radius, x, y, innerCount) / 1000f : get(
-                            x, y).get(component), component);
+            BooleanMask limiter = (BooleanMask) dependencies.getFirst();
+            KernelUtil.boxBlur(planes[component], maskSize, radius, limiter::getPrimitive);
         }, other);
     }
 
@@ -290,7 +350,10 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     protected void multiplyScalarAt(int x, int y, float value) {
-        mask[x][y].multiply(value);
+        int index = getIndex(x, y);
+        for (float[] plane : planes) {
+            plane[index] *= value;
+        }
     }
 
     protected void divideScalarAt(Vector2 loc, float value) {
@@ -298,36 +361,42 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     protected void divideScalarAt(int x, int y, float value) {
-        mask[x][y].divide(value);
-    }
-
-    protected int[][] getComponentInnerCount(int component) {
-        int[][] innerCount = new int[getSize()][getSize()];
-        apply((x, y) -> calculateComponentInnerValue(innerCount, x, y,
-                                                     StrictMath.round(get(x, y).get(component) * 1000)));
-        return innerCount;
-    }
-
-    protected void calculateComponentInnerValue(int[][] innerCount, int x, int y, int val) {
-        calculateScalarInnerValue(innerCount, x, y, val);
+        int index = getIndex(x, y);
+        for (float[] plane : planes) {
+            plane[index] /= value;
+        }
     }
 
     @Override
     public T getSum() {
-        return Arrays.stream(mask)
-                     .flatMap(Arrays::stream)
-                     .reduce((first, second) -> first.copy().add(second))
-                     .orElseThrow(() -> new IllegalStateException("Empty Mask"));
+        if (maskSize == 0) {
+            throw new IllegalStateException("Empty Mask");
+        }
+        T sum = getZeroValue();
+        for (int i = 0; i < planes.length; ++i) {
+            float componentSum = 0;
+            for (float value : planes[i]) {
+                componentSum += value;
+            }
+            sum.set(i, componentSum);
+        }
+        return sum;
     }
 
     @Override
     protected void addValueAt(int x, int y, T value) {
-        mask[x][y].add(value);
+        int index = getIndex(x, y);
+        for (int i = 0; i < planes.length; ++i) {
+            planes[i][index] += value.get(i);
+        }
     }
 
     @Override
     protected void subtractValueAt(int x, int y, T value) {
-        mask[x][y].subtract(value);
+        int index = getIndex(x, y);
+        for (int i = 0; i < planes.length; ++i) {
+            planes[i][index] -= value.get(i);
+        }
     }
 
     @Override
@@ -339,16 +408,22 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
 
     @Override
     protected void multiplyValueAt(int x, int y, T value) {
-        mask[x][y].multiply(value);
+        int index = getIndex(x, y);
+        for (int i = 0; i < planes.length; ++i) {
+            planes[i][index] *= value.get(i);
+        }
     }
 
     @Override
     protected void divideValueAt(int x, int y, T value) {
-        mask[x][y].divide(value);
+        int index = getIndex(x, y);
+        for (int i = 0; i < planes.length; ++i) {
+            planes[i][index] /= value.get(i);
+        }
     }
 
     protected void setComponentAt(int x, int y, float value, int component) {
-        mask[x][y].set(component, value);
+        planes[component][getIndex(x, y)] = value;
     }
 
     protected void addComponentAt(Vector2 loc, float value, int component) {
@@ -356,7 +431,7 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     protected void addComponentAt(int x, int y, float value, int component) {
-        mask[x][y].add(value, component);
+        planes[component][getIndex(x, y)] += value;
     }
 
     protected void subtractComponentAt(Vector2 loc, float value, int component) {
@@ -364,7 +439,7 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     protected void subtractComponentAt(int x, int y, float value, int component) {
-        mask[x][y].subtract(value, component);
+        planes[component][getIndex(x, y)] -= value;
     }
 
     protected void multiplyComponentAt(Vector2 loc, float value, int component) {
@@ -372,7 +447,7 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     protected void multiplyComponentAt(int x, int y, float value, int component) {
-        mask[x][y].multiply(value, component);
+        planes[component][getIndex(x, y)] *= value;
     }
 
     protected void divideComponentAt(Vector2 loc, float value, int component) {
@@ -380,7 +455,7 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     protected void divideComponentAt(int x, int y, float value, int component) {
-        mask[x][y].divide(value, component);
+        planes[component][getIndex(x, y)] /= value;
     }
 
     public U addScalar(float value) {
@@ -395,21 +470,6 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
         return subtractScalar((x, y) -> value);
     }
 
-    protected float calculateComponentAreaAverage(int radius, int x, int y, int[][] innerCount) {
-        int size = getSize();
-        int xLeft = StrictMath.max(0, x - radius);
-        int xRight = StrictMath.min(size - 1, x + radius);
-        int yUp = StrictMath.max(0, y - radius);
-        int yDown = StrictMath.min(size - 1, y + radius);
-        int countA = xLeft > 0 && yUp > 0 ? innerCount[xLeft - 1][yUp - 1] : 0;
-        int countB = yUp > 0 ? innerCount[xRight][yUp - 1] : 0;
-        int countC = xLeft > 0 ? innerCount[xLeft - 1][yDown] : 0;
-        int countD = innerCount[xRight][yDown];
-        int count = countD + countA - countB - countC;
-        int area = (xRight - xLeft + 1) * (yDown - yUp + 1);
-        return (float) count / area;
-    }
-
     public U multiplyScalar(float value) {
         return multiplyScalar((x, y) -> value);
     }
@@ -427,11 +487,23 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     public U clampComponentMin(float floor) {
-        return apply((x, y) -> get(x, y).clampMin(floor));
+        return enqueue(() -> {
+            for (float[] plane : planes) {
+                for (int i = 0; i < plane.length; ++i) {
+                    plane[i] = StrictMath.max(plane[i], floor);
+                }
+            }
+        });
     }
 
     public U clampComponentMax(float ceiling) {
-        return apply((x, y) -> get(x, y).clampMax(ceiling));
+        return enqueue(() -> {
+            for (float[] plane : planes) {
+                for (int i = 0; i < plane.length; ++i) {
+                    plane[i] = StrictMath.min(plane[i], ceiling);
+                }
+            }
+        });
     }
 
     public U randomize(float scale) {
@@ -465,8 +537,7 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
     }
 
     public U blurComponent(int radius, int component) {
-        int[][] innerCount = getComponentInnerCount(component);
-        return setComponent((x, y) -> calculateComponentAreaAverage(radius, x, y, innerCount) / 1000f, component);
+        return enqueue(() -> KernelUtil.boxBlur(planes[component], maskSize, radius));
     }
 
     public U multiplyComponent(ToFloatBiIntFunction valueFunction, int component) {
@@ -643,7 +714,7 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
             FloatMask[] sources = dependencies.subList(0, dimension).toArray(FloatMask[]::new);
             apply((x, y) -> {
                 for (int i = 0; i < dimension; ++i) {
-                    sources[i].setPrimitive(x, y, get(x, y).get(i));
+                    sources[i].setPrimitive(x, y, getComponent(x, y, i));
                 }
             });
         }, components);
@@ -693,53 +764,11 @@ public abstract sealed class VectorMask<T extends Vector<T>, U extends VectorMas
 
     private U applyComponentWithOffset(FloatMask other, BiIntFloatIntConsumer action, int component, int xOffset, int yOffset, boolean center, boolean wrapEdges) {
         return enqueue(() -> {
-            int size = getSize();
             int otherSize = other.getSize();
-            int smallerSize = StrictMath.min(size, otherSize);
-            int biggerSize = StrictMath.max(size, otherSize);
-            if (smallerSize == otherSize) {
-                if (symmetrySettings.spawnSymmetry().isPerfectSymmetry()) {
-                    Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges,
-                                                                                   otherSize, size);
-                    other.apply((x, y) -> {
-                        int shiftX = coordinateXMap.get(x);
-                        int shiftY = coordinateYMap.get(y);
-                        if (inBounds(shiftX, shiftY, size)) {
-                            float value = other.getPrimitive(x, y);
-                            applyAtSymmetryPoints(shiftX, shiftY, SymmetryType.SPAWN,
-                                                  (sx, sy) -> action.accept(sx, sy, value, component));
-                        }
-                    });
-                } else {
-                    applyAtSymmetryPointsWithOutOfBounds(xOffset, yOffset, SymmetryType.SPAWN, (sx, sy) -> {
-                        Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(sx, center, wrapEdges, otherSize,
-                                                                                       size);
-                        Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(sy, center, wrapEdges, otherSize,
-                                                                                       size);
-                        other.apply((x, y) -> {
-                            int shiftX = coordinateXMap.get(x);
-                            int shiftY = coordinateYMap.get(y);
-                            if (inBounds(shiftX, shiftY, size)) {
-                                action.accept(shiftX, shiftY, other.getPrimitive(x, y), component);
-                            }
-                        });
-                    });
-                }
-            } else {
-                Map<Integer, Integer> coordinateXMap = getShiftedCoordinateMap(xOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                Map<Integer, Integer> coordinateYMap = getShiftedCoordinateMap(yOffset, center, wrapEdges, size,
-                                                                               otherSize);
-                apply((x, y) -> {
-                    int shiftX = coordinateXMap.get(x);
-                    int shiftY = coordinateYMap.get(y);
-                    if (inBounds(shiftX, shiftY, otherSize)) {
-                        action.accept(x, y, other.getPrimitive(shiftX, shiftY), component);
-                    }
-                });
-            }
+            loopWithOffset(otherSize, xOffset, yOffset, center, wrapEdges,
+                           (x, y, otherIndex) -> action.accept(x, y, other.getPrimitive(otherIndex / otherSize,
+                                                                                        otherIndex % otherSize),
+                                                               component));
         });
     }
 }
@@ -0,0 +1,147 @@
+package com.faforever.neroxis.util;
+
+import com.faforever.neroxis.util.vector.Vector2;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Candidate coordinates bucketed into square cells so the candidates close to a point can be removed without
+ * scanning every candidate. The remaining candidates keep their original order and can be looked up by their rank
+ * in that order.
+ */
+public class CoordinateGrid {
+    private final List<Vector2> coordinates;
+    private final int cellSize;
+    private final int cellsPerSide;
+    private final int[] cellStarts;
+    private final int[] cellIndices;
+    private final boolean[] removed;
+    // Fenwick tree counting the candidates that have not been removed
+    private final int[] remainingTree;
+    private int remainingCount;
+
+    /**
+     * @param coordinates candidates with coordinates in [0, size)
+     * @param size        size of the square area holding the candidates
+     * @param maxRadius   largest radius that will be queried, used to size the cells
+     */
+    public CoordinateGrid(List<Vector2> coordinates, int size, float maxRadius) {
+        this.coordinates = coordinates;
+        cellSize = (int) StrictMath.max(1, StrictMath.min(size, StrictMath.ceil(maxRadius)));
+        cellsPerSide = StrictMath.max(1, (size + cellSize - 1) / cellSize);
+        int count = coordinates.size();
+        remainingCount = count;
+        removed = new boolean[count];
+
+        int[] cells = new int[count];
+        cellStarts = new int[cellsPerSide * cellsPerSide + 1];
+        for (int i = 0; i < count; i++) {
+            Vector2 coordinate = coordinates.get(i);
+            cells[i] = getCell(coordinate.getX()) * cellsPerSide + getCell(coordinate.getY());
+            cellStarts[cells[i] + 1]++;
+        }
+        for (int cell = 0; cell < cellsPerSide * cellsPerSide; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+        cellIndices = new int[count];
+        int[] cellFill = new int[cellsPerSide * cellsPerSide];
+        for (int i = 0; i < count; i++) {
+            cellIndices[cellStarts[cells[i]] + cellFill[cells[i]]++] = i;
+        }
+
+        remainingTree = new int[count + 1];
+        for (int i = 1; i <= count; i++) {
+            remainingTree[i]++;
+            int parent = i + (i & -i);
+            if (parent <= count) {
+                remainingTree[parent] += remainingTree[i];
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return remainingCount == 0;
+    }
+
+    public int getRemainingCount() {
+        return remainingCount;
+    }
+
+    /**
+     * @return the original index of the remaining candidate at {@code rank} in the original order
+     */
+    public int getRemainingIndex(int rank) {
+        int index = 0;
+        for (int step = Integer.highestOneBit(coordinates.size()); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next < remainingTree.length && remainingTree[next] <= rank) {
+                index = next;
+                rank -= remainingTree[next];
+            }
+        }
+        return index;
+    }
+
+    public Vector2 get(int index) {
+        return coordinates.get(index);
+    }
+
+    public void remove(int index) {
+        if (removed[index]) {
+            return;
+        }
+        removed[index] = true;
+        remainingCount--;
+        for (int i = index + 1; i < remainingTree.length; i += i & -i) {
+            remainingTree[i]--;
+        }
+    }
+
+    /**
+     * Remove every remaining candidate closer than {@code radius} to {@code point}
+     */
+    public void removeWithin(Vector2 point, float radius) {
+        forEachNear(point, radius, index -> {
+            if (point.getDistance(coordinates.get(index)) < radius) {
+                remove(index);
+            }
+        });
+    }
+
+    /**
+     * Call {@code action} with the index of every remaining candidate in the cells reaching within {@code radius} of
+     * {@code point}. This includes every candidate in range but also some further away, so callers still have to
+     * check the distance
+     */
+    public void forEachNear(Vector2 point, float radius, IntConsumer action) {
+        // Pad by a pixel so rounding in the distance can never exclude a cell holding a candidate in range
+        float reach = radius + 1;
+        int minCellX = getCell(point.getX() - reach);
+        int maxCellX = getCell(point.getX() + reach);
+        int minCellY = getCell(point.getY() - reach);
+        int maxCellY = getCell(point.getY() + reach);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                int cell = cellX * cellsPerSide + cellY;
+                for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                    int index = cellIndices[i];
+                    if (!removed[index]) {
+                        action.accept(index);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean isRemoved(int index) {
+        return removed[index];
+    }
+
+    private int getCell(float coordinate) {
+        if (!(coordinate > 0)) {
+            return 0;
+        }
+        return StrictMath.min((int) coordinate / cellSize, cellsPerSide - 1);
+    }
+}
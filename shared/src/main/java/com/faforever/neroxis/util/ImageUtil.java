@@ -5,10 +5,11 @@ import com.faforever.neroxis.mask.NormalMask;
 import com.faforever.neroxis.mask.Vector4Mask;
 import com.faforever.neroxis.util.dds.DDSHeader;
 import com.faforever.neroxis.util.jsquish.Squish;
+import com.faforever.neroxis.util.jsquish.SquishCompressor;
 import com.faforever.neroxis.util.serial.biome.LightingSettings;
+import com.faforever.neroxis.util.vector.Vector;
 import com.faforever.neroxis.util.vector.Vector2;
 import com.faforever.neroxis.util.vector.Vector3;
-import com.faforever.neroxis.util.vector.Vector4;
 
 import javax.imageio.ImageIO;
 import java.awt.Point;
@@ -20,6 +21,7 @@ import java.awt.image.ColorModel;
 import java.awt.image.ComponentColorModel;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
@@ -31,9 +33,13 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 
-import static com.faforever.neroxis.util.jsquish.Squish.compressImage;
-
 public class ImageUtil {
+    /**
+     * When set every DXT5 image is compressed with the single pass {@link Squish.CompressionMethod#BOUNDING_BOX_FIT}
+     * instead of the slower least squares fits, for previews and debug exports where quality matters less.
+     */
+    public static boolean FAST_DDS_COMPRESSION = false;
+
     public static boolean compareImages(BufferedImage imgA, BufferedImage imgB) {
         if (imgA.getWidth() != imgB.getWidth() || imgA.getHeight() != imgB.getHeight()) {
             return false;
@@ -93,26 +99,23 @@ public class ImageUtil {
 
     public static void writeNormalDDS(NormalMask imageMask, Path path) throws IOException {
         int size = imageMask.getSize();
-        int length = size * size * 4;
-        ByteBuffer imageBytes = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] rgba = new byte[size * size * 4];
+        int index = 0;
         for (int y = 0; y < size; y++) {
             for (int x = 0; x < size; x++) {
-                Vector3 value = imageMask.get(x, y);
-                byte xV = (byte) StrictMath.min(StrictMath.max((128 * value.getX() + 128), 0), 255);
-                byte yV = (byte) StrictMath.min(StrictMath.max((128 * (1 - value.getY()) + 127), 0), 255);
-                byte zV = (byte) StrictMath.min(StrictMath.max((128 * value.getZ() + 128), 0), 255);
-                imageBytes.put(yV);
-                imageBytes.put(zV);
-                imageBytes.put((byte) 0);
-                imageBytes.put(xV);
+                rgba[index++] = clampToByte(128 * (1 - imageMask.getComponent(x, y, Vector.Y)) + 127);
+                rgba[index++] = clampToByte(128 * imageMask.getComponent(x, y, Vector.Z) + 128);
+                rgba[index++] = 0;
+                rgba[index++] = clampToByte(128 * imageMask.getComponent(x, y, Vector.X) + 128);
             }
         }
         DDSHeader ddsHeader = new DDSHeader();
-        ddsHeader.setWidth(imageMask.getSize());
-        ddsHeader.setHeight(imageMask.getSize());
+        ddsHeader.setWidth(size);
+        ddsHeader.setHeight(size);
         ddsHeader.setFourCC("DXT5");
-        byte[] compressedData = compressImage(imageBytes.array(), ddsHeader.getWidth(), ddsHeader.getHeight(), null,
-                                              Squish.CompressionType.DXT5);
+        byte[] compressedData = new byte[Squish.getStorageRequirements(size, size, Squish.CompressionType.DXT5)];
+        getDXT5Compressor(Squish.CompressionMethod.CLUSTER_FIT).compressImage(
+                ByteBuffer.wrap(rgba), size, size, ByteBuffer.wrap(compressedData));
         Files.write(path, ddsHeader.toBytes(), StandardOpenOption.CREATE);
         Files.write(path, compressedData, StandardOpenOption.APPEND);
     }
@@ -134,8 +137,8 @@ public class ImageUtil {
         ddsHeader.setWidth(size);
         ddsHeader.setHeight(size);
         ddsHeader.setFourCC("DXT5");
-        byte[] compressedData = compressImage(imageBytes.array(), ddsHeader.getWidth(), ddsHeader.getHeight(), null,
-                                              Squish.CompressionType.DXT5);
+        byte[] compressedData = getDXT5Compressor(Squish.CompressionMethod.CLUSTER_FIT).compressImage(
+                imageBytes.array(), ddsHeader.getWidth(), ddsHeader.getHeight(), null);
         // If we don't do this we get weird results when the file already exists
         Files.deleteIfExists(path);
         Files.write(path, ddsHeader.toBytes(), StandardOpenOption.CREATE);
@@ -178,15 +181,14 @@ public class ImageUtil {
         waterDepth.resample(shadowMask.getSize());
         int size = shadowMask.getSize();
         BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-        WritableRaster imageRaster = image.getRaster();
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int index = 0;
         for (int y = 0; y < size; y++) {
             for (int x = 0; x < size; x++) {
-                Vector3 normalValue = normalMask.get(x, y);
-                int xV = (byte) StrictMath.min(StrictMath.max(128 * normalValue.getX() + 127, 0), 255);
-                int yV = (byte) StrictMath.min(StrictMath.max(128 * normalValue.getZ() + 127, 0), 255);
-                int zV = (byte) StrictMath.min(StrictMath.max(waterDepth.get(x, y) * 255, 0), 255);
-                int wV = (byte) StrictMath.min(StrictMath.max(shadowMask.get(x, y) * 255, 0), 255);
-                imageRaster.setPixel(x, y, new int[]{xV, yV, zV, wV});
+                pixels[index++] = toARGB(clampToByte(128 * normalMask.getComponent(x, y, Vector.X) + 127),
+                                         clampToByte(128 * normalMask.getComponent(x, y, Vector.Z) + 127),
+                                         clampToByte(waterDepth.getPrimitive(x, y) * 255),
+                                         clampToByte(shadowMask.getPrimitive(x, y) * 255));
             }
         }
         return image;
@@ -194,59 +196,52 @@ public class ImageUtil {
 
     public static byte[] compressNormal(NormalMask mask) {
         int size = mask.getSize();
-        int length = size * size * 4;
-        ByteBuffer imageByteBuffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] rgba = new byte[size * size * 4];
+        int index = 0;
         for (int y = 0; y < size; y++) {
             for (int x = 0; x < size; x++) {
-                Vector3 value = mask.get(x, y);
-                int xV = (byte) StrictMath.min(StrictMath.max((128 * value.getX() + 128), 0), 255);
-                int yV = (byte) StrictMath.min(StrictMath.max((255 * (1 - value.getY())), 0), 255);
-                int zV = (byte) StrictMath.min(StrictMath.max((128 * value.getZ() + 128), 0), 255);
-                imageByteBuffer.put((byte) yV);
-                imageByteBuffer.put((byte) zV);
-                imageByteBuffer.put((byte) 0);
-                imageByteBuffer.put((byte) xV);
+                rgba[index++] = clampToByte(255 * (1 - mask.getComponent(x, y, Vector.Y)));
+                rgba[index++] = clampToByte(128 * mask.getComponent(x, y, Vector.Z) + 128);
+                rgba[index++] = 0;
+                rgba[index++] = clampToByte(128 * mask.getComponent(x, y, Vector.X) + 128);
             }
         }
-        return getCompressedDDSImageBytes(size, imageByteBuffer);
+        return getCompressedDDSImageBytes(size, rgba);
     }
 
     public static byte[] compressShadow(FloatMask mask, LightingSettings lightingSettings) {
         int size = mask.getSize();
-        int length = size * size * 4;
         Vector3 shadowFillColor = lightingSettings.shadowFillColor()
                                                   .copy()
                                                   .add(lightingSettings.sunAmbience())
                                                   .divide(4);
         float opacityScale = lightingSettings.lightingMultiplier() / 4;
-        ByteBuffer imageByteBuffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        byte r = clampToByte(shadowFillColor.getX() * 128);
+        byte g = clampToByte(shadowFillColor.getY() * 128);
+        byte b = clampToByte(shadowFillColor.getZ() * 128);
+        byte[] rgba = new byte[size * size * 4];
+        int index = 0;
         for (int y = 0; y < size; y++) {
             for (int x = 0; x < size; x++) {
-                float value = mask.get(x, y);
-                int r = (byte) StrictMath.min(StrictMath.max(shadowFillColor.getX() * 128, 0), 255);
-                int g = (byte) StrictMath.min(StrictMath.max(shadowFillColor.getY() * 128, 0), 255);
-                int b = (byte) StrictMath.min(StrictMath.max(shadowFillColor.getZ() * 128, 0), 255);
-                int a = (byte) StrictMath.min(StrictMath.max((1 - value) * opacityScale * 255, 0), 255);
-                imageByteBuffer.put((byte) r);
-                imageByteBuffer.put((byte) g);
-                imageByteBuffer.put((byte) b);
-                imageByteBuffer.put((byte) a);
+                rgba[index++] = r;
+                rgba[index++] = g;
+                rgba[index++] = b;
+                rgba[index++] = clampToByte((1 - mask.getPrimitive(x, y)) * opacityScale * 255);
             }
         }
-        return getCompressedDDSImageBytes(size, imageByteBuffer);
+        return getCompressedDDSImageBytes(size, rgba);
     }
 
     public static BufferedImage normalToARGB(NormalMask mask) {
         int size = mask.getSize();
         BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-        WritableRaster imageRaster = image.getRaster();
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int index = 0;
         for (int y = 0; y < size; y++) {
             for (int x = 0; x < size; x++) {
-                Vector3 value = mask.get(x, y);
-                int xV = (byte) StrictMath.min(StrictMath.max((128 * value.getX() + 128), 0), 255);
-                int yV = (byte) StrictMath.min(StrictMath.max((255 * (1 - value.getY())), 0), 255);
-                int zV = (byte) StrictMath.min(StrictMath.max((128 * value.getZ() + 128), 0), 255);
-                imageRaster.setPixel(x, y, new int[]{yV, zV, 0, xV});
+                pixels[index++] = toARGB(clampToByte(255 * (1 - mask.getComponent(x, y, Vector.Y))),
+                                         clampToByte(128 * mask.getComponent(x, y, Vector.Z) + 128), (byte) 0,
+                                         clampToByte(128 * mask.getComponent(x, y, Vector.X) + 128));
             }
         }
         return image;
@@ -254,40 +249,50 @@ public class ImageUtil {
 
     public static byte[] compressVector4(Vector4Mask mask) {
         int size = mask.getSize();
-        int length = size * size * 4;
-        ByteBuffer imageByteBuffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] rgba = new byte[size * size * 4];
+        int index = 0;
         for (int y = 0; y < size; y++) {
             for (int x = 0; x < size; x++) {
-                Vector4 value = mask.get(x, y);
-                int xV = (byte) StrictMath.min(StrictMath.max(value.getX(), 0), 255);
-                int yV = (byte) StrictMath.min(StrictMath.max(value.getY(), 0), 255);
-                int zV = (byte) StrictMath.min(StrictMath.max(value.getZ(), 0), 255);
-                int wV = (byte) StrictMath.min(StrictMath.max(value.getW(), 0), 255);
-                imageByteBuffer.put((byte) xV);
-                imageByteBuffer.put((byte) yV);
-                imageByteBuffer.put((byte) zV);
-                imageByteBuffer.put((byte) wV);
+                rgba[index++] = clampToByte(mask.getComponent(x, y, Vector.X));
+                rgba[index++] = clampToByte(mask.getComponent(x, y, Vector.Y));
+                rgba[index++] = clampToByte(mask.getComponent(x, y, Vector.Z));
+                rgba[index++] = clampToByte(mask.getComponent(x, y, Vector.W));
             }
         }
-        return getCompressedDDSImageBytes(size, imageByteBuffer);
+        return getCompressedDDSImageBytes(size, rgba);
     }
 
-    private static byte[] getCompressedDDSImageBytes(int size, ByteBuffer imageByteBuffer) {
+    /**
+     * @param method colour fit to use unless {@link #FAST_DDS_COMPRESSION} is set
+     */
+    public static SquishCompressor getDXT5Compressor(Squish.CompressionMethod method) {
+        return new SquishCompressor(Squish.CompressionType.DXT5,
+                                    FAST_DDS_COMPRESSION ? Squish.CompressionMethod.BOUNDING_BOX_FIT : method);
+    }
+
+    private static byte[] getCompressedDDSImageBytes(int size, byte[] rgba) {
         DDSHeader ddsHeader = new DDSHeader();
         ddsHeader.setWidth(size);
         ddsHeader.setHeight(size);
         ddsHeader.setFourCC("DXT5");
-        ddsHeader.toBytes();
         byte[] headerBytes = ddsHeader.toBytes();
-        byte[] imageBytes = compressImage(imageByteBuffer.array(), ddsHeader.getWidth(), ddsHeader.getHeight(), null,
-                                          Squish.CompressionType.DXT5, Squish.CompressionMethod.RANGE_FIT);
         int headerLength = headerBytes.length;
-        int imageLength = imageBytes.length;
+        int imageLength = Squish.getStorageRequirements(size, size, Squish.CompressionType.DXT5);
         byte[] allBytes = Arrays.copyOf(headerBytes, headerLength + imageLength);
-        System.arraycopy(imageBytes, 0, allBytes, headerLength, imageLength);
+        getDXT5Compressor(Squish.CompressionMethod.RANGE_FIT).compressImage(
+                ByteBuffer.wrap(rgba), size, size,
+                ByteBuffer.wrap(allBytes, headerLength, imageLength));
         return allBytes;
     }
 
+    private static byte clampToByte(float value) {
+        return (byte) StrictMath.min(StrictMath.max(value, 0), 255);
+    }
+
+    private static int toARGB(byte red, byte green, byte blue, byte alpha) {
+        return (alpha & 0xFF) << 24 | (red & 0xFF) << 16 | (green & 0xFF) << 8 | (blue & 0xFF);
+    }
+
     private static byte[] getRawDDSImageBytes(int size, ByteBuffer imageByteBuffer) {
         DDSHeader ddsHeader = new DDSHeader();
         ddsHeader.setWidth(size);
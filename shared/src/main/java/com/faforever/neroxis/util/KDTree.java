@@ -0,0 +1,135 @@
+package com.faforever.neroxis.util;
+
+import com.faforever.neroxis.util.vector.Vector2;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Static 2d tree over a list of coordinates for nearest neighbour queries while coordinates are being removed.
+ * Nearest uses the same float distance as {@link Vector2#getDistance} and breaks ties by the lowest index, so the
+ * result matches scanning the remaining coordinates in their original order.
+ */
+public class KDTree {
+    private final List<Vector2> coordinates;
+    // Coordinate indices laid out so the node of every range [start, end) sits at its midpoint, split on x at even
+    // depths and y at odd depths
+    private final int[] nodes;
+    private final int[] slots;
+    // Coordinates not removed yet in the subtree of the node at each slot, so emptied subtrees are skipped
+    private final int[] remainingCounts;
+    private final boolean[] removed;
+    private int nearestIndex;
+    private float nearestDistance;
+
+    public KDTree(List<Vector2> coordinates) {
+        this.coordinates = coordinates;
+        int count = coordinates.size();
+        nodes = new int[count];
+        slots = new int[count];
+        remainingCounts = new int[count];
+        removed = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            nodes[i] = i;
+        }
+        build(0, count, 0, new long[count]);
+        for (int slot = 0; slot < count; slot++) {
+            slots[nodes[slot]] = slot;
+        }
+    }
+
+    private void build(int start, int end, int depth, long[] keys) {
+        if (start >= end) {
+            return;
+        }
+        // Sort the range on the split axis with the index as tie breaker by packing both into one long
+        for (int slot = start; slot < end; slot++) {
+            int index = nodes[slot];
+            keys[slot] = (long) getSortableBits(getAxisValue(coordinates.get(index), depth)) << 32 | index;
+        }
+        Arrays.sort(keys, start, end);
+        for (int slot = start; slot < end; slot++) {
+            nodes[slot] = (int) keys[slot];
+        }
+        int mid = (start + end) >>> 1;
+        remainingCounts[mid] = end - start;
+        build(start, mid, depth + 1, keys);
+        build(mid + 1, end, depth + 1, keys);
+    }
+
+    private static int getSortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+
+    private static float getAxisValue(Vector2 coordinate, int depth) {
+        return (depth & 1) == 0 ? coordinate.getX() : coordinate.getY();
+    }
+
+    public Vector2 get(int index) {
+        return coordinates.get(index);
+    }
+
+    public boolean isRemoved(int index) {
+        return removed[index];
+    }
+
+    public void remove(int index) {
+        if (removed[index]) {
+            return;
+        }
+        removed[index] = true;
+        int slot = slots[index];
+        int start = 0;
+        int end = nodes.length;
+        while (true) {
+            int mid = (start + end) >>> 1;
+            remainingCounts[mid]--;
+            if (mid == slot) {
+                return;
+            }
+            if (slot < mid) {
+                end = mid;
+            } else {
+                start = mid + 1;
+            }
+        }
+    }
+
+    /**
+     * @return the index of the remaining coordinate closest to {@code point} at a distance strictly less than
+     * {@code maxDistance}, or -1 if there is none
+     */
+    public int findNearest(Vector2 point, float maxDistance) {
+        nearestIndex = -1;
+        nearestDistance = maxDistance;
+        search(0, nodes.length, 0, point);
+        return nearestIndex;
+    }
+
+    private void search(int start, int end, int depth, Vector2 point) {
+        if (start >= end) {
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        if (remainingCounts[mid] == 0) {
+            return;
+        }
+        int index = nodes[mid];
+        Vector2 coordinate = coordinates.get(index);
+        if (!removed[index]) {
+            float distance = coordinate.getDistance(point);
+            if (distance < nearestDistance || (distance == nearestDistance && index < nearestIndex)) {
+                nearestIndex = index;
+                nearestDistance = distance;
+            }
+        }
+        float axisDistance = getAxisValue(point, depth) - getAxisValue(coordinate, depth);
+        boolean lowerFirst = axisDistance < 0;
+        search(lowerFirst ? start : mid + 1, lowerFirst ? mid : end, depth + 1, point);
+        // Pad by a unit so rounding in the distance can never prune a subtree holding a closer or tied coordinate
+        if (StrictMath.abs(axisDistance) <= nearestDistance + 1) {
+            search(lowerFirst ? mid + 1 : start, lowerFirst ? end : mid, depth + 1, point);
+        }
+    }
+}
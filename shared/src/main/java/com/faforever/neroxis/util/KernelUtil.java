@@ -0,0 +1,373 @@
+package com.faforever.neroxis.util;
+
+import com.faforever.neroxis.util.functional.ToBooleanBiIntFunction;
+
+/**
+ * Blur and morphology kernels over square row major arrays where pixel {@code (x, y)} is stored at
+ * {@code x * size + y}. Box windows are clamped to the array so border pixels only average their in bounds
+ * neighbours. The cost of every kernel is independent of the radius. The blurs only allocate column sums and the
+ * rows still inside the window, while the morphology kernels keep one distance per pixel.
+ */
+public class KernelUtil {
+    private static final int BOOLEANS_PER_LONG = 64;
+    private static final long SINGLE_BIT_VALUE = 1;
+    private static final float QUANTISATION_SCALE = 1000f;
+
+    /**
+     * Replace every value with the average of the {@code 2 * radius + 1} square around it. The values are
+     * rounded to thousandths before they are summed, matching the summed area table masks have always blurred with.
+     *
+     * @param values row major values to blur in place
+     * @param size   side length of the square array
+     * @param radius half length of the square window
+     */
+    public static void boxBlur(float[] values, int size, int radius) {
+        boxBlur(values, size, radius, null);
+    }
+
+    /**
+     * Replace every value accepted by {@code filter} with the average of the {@code 2 * radius + 1} square
+     * around it, with the values rounded to thousandths before they are summed. Averages are always taken over the
+     * unblurred values.
+     *
+     * @param values row major values to blur in place
+     * @param size   side length of the square array
+     * @param radius half length of the square window
+     * @param filter pixels to write, or null to write every pixel
+     */
+    public static void boxBlur(float[] values, int size, int radius, ToBooleanBiIntFunction filter) {
+        quantisedBoxBlur(values, size, radius, filter, false);
+    }
+
+    /**
+     * Replace every value accepted by {@code filter} with the average of the {@code 2 * radius + 1} square
+     * around it rounded to thousandths, with the values also rounded to thousandths before they are summed. This
+     * is the blur vector masks have always applied to each of their components.
+     *
+     * @param values row major values to blur in place
+     * @param size   side length of the square array
+     * @param radius half length of the square window
+     * @param filter pixels to write, or null to write every pixel
+     */
+    public static void boxBlurRounded(float[] values, int size, int radius, ToBooleanBiIntFunction filter) {
+        quantisedBoxBlur(values, size, radius, filter, true);
+    }
+
+    private static void quantisedBoxBlur(float[] values, int size, int radius, ToBooleanBiIntFunction filter,
+                                         boolean roundAverages) {
+        if (radius < 0 || size <= 0) {
+            return;
+        }
+
+        int windowRows = StrictMath.min(radius, size - 1);
+        // Quantised rows which are still inside the window after they have been overwritten
+        int historyRows = windowRows + 1;
+        int[] history = new int[historyRows * size];
+        long[] columnSums = new long[size];
+        for (int x = 0; x <= windowRows; x++) {
+            addQuantisedRow(values, x, size, columnSums);
+        }
+
+        for (int x = 0; x < size; x++) {
+            int rowStart = x * size;
+            int historyStart = (x % historyRows) * size;
+            for (int y = 0; y < size; y++) {
+                history[historyStart + y] = quantise(values[rowStart + y]);
+            }
+            int rowCount = windowCount(x, radius, size);
+            long sum = 0;
+            for (int y = 0; y <= windowRows; y++) {
+                sum += columnSums[y];
+            }
+
+            for (int y = 0; y < size; y++) {
+                if (filter == null || filter.apply(x, y)) {
+                    int area = rowCount * windowCount(y, radius, size);
+                    if (roundAverages) {
+                        values[rowStart + y] = StrictMath.round((float) sum / area) / QUANTISATION_SCALE;
+                    } else {
+                        // The summed area table was an int table, so window sums wrap exactly as they did there
+                        int count = (int) sum;
+                        values[rowStart + y] = (float) count / area / QUANTISATION_SCALE;
+                    }
+                }
+                if (y + radius + 1 < size) {
+                    sum += columnSums[y + radius + 1];
+                }
+                if (y - radius >= 0) {
+                    sum -= columnSums[y - radius];
+                }
+            }
+
+            if (x + radius + 1 < size) {
+                addQuantisedRow(values, x + radius + 1, size, columnSums);
+            }
+            if (x - radius >= 0) {
+                int removedRowStart = ((x - radius) % historyRows) * size;
+                for (int y = 0; y < size; y++) {
+                    columnSums[y] -= history[removedRowStart + y];
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace every value with the rounded average of the {@code 2 * radius + 1} square around it
+     *
+     * @param values row major values to blur in place
+     * @param size   side length of the square array
+     * @param radius half length of the square window
+     */
+    public static void boxBlur(int[] values, int size, int radius) {
+        boxBlur(values, size, radius, null);
+    }
+
+    /**
+     * Replace every value accepted by {@code filter} with the rounded average of the {@code 2 * radius + 1}
+     * square around it. Averages are always taken over the unblurred values.
+     *
+     * @param values row major values to blur in place
+     * @param size   side length of the square array
+     * @param radius half length of the square window
+     * @param filter pixels to write, or null to write every pixel
+     */
+    public static void boxBlur(int[] values, int size, int radius, ToBooleanBiIntFunction filter) {
+        if (radius <= 0 || size <= 0) {
+            return;
+        }
+
+        int windowRows = StrictMath.min(radius, size - 1);
+        int historyRows = windowRows + 1;
+        int[] history = new int[historyRows * size];
+        long[] columnSums = new long[size];
+        for (int x = 0; x <= windowRows; x++) {
+            int rowStart = x * size;
+            for (int y = 0; y < size; y++) {
+                columnSums[y] += values[rowStart + y];
+            }
+        }
+
+        for (int x = 0; x < size; x++) {
+            int rowStart = x * size;
+            System.arraycopy(values, rowStart, history, (x % historyRows) * size, size);
+            int rowCount = windowCount(x, radius, size);
+            long sum = 0;
+            for (int y = 0; y <= windowRows; y++) {
+                sum += columnSums[y];
+            }
+
+            for (int y = 0; y < size; y++) {
+                if (filter == null || filter.apply(x, y)) {
+                    values[rowStart + y] = StrictMath.round((float) sum / (rowCount * windowCount(y, radius, size)));
+                }
+                if (y + radius + 1 < size) {
+                    sum += columnSums[y + radius + 1];
+                }
+                if (y - radius >= 0) {
+                    sum -= columnSums[y - radius];
+                }
+            }
+
+            if (x + radius + 1 < size) {
+                int addedRowStart = (x + radius + 1) * size;
+                for (int y = 0; y < size; y++) {
+                    columnSums[y] += values[addedRowStart + y];
+                }
+            }
+            if (x - radius >= 0) {
+                int removedRowStart = ((x - radius) % historyRows) * size;
+                for (int y = 0; y < size; y++) {
+                    columnSums[y] -= history[removedRowStart + y];
+                }
+            }
+        }
+    }
+
+    /**
+     * Set every bit accepted by {@code filter} in {@code target} to whether at least {@code density} of the
+     * {@code 2 * radius + 1} square around it is set in {@code source}
+     *
+     * @param source  row major bits to count
+     * @param target  row major bits to write, may not be {@code source}
+     * @param size    side length of the square bit array
+     * @param radius  half length of the square window
+     * @param density fraction of set bits required to set the target bit
+     * @param filter  pixels to write, or null to write every pixel
+     */
+    public static void boxThreshold(long[] source, long[] target, int size, int radius, float density,
+                                    ToBooleanBiIntFunction filter) {
+        if (size <= 0) {
+            return;
+        }
+
+        int windowRows = StrictMath.min(StrictMath.max(radius, 0), size - 1);
+        int[] columnSums = new int[size];
+        for (int x = 0; x <= windowRows; x++) {
+            addRowBits(source, x, size, columnSums, 1);
+        }
+
+        for (int x = 0; x < size; x++) {
+            int rowCount = windowCount(x, radius, size);
+            int sum = 0;
+            for (int y = 0; y <= windowRows; y++) {
+                sum += columnSums[y];
+            }
+
+            for (int y = 0; y < size; y++) {
+                if (filter == null || filter.apply(x, y)) {
+                    setBit(target, x * size + y,
+                           (float) sum / (rowCount * windowCount(y, radius, size)) >= density);
+                }
+                if (y + radius + 1 < size) {
+                    sum += columnSums[y + radius + 1];
+                }
+                if (y - radius >= 0) {
+                    sum -= columnSums[y - radius];
+                }
+            }
+
+            if (x + radius + 1 < size) {
+                addRowBits(source, x + radius + 1, size, columnSums, 1);
+            }
+            if (x - radius >= 0) {
+                addRowBits(source, x - radius, size, columnSums, -1);
+            }
+        }
+    }
+
+    /**
+     * Set every bit whose euclidean distance to the nearest bit equal to {@code value} is within
+     * {@code squaredRadius} to {@code value}
+     *
+     * @param bits          row major bits to modify in place
+     * @param size          side length of the square bit array
+     * @param value         bit value to grow
+     * @param squaredRadius squared distance from a {@code value} bit within which bits are set
+     */
+    public static void dilate(long[] bits, int size, boolean value, float squaredRadius) {
+        if (size <= 0) {
+            return;
+        }
+
+        // Pixels further than this along a column can never be within the radius
+        int maxDistance = (int) StrictMath.sqrt(squaredRadius);
+        while ((long) (maxDistance + 1) * (maxDistance + 1) <= squaredRadius) {
+            maxDistance++;
+        }
+        int unreachable = StrictMath.min(maxDistance, size - 1) + 1;
+        int[] columnDistances = getColumnDistances(bits, size, value, unreachable);
+        // Lower envelope of the parabolas rooted at each reachable pixel of a row, where parabola k is lowest
+        // from boundNumerators[k] / boundDenominators[k] onwards. Bounds are kept as fractions to compare exactly.
+        int[] parabolaCenters = new int[size];
+        long[] boundNumerators = new long[size];
+        long[] boundDenominators = new long[size];
+        for (int x = 0; x < size; x++) {
+            int rowStart = x * size;
+            int parabolas = 0;
+            for (int y = 0; y < size; y++) {
+                int distance = columnDistances[rowStart + y];
+                if (distance == unreachable) {
+                    continue;
+                }
+
+                long height = (long) distance * distance + (long) y * y;
+                long numerator = 0;
+                long denominator = 1;
+                while (parabolas > 0) {
+                    int center = parabolaCenters[parabolas - 1];
+                    long centerDistance = columnDistances[rowStart + center];
+                    numerator = height - centerDistance * centerDistance - (long) center * center;
+                    denominator = 2L * (y - center);
+                    if (parabolas == 1
+                        || numerator * boundDenominators[parabolas - 1] > boundNumerators[parabolas - 1] * denominator) {
+                        break;
+                    }
+                    parabolas--;
+                }
+                parabolaCenters[parabolas] = y;
+                boundNumerators[parabolas] = numerator;
+                boundDenominators[parabolas] = denominator;
+                parabolas++;
+            }
+
+            // Only the pixels within the radius of each parabola's center can be reached through it
+            for (int parabola = 0; parabola < parabolas; parabola++) {
+                int center = parabolaCenters[parabola];
+                long firstY = parabola == 0 ? 0 : StrictMath.ceilDiv(boundNumerators[parabola],
+                                                                     boundDenominators[parabola]);
+                long lastY = parabola == parabolas - 1 ? size - 1 : StrictMath.floorDiv(boundNumerators[parabola + 1],
+                                                                                        boundDenominators[parabola + 1]);
+                long centerDistance = columnDistances[rowStart + center];
+                int startY = (int) StrictMath.max(StrictMath.max(firstY, center - maxDistance), 0);
+                int endY = (int) StrictMath.min(StrictMath.min(lastY, center + maxDistance), size - 1);
+                for (int y = startY; y <= endY; y++) {
+                    long squaredDistance = (long) (y - center) * (y - center) + centerDistance * centerDistance;
+                    if (squaredDistance <= squaredRadius) {
+                        setBit(bits, rowStart + y, value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute the distance along each column to the nearest bit equal to {@code value},
+     * or {@code unreachable} when there is no such bit closer than {@code unreachable}
+     */
+    private static int[] getColumnDistances(long[] bits, int size, boolean value, int unreachable) {
+        int[] distances = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            distances[y] = getBit(bits, y) == value ? 0 : unreachable;
+        }
+        for (int x = 1; x < size; x++) {
+            int rowStart = x * size;
+            for (int y = 0; y < size; y++) {
+                int previousDistance = StrictMath.min(unreachable, distances[rowStart - size + y] + 1);
+                distances[rowStart + y] = getBit(bits, rowStart + y) == value ? 0 : previousDistance;
+            }
+        }
+        for (int x = size - 2; x >= 0; x--) {
+            int rowStart = x * size;
+            for (int y = 0; y < size; y++) {
+                distances[rowStart + y] = StrictMath.min(distances[rowStart + y], distances[rowStart + size + y] + 1);
+            }
+        }
+        return distances;
+    }
+
+    private static int windowCount(int index, int radius, int size) {
+        return StrictMath.min(size - 1, index + radius) - StrictMath.max(0, index - radius) + 1;
+    }
+
+    private static void addQuantisedRow(float[] values, int x, int size, long[] columnSums) {
+        int rowStart = x * size;
+        for (int y = 0; y < size; y++) {
+            columnSums[y] += quantise(values[rowStart + y]);
+        }
+    }
+
+    private static int quantise(float value) {
+        return StrictMath.round(value * QUANTISATION_SCALE);
+    }
+
+    private static void addRowBits(long[] bits, int x, int size, int[] columnSums, int increment) {
+        int rowStart = x * size;
+        for (int y = 0; y < size; y++) {
+            if (getBit(bits, rowStart + y)) {
+                columnSums[y] += increment;
+            }
+        }
+    }
+
+    private static boolean getBit(long[] bits, int bitIndex) {
+        return ((bits[bitIndex / BOOLEANS_PER_LONG] >>> bitIndex) & SINGLE_BIT_VALUE) != 0;
+    }
+
+    private static void setBit(long[] bits, int bitIndex, boolean value) {
+        if (value) {
+            bits[bitIndex / BOOLEANS_PER_LONG] |= SINGLE_BIT_VALUE << bitIndex;
+        } else {
+            bits[bitIndex / BOOLEANS_PER_LONG] &= ~(SINGLE_BIT_VALUE << bitIndex);
+        }
+    }
+}
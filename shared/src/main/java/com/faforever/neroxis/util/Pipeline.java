@@ -13,31 +13,89 @@ import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Dependency graph of the mask operations of a single generation. Parallel masks capture the pipeline that is
+ * bound to the creating thread (see {@link #runInContext(Runnable)}) and enqueue their operations into it until
+ * the pipeline is started. All pipelines share one work stealing pool so several maps can be built at once.
+ * <p>
+ * Every entry that becomes ready submits one slot to the pool, and a slot runs whichever ready entry of its own
+ * pipeline has the longest estimated path to the end of that pipeline, so that the critical path is started as
+ * early as possible. Entries are only ranked against entries of the same pipeline, so a large map never holds back
+ * the entries of a smaller map generated at the same time. The timings of every entry are recorded and can be
+ * written as a Chrome trace with {@link #toTraceFile(Path)}.
+ */
 public class Pipeline {
-    private static final List<Entry> pipeline = new ArrayList<>();
-    private static final ExecutorService executorService = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors());
+    private static final ExecutorService executorService = Executors.newWorkStealingPool();
+    private static final ThreadLocal<Pipeline> currentPipeline = new ThreadLocal<>();
     public static boolean HASH_MASK = false;
-    private static CompletableFuture<List<Mask<?, ?>>> started = new CompletableFuture<>();
-    private static String[] hashArray;
+    private final Executor executor;
+    private final PriorityBlockingQueue<PrioritizedTask> readyTasks = new PriorityBlockingQueue<>();
+    private final AtomicLong taskCount = new AtomicLong();
+    private final List<Entry> pipeline = new ArrayList<>();
+    private final Map<Mask<?, ?>, Entry> latestEntries = new IdentityHashMap<>();
+    private final CompletableFuture<List<Mask<?, ?>>> started = new CompletableFuture<>();
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private String[] hashArray;
+    private long startTime;
 
-    public static void reset() {
-        started = new CompletableFuture<>();
-        pipeline.clear();
+    public Pipeline() {
+        this(executorService);
     }
 
-    public static void add(Mask<?, ?> executingMask, List<Mask<?, ?>> maskDependencies,
-                           Consumer<List<Mask<?, ?>>> function) {
+    /**
+     * @param executor executor the entries of this pipeline are run on
+     */
+    public Pipeline(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return the pipeline bound to the calling thread or null if there is none
+     */
+    public static Pipeline current() {
+        return currentPipeline.get();
+    }
+
+    /**
+     * Runs the given action with this pipeline bound to the calling thread so that any parallel mask
+     * created by the action is added to this pipeline
+     *
+     * @param runnable action to run
+     */
+    public void runInContext(Runnable runnable) {
+        Pipeline previous = currentPipeline.get();
+        currentPipeline.set(this);
+        try {
+            runnable.run();
+        } finally {
+            if (previous == null) {
+                currentPipeline.remove();
+            } else {
+                currentPipeline.set(previous);
+            }
+        }
+    }
+
+    public void add(Mask<?, ?> executingMask, List<Mask<?, ?>> maskDependencies,
+                    Consumer<List<Mask<?, ?>>> function) {
         int index = pipeline.size();
         if (isRunning()) {
             throw new UnsupportedOperationException("Mask added after pipeline started");
@@ -50,56 +108,50 @@ public class Pipeline {
             callingLine = DebugUtil.getLastStackTraceLineAfterPackage("com.faforever.neroxis.mask");
         }
 
-        List<Entry> entryDependencies = Pipeline.getDependencyList(maskDependencies, executingMask);
+        List<Entry> entryDependencies = getDependencyList(maskDependencies, executingMask);
         String finalCallingLine = callingLine;
         String finalCallingMethod = callingMethod;
-        CompletableFuture<Void> newFuture = Pipeline.getDependencyFuture(entryDependencies)
-                                                    .thenAcceptAsync(dependencies -> {
-                                                        long startTime = System.currentTimeMillis();
-                                                        boolean visualDebug = executingMask.isVisualDebug();
-                                                        executingMask.setVisualDebug(false);
-                                                        function.accept(dependencies);
-                                                        long functionTime = System.currentTimeMillis() - startTime;
-                                                        startTime = System.currentTimeMillis();
-                                                        if (HASH_MASK) {
-                                                            try {
-                                                                hashArray[index] = String.format("%s,\t%s,\t%s,\t%s%n",
-                                                                                                 executingMask.toHash(),
-                                                                                                 finalCallingLine,
-                                                                                                 executingMask.getName(),
-                                                                                                 finalCallingMethod);
-                                                            } catch (NoSuchAlgorithmException e) {
-                                                                System.err.println("Cannot hash mask");
-                                                            }
-                                                        }
-                                                        long hashTime = System.currentTimeMillis() - startTime;
-                                                        if (DebugUtil.DEBUG) {
-                                                            System.out.printf(
-                                                                    "Entry Done: function time %4d ms; hash time %4d ms; %s(%d); %s  -> %s\n",
-                                                                    functionTime, hashTime, executingMask.getName(),
-                                                                    index, finalCallingLine, finalCallingMethod);
-                                                        }
-                                                        executingMask.setVisualDebug(visualDebug);
-                                                        if ((DebugUtil.DEBUG && visualDebug) || (DebugUtil.VISUALIZE
-                                                                                                 &&
-                                                                                                 !executingMask.isMock())) {
-                                                            VisualDebugger.visualizeMask(executingMask,
-                                                                                         finalCallingMethod,
-                                                                                         finalCallingLine);
-                                                        }
-                                                    }, executorService);
-
-        Entry entry = new Entry(index, executingMask, entryDependencies, newFuture, callingMethod, callingLine);
-
-        entry.dependencies.forEach(dependency -> dependency.dependants.add(entry));
+        Consumer<List<Mask<?, ?>>> entryFunction = dependencies -> runInContext(() -> {
+            long startTime = System.currentTimeMillis();
+            boolean visualDebug = executingMask.isVisualDebug();
+            executingMask.setVisualDebug(false);
+            function.accept(dependencies);
+            long functionTime = System.currentTimeMillis() - startTime;
+            startTime = System.currentTimeMillis();
+            if (HASH_MASK) {
+                try {
+                    hashArray[index] = String.format("%s,\t%s,\t%s,\t%s%n", executingMask.toHash(),
+                                                     finalCallingLine, executingMask.getName(),
+                                                     finalCallingMethod);
+                } catch (NoSuchAlgorithmException e) {
+                    System.err.println("Cannot hash mask");
+                }
+            }
+            long hashTime = System.currentTimeMillis() - startTime;
+            if (DebugUtil.DEBUG) {
+                System.out.printf(
+                        "Entry Done: function time %4d ms; hash time %4d ms; %s(%d); %s  -> %s\n",
+                        functionTime, hashTime, executingMask.getName(), index, finalCallingLine,
+                        finalCallingMethod);
+            }
+            executingMask.setVisualDebug(visualDebug);
+            if ((DebugUtil.DEBUG && visualDebug) || (DebugUtil.VISUALIZE && !executingMask.isMock())) {
+                VisualDebugger.visualizeMask(executingMask, finalCallingMethod, finalCallingLine);
+            }
+        });
+
+        Entry entry = new Entry(index, executingMask, entryDependencies, entryFunction, callingMethod, callingLine);
+
+        entry.dependencies.forEach(dependency -> dependency.addDependant(entry));
         pipeline.add(entry);
+        latestEntries.put(executingMask, entry);
     }
 
-    public static boolean isRunning() {
+    public boolean isRunning() {
         return started.isDone();
     }
 
-    public static List<Entry> getDependencyList(List<Mask<?, ?>> requiredMasks, Mask<?, ?> executingMask) {
+    public List<Entry> getDependencyList(List<Mask<?, ?>> requiredMasks, Mask<?, ?> executingMask) {
         requiredMasks = new ArrayList<>(requiredMasks);
         if (!requiredMasks.contains(executingMask)) {
             requiredMasks.add(executingMask);
@@ -107,11 +159,14 @@ public class Pipeline {
         return getDependencyList(requiredMasks);
     }
 
-    public static List<Entry> getDependencyList(List<Mask<?, ?>> requiredMasks) {
-        List<Entry> dependencies = new ArrayList<>();
+    public List<Entry> getDependencyList(List<Mask<?, ?>> requiredMasks) {
+        List<Entry> dependencies = new ArrayList<>(requiredMasks.size());
 
         for (Mask<?, ?> requiredMask : requiredMasks) {
-            getMostRecentEntryForMask(requiredMask).ifPresent(dependencies::add);
+            Entry entry = latestEntries.get(requiredMask);
+            if (entry != null) {
+                dependencies.add(entry);
+            }
         }
         return dependencies;
     }
@@ -122,8 +177,8 @@ public class Pipeline {
      * @param dependencyList list of dependencies
      * @return future that completes when all dependent futures are completed
      */
-    private static CompletableFuture<List<Mask<?, ?>>> getDependencyFuture(List<Entry> dependencyList) {
-        if (pipeline.isEmpty() || dependencyList.isEmpty()) {
+    private CompletableFuture<List<Mask<?, ?>>> getDependencyFuture(List<Entry> dependencyList) {
+        if (dependencyList.isEmpty()) {
             return started;
         }
 
@@ -131,26 +186,28 @@ public class Pipeline {
                                                        .map(Entry::getFuture)
                                                        .toArray(CompletableFuture<?>[]::new);
 
-        if (futures.length == 0) {
-            return started;
-        }
-
         return CompletableFuture.allOf(futures)
-                                .thenApplyAsync(aVoid -> dependencyList.stream()
-                                                                       .map(Entry::getResult)
-                                                                       .collect(Collectors.toList()), executorService);
+                                .thenApply(aVoid -> dependencyList.stream()
+                                                                  .map(Entry::getResult)
+                                                                  .collect(Collectors.toList()));
     }
 
-    public static Optional<Entry> getMostRecentEntryForMask(Mask<?, ?> mask) {
-        return pipeline.stream()
-                       .filter(entry -> mask.equals(entry.getExecutingMask()))
-                       .reduce((first, second) -> second);
+    public Optional<Entry> getMostRecentEntryForMask(Mask<?, ?> mask) {
+        return Optional.ofNullable(latestEntries.get(mask));
     }
 
-    public static void start() {
+    public void start() {
         System.out.println("Starting pipeline");
         hashArray = new String[getPipelineSize()];
 
+        // Entries are added in topological order so every dependant is already ranked when visiting an entry
+        for (Entry entry : pipeline.reversed()) {
+            entry.remainingCost = entry.estimatedCost + entry.dependants.stream()
+                                                                        .mapToLong(Entry::getRemainingCost)
+                                                                        .max()
+                                                                        .orElse(0);
+        }
+
         if (DebugUtil.DEBUG) {
             pipeline.forEach(entry -> System.out.printf(
                     "Pipeline entry: %s;\tdependencies:[%s];\tdependants:[%s];\texecuteMask %s;\tLine: %s;\t Method: %s\n",
@@ -159,26 +216,97 @@ public class Pipeline {
                     entry.getDependants().stream().map(Entry::toString).collect(Collectors.joining(", ")),
                     entry.getExecutingMask().getName(), entry.getLine(), entry.getMethodName()));
         }
+        startTime = System.nanoTime();
         started.complete(null);
     }
 
-    public static int getPipelineSize() {
+    public int getPipelineSize() {
         return pipeline.size();
     }
 
-    public static void join() {
+    /**
+     * @return the entries of the pipeline in the order they were added
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(pipeline);
+    }
+
+    private void runNextTask() {
+        // Every slot is submitted after its task was queued, so there is always a task left to run
+        PrioritizedTask task = readyTasks.poll();
+        if (task != null) {
+            task.run();
+        }
+    }
+
+    public void join() {
         pipeline.forEach(e -> e.getFuture().join());
         System.out.println("Pipeline completed!");
+        if (DebugUtil.DEBUG) {
+            long endTime = pipeline.stream().mapToLong(Entry::getEndTime).max().orElse(startTime);
+            List<Entry> criticalPath = getCriticalPath();
+            System.out.printf("Pipeline time %d ms; critical path time %d ms over %d entries\n",
+                              TimeUnit.NANOSECONDS.toMillis(endTime - startTime),
+                              TimeUnit.NANOSECONDS.toMillis(
+                                      criticalPath.stream().mapToLong(Entry::getExecutionTime).sum()),
+                              criticalPath.size());
+        }
     }
 
+    /**
+     * Waits until all operations currently enqueued for the given masks have completed.
+     * Masks that do not belong to a pipeline are ignored
+     *
+     * @param masks masks to wait for
+     */
     public static void await(Mask<?, ?>... masks) {
+        for (Mask<?, ?> mask : masks) {
+            Pipeline pipeline = mask.getPipeline();
+            if (pipeline != null && mask.isParallel()) {
+                pipeline.awaitMasks(mask);
+            }
+        }
+    }
+
+    private void awaitMasks(Mask<?, ?>... masks) {
         if (!isRunning()) {
             throw new IllegalStateException("Pipeline not started cannot await");
         }
         getDependencyList(Arrays.asList(masks)).forEach(e -> e.getFuture().join());
     }
 
-    public static void toFile(Path path) throws IOException {
+    /**
+     * Determines the chain of dependent entries with the longest measured execution time
+     *
+     * @return the entries on the critical path in execution order
+     */
+    public List<Entry> getCriticalPath() {
+        int size = pipeline.size();
+        long[] pathTimes = new long[size];
+        Entry[] previousEntries = new Entry[size];
+        Entry last = null;
+        for (Entry entry : pipeline) {
+            int index = entry.getIndex();
+            for (Entry dependency : entry.getDependencies()) {
+                if (pathTimes[dependency.getIndex()] > pathTimes[index]) {
+                    pathTimes[index] = pathTimes[dependency.getIndex()];
+                    previousEntries[index] = dependency;
+                }
+            }
+            pathTimes[index] += entry.getExecutionTime();
+            if (last == null || pathTimes[index] > pathTimes[last.getIndex()]) {
+                last = entry;
+            }
+        }
+
+        List<Entry> criticalPath = new ArrayList<>();
+        for (Entry entry = last; entry != null; entry = previousEntries[entry.getIndex()]) {
+            criticalPath.add(entry);
+        }
+        return criticalPath.reversed();
+    }
+
+    public void toFile(Path path) throws IOException {
         Files.deleteIfExists(path);
         File outFile = path.toFile();
         boolean status = outFile.createNewFile();
@@ -192,7 +320,48 @@ public class Pipeline {
         out.close();
     }
 
-    public static String[] getHashArray() {
+    /**
+     * Writes the timings of the completed pipeline in the Chrome trace event format, which can be opened with
+     * chrome://tracing or Perfetto. Every entry carries its queue wait, dependency depth and whether it is part of
+     * the critical path.
+     *
+     * @param path file to write the trace to
+     */
+    public void toTraceFile(Path path) throws IOException {
+        Set<Entry> criticalPath = Collections.newSetFromMap(new IdentityHashMap<>());
+        criticalPath.addAll(getCriticalPath());
+        Map<String, Integer> threadIds = new LinkedHashMap<>();
+        List<String> events = new ArrayList<>();
+        for (Entry entry : pipeline) {
+            int threadId = threadIds.computeIfAbsent(entry.getThreadName(), name -> threadIds.size());
+            String dependencies = entry.getDependencies()
+                                       .stream()
+                                       .map(dependency -> String.valueOf(dependency.getIndex()))
+                                       .collect(Collectors.joining(","));
+            String args = String.format(
+                    "{\"index\":%d,\"queueWait\":%d,\"depth\":%d,\"critical\":%b,\"dependencies\":[%s],\"line\":\"%s\",\"method\":\"%s\"}",
+                    entry.getIndex(), TimeUnit.NANOSECONDS.toMicros(entry.getQueueTime()), entry.getDepth(),
+                    criticalPath.contains(entry), dependencies, escapeJson(entry.getLine()),
+                    escapeJson(entry.getMethodName()));
+            events.add(String.format(
+                    "{\"name\":\"%s\",\"cat\":\"%s\",\"ph\":\"X\",\"ts\":%d,\"dur\":%d,\"pid\":0,\"tid\":%d,\"args\":%s}",
+                    escapeJson(entry.getExecutingMask().getName()),
+                    entry.getExecutingMask().getClass().getSimpleName(),
+                    TimeUnit.NANOSECONDS.toMicros(entry.getStartTime() - startTime),
+                    TimeUnit.NANOSECONDS.toMicros(entry.getExecutionTime()), threadId, args));
+        }
+        threadIds.forEach((name, id) -> events.add(String.format(
+                "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":0,\"tid\":%d,\"args\":{\"name\":\"%s\"}}", id,
+                escapeJson(name))));
+
+        Files.writeString(path, events.stream().collect(Collectors.joining(",\n", "{\"traceEvents\":[\n", "\n]}\n")));
+    }
+
+    private static String escapeJson(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    public String[] getHashArray() {
         return hashArray.clone();
     }
 
@@ -200,43 +369,75 @@ public class Pipeline {
         executorService.shutdown();
     }
 
-    private static void abort() {
-        executorService.shutdownNow();
-    }
-
     @Getter
-    public static class Entry {
+    public class Entry {
         private final Mask<?, ?> executingMask;
-        private final Set<Entry> dependencies = new HashSet<>();
+        private final List<Entry> dependencies;
         private final CompletableFuture<Void> future;
-        private final Set<Entry> dependants = new HashSet<>();
+        private final List<Entry> dependants = new ArrayList<>(2);
         private final int index;
+        private final int depth;
+        private final long estimatedCost;
         private final String methodName;
         private final String line;
+        private boolean usedByOtherMasks;
         private Mask<?, ?> immutableResult;
+        /**
+         * Estimated cost of the most expensive chain of entries from this entry to the end of the pipeline. The cost
+         * of a single entry is estimated as the planned area of its mask, since nearly every mask operation is one
+         * pass over the pixels. The estimate is only compared within this pipeline
+         */
+        private long remainingCost;
+        private long readyTime;
+        private long startTime;
+        private long endTime;
+        private String threadName;
 
-        public Entry(int index, Mask<?, ?> executingMask, Collection<Entry> dependencies,
-                     CompletableFuture<Void> future, String method, String line) {
+        private Entry(int index, Mask<?, ?> executingMask, Collection<Entry> dependencies,
+                      Consumer<List<Mask<?, ?>>> function, String method, String line) {
             this.index = index;
             this.executingMask = executingMask;
-            this.dependencies.addAll(dependencies);
+            this.dependencies = List.copyOf(dependencies);
             this.methodName = method;
             this.line = line;
-            this.future = future.thenRunAsync(() -> {
-                if (!executingMask.isMock() && dependants.stream()
-                                                         .anyMatch(entry -> !entry.getExecutingMask()
-                                                                                  .equals(executingMask))) {
+            this.depth = this.dependencies.stream().mapToInt(dependency -> dependency.depth + 1).max().orElse(0);
+            int size = executingMask.getSize();
+            this.estimatedCost = (long) size * size;
+            this.future = getDependencyFuture(this.dependencies).thenAcceptAsync(maskDependencies -> {
+                startTime = System.nanoTime();
+                threadName = Thread.currentThread().getName();
+                function.accept(maskDependencies);
+                endTime = System.nanoTime();
+                if (!executingMask.isMock() && usedByOtherMasks) {
                     immutableResult = executingMask.immutableCopy();
                 } else {
                     immutableResult = executingMask;
                 }
-            }).exceptionally(throwable -> {
-                throwable.printStackTrace();
-                shutdown();
-                return null;
+            }, this::schedule).whenComplete((ignored, throwable) -> {
+                // Failures propagate to every dependant so only report the first one of this pipeline
+                if (throwable != null && !failed.getAndSet(true)) {
+                    throwable.printStackTrace();
+                }
             });
         }
 
+        private void schedule(Runnable runnable) {
+            readyTime = System.nanoTime();
+            readyTasks.add(new PrioritizedTask(runnable, remainingCost, taskCount.getAndIncrement()));
+            executor.execute(Pipeline.this::runNextTask);
+        }
+
+        private void addDependant(Entry dependant) {
+            // The same entry can appear several times in one dependency list, which always attaches it back to back
+            if (!dependants.isEmpty() && dependants.getLast() == dependant) {
+                return;
+            }
+            dependants.add(dependant);
+            if (dependant.executingMask != executingMask) {
+                usedByOtherMasks = true;
+            }
+        }
+
         public Mask<?, ?> getResult() {
             if (!future.isDone()) {
                 throw new IllegalStateException("Entry not done computing");
@@ -244,8 +445,36 @@ public class Pipeline {
             return immutableResult;
         }
 
+        /**
+         * @return time between all dependencies being done and the entry starting to execute in nanoseconds
+         */
+        public long getQueueTime() {
+            return startTime - readyTime;
+        }
+
+        /**
+         * @return time spent executing the entry in nanoseconds
+         */
+        public long getExecutionTime() {
+            return endTime - startTime;
+        }
+
         public String toString() {
             return String.format("%s(%d)", executingMask.getName(), index);
         }
     }
+
+    private record PrioritizedTask(Runnable runnable, long priority, long sequence) implements Runnable,
+                                                                                          Comparable<PrioritizedTask> {
+        @Override
+        public void run() {
+            runnable.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            int comparison = Long.compare(other.priority, priority);
+            return comparison != 0 ? comparison : Long.compare(sequence, other.sequence);
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package com.faforever.neroxis.util;
+
+/**
+ * Filtered resampling of square row major arrays where pixel {@code (x, y)} is stored at {@code x * size + y}.
+ * Both filters are separable and map pixel centers onto pixel centers, so an array which is symmetric about its
+ * center stays symmetric up to rounding.
+ */
+public class ResampleUtil {
+    /**
+     * Shrink the values with a box filter, every new pixel is the area weighted average of the pixels it covers
+     *
+     * @param values  row major values to shrink
+     * @param size    side length of the square array
+     * @param newSize side length of the shrunk array, at most {@code size}
+     * @return the shrunk values
+     */
+    public static float[] areaAverage(float[] values, int size, int newSize) {
+        if (newSize > size) {
+            throw new IllegalArgumentException("New size %d is larger than size %d".formatted(newSize, size));
+        }
+
+        return resample(values, size, newSize, getAreaWeights(size, newSize));
+    }
+
+    /**
+     * Grow the values with bilinear interpolation, new pixels past the outer pixel centers repeat the edge
+     *
+     * @param values  row major values to grow
+     * @param size    side length of the square array
+     * @param newSize side length of the grown array, at least {@code size}
+     * @return the grown values
+     */
+    public static float[] bilinear(float[] values, int size, int newSize) {
+        if (newSize < size) {
+            throw new IllegalArgumentException("New size %d is smaller than size %d".formatted(newSize, size));
+        }
+
+        return resample(values, size, newSize, getLinearWeights(size, newSize));
+    }
+
+    private static float[] resample(float[] values, int size, int newSize, Weights weights) {
+        // Filter the columns of every row first and then combine whole filtered rows
+        float[] rows = new float[size * newSize];
+        for (int x = 0; x < size; x++) {
+            int rowStart = x * size;
+            int newRowStart = x * newSize;
+            for (int y = 0; y < newSize; y++) {
+                float sum = 0;
+                for (int i = weights.starts[y]; i < weights.starts[y + 1]; i++) {
+                    sum += weights.weights[i] * values[rowStart + weights.indices[i]];
+                }
+                rows[newRowStart + y] = sum;
+            }
+        }
+
+        float[] resampled = new float[newSize * newSize];
+        for (int x = 0; x < newSize; x++) {
+            int newRowStart = x * newSize;
+            for (int i = weights.starts[x]; i < weights.starts[x + 1]; i++) {
+                float weight = weights.weights[i];
+                int rowStart = weights.indices[i] * newSize;
+                for (int y = 0; y < newSize; y++) {
+                    resampled[newRowStart + y] += weight * rows[rowStart + y];
+                }
+            }
+        }
+        return resampled;
+    }
+
+    private static Weights getAreaWeights(int size, int newSize) {
+        double scale = (double) size / newSize;
+        // A new pixel covers at most the ceiling of the scale plus one partially covered pixel
+        Weights weights = new Weights(newSize, newSize * ((int) StrictMath.ceil(scale) + 1));
+        int count = 0;
+        for (int i = 0; i < newSize; i++) {
+            double start = i * scale;
+            double end = (i + 1) * scale;
+            weights.starts[i] = count;
+            for (int index = (int) start; index < StrictMath.min(StrictMath.ceil(end), size); index++) {
+                double coverage = StrictMath.min(end, index + 1) - StrictMath.max(start, index);
+                if (coverage > 0) {
+                    weights.indices[count] = index;
+                    weights.weights[count] = (float) (coverage / scale);
+                    count++;
+                }
+            }
+        }
+        weights.starts[newSize] = count;
+        return weights;
+    }
+
+    private static Weights getLinearWeights(int size, int newSize) {
+        double scale = (double) size / newSize;
+        Weights weights = new Weights(newSize, newSize * 2);
+        for (int i = 0; i < newSize; i++) {
+            double position = StrictMath.min(StrictMath.max((i + .5) * scale - .5, 0), size - 1);
+            int index = (int) position;
+            float fraction = (float) (position - index);
+            weights.starts[i] = 2 * i;
+            weights.indices[2 * i] = index;
+            weights.weights[2 * i] = 1 - fraction;
+            weights.indices[2 * i + 1] = StrictMath.min(index + 1, size - 1);
+            weights.weights[2 * i + 1] = fraction;
+        }
+        weights.starts[newSize] = 2 * newSize;
+        return weights;
+    }
+
+    /**
+     * Source indices and weights contributing to every new index, those of new index {@code i} are stored from
+     * {@code starts[i]} up to {@code starts[i + 1]}
+     */
+    private static final class Weights {
+        private final int[] starts;
+        private final int[] indices;
+        private final float[] weights;
+
+        private Weights(int newSize, int capacity) {
+            starts = new int[newSize + 1];
+            indices = new int[capacity];
+            weights = new float[capacity];
+        }
+    }
+}
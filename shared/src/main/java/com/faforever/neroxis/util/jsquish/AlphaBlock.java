@@ -29,16 +29,15 @@ import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 final class AlphaBlock {
-    private static final int[] swapped = new int[16];
-    private static final int[] CODES_5 = new int[8];
-    private static final int[] CODES_7 = new int[8];
-    private static final int[] INDICES_5 = new int[16];
-    private static final int[] INDICES_7 = new int[16];
-    private static final int[] CODES = new int[8];
-    private static final int[] INDICES = new int[16];
-
-    private AlphaBlock() {
-    }
+    // 7-alpha indices ordered from the largest to the smallest code
+    private static final int[] ORDERED_INDICES_7 = {0, 2, 3, 4, 5, 6, 7, 1};
+    private final int[] swapped = new int[16];
+    private final int[] codes5 = new int[8];
+    private final int[] codes7 = new int[8];
+    private final int[] indices5 = new int[16];
+    private final int[] indices7 = new int[16];
+    private final int[] codes = new int[8];
+    private final int[] indices = new int[16];
 
     static void compressAlphaDxt3(final byte[] rgba, final int mask, final byte[] block, final int offset) {
         // quantise and pack the alpha values pairwise
@@ -80,7 +79,7 @@ final class AlphaBlock {
         }
     }
 
-    static void compressAlphaDxt5(final byte[] rgba, final int mask, final byte[] block, final int offset) {
+    void compressAlphaDxt5(final byte[] rgba, final int mask, final byte[] block, final int offset) {
         // get the range for 5-alpha and 7-alpha interpolation
         int min5 = 255;
         int max5 = 0;
@@ -133,7 +132,7 @@ final class AlphaBlock {
         }
 
         // set up the 5-alpha code book
-        final int[] codes5 = AlphaBlock.CODES_5;
+        final int[] codes5 = this.codes5;
 
         codes5[0] = min5;
         codes5[1] = max5;
@@ -144,7 +143,7 @@ final class AlphaBlock {
         codes5[7] = 255;
 
         // set up the 7-alpha code book
-        final int[] codes7 = AlphaBlock.CODES_7;
+        final int[] codes7 = this.codes7;
 
         codes7[0] = min7;
         codes7[1] = max7;
@@ -153,15 +152,48 @@ final class AlphaBlock {
         }
 
         // fit the data to both code books
-        int err5 = fitCodes(rgba, mask, codes5, INDICES_5);
-        int err7 = fitCodes(rgba, mask, codes7, INDICES_7);
+        int err5 = fitCodes(rgba, mask, codes5, indices5);
+        int err7 = fitCodes(rgba, mask, codes7, indices7);
 
         // save the block with least error
         if (err5 <= err7) {
-            writeAlphaBlock5(min5, max5, INDICES_5, block, offset);
+            writeAlphaBlock5(min5, max5, indices5, block, offset);
         } else {
-            writeAlphaBlock7(min7, max7, INDICES_7, block, offset);
+            writeAlphaBlock7(min7, max7, indices7, block, offset);
+        }
+    }
+
+    /**
+     * Single pass alternative to {@link #compressAlphaDxt5} always using the 7-alpha code book spanning the alpha
+     * range, with each index looked up from the step of the value within that range
+     */
+    void compressAlphaDxt5BoundingBox(final byte[] rgba, final int mask, final byte[] block, final int offset) {
+        // get the range of the valid pixels
+        int min = 255;
+        int max = 0;
+        for (int i = 0; i < 16; ++i) {
+            if ((mask & (1 << i)) != 0) {
+                final int value = (rgba[4 * i + 3] & 0xFF);
+                min = min(min, value);
+                max = max(max, value);
+            }
         }
+
+        // look up the index of the step closest to each value, masked pixels and flat blocks use the first code
+        final int[] indices = this.indices7;
+        final int range = max - min;
+        for (int i = 0; i < 16; ++i) {
+            if ((mask & (1 << i)) == 0 || range == 0) {
+                indices[i] = 0;
+                continue;
+            }
+
+            final int value = (rgba[4 * i + 3] & 0xFF);
+            indices[i] = ORDERED_INDICES_7[((max - value) * 7 + range / 2) / range];
+        }
+
+        // write the larger alpha first to select the 7-alpha code book
+        writeAlphaBlock(max, min, indices, block, offset);
     }
 
     private static int fitCodes(final byte[] rgba, final int mask, final int[] codes, final int[] indices) {
@@ -201,10 +233,10 @@ final class AlphaBlock {
         return err;
     }
 
-    private static void writeAlphaBlock5(final int alpha0, final int alpha1, final int[] indices, final byte[] block,
+    private void writeAlphaBlock5(final int alpha0, final int alpha1, final int[] indices, final byte[] block,
                                          final int offset) {
         // check the relative values of the endpoints
-        final int[] swapped = AlphaBlock.swapped;
+        final int[] swapped = this.swapped;
 
         if (alpha0 > alpha1) {
             // swap the indices
@@ -253,10 +285,10 @@ final class AlphaBlock {
         }
     }
 
-    private static void writeAlphaBlock7(final int alpha0, final int alpha1, final int[] indices, final byte[] block,
+    private void writeAlphaBlock7(final int alpha0, final int alpha1, final int[] indices, final byte[] block,
                                          final int offset) {
         // check the relative values of the endpoints
-        final int[] swapped = AlphaBlock.swapped;
+        final int[] swapped = this.swapped;
 
         if (alpha0 < alpha1) {
             // swap the indices
@@ -279,13 +311,13 @@ final class AlphaBlock {
         }
     }
 
-    static void decompressAlphaDxt5(final byte[] rgba, final byte[] block, final int offset) {
+    void decompressAlphaDxt5(final byte[] rgba, final byte[] block, final int offset) {
         // get the two alpha values
         final int alpha0 = block[offset] & 0xFF;
         final int alpha1 = block[offset + 1] & 0xFF;
 
         // compare the values to build the codebook
-        final int[] codes = AlphaBlock.CODES;
+        final int[] codes = this.codes;
 
         codes[0] = alpha0;
         codes[1] = alpha1;
@@ -304,7 +336,7 @@ final class AlphaBlock {
         }
 
         // decode the indices
-        final int[] indices = AlphaBlock.INDICES;
+        final int[] indices = this.indices;
 
         int src = 2;
         int dest = 0;
@@ -0,0 +1,81 @@
+/* -----------------------------------------------------------------------------
+
+	Copyright (c) 2006 Simon Brown                          si@sjbrown.co.uk
+
+	Permission is hereby granted, free of charge, to any person obtaining
+	a copy of this software and associated documentation files (the
+	"Software"), to	deal in the Software without restriction, including
+	without limitation the rights to use, copy, modify, merge, publish,
+	distribute, sublicense, and/or sell copies of the Software, and to
+	permit persons to whom the Software is furnished to do so, subject to
+	the following conditions:
+
+	The above copyright notice and this permission notice shall be included
+	in all copies or substantial portions of the Software.
+
+	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+	OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+	MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+	IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+	CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+	TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+	SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+   -------------------------------------------------------------------------- */
+
+package com.faforever.neroxis.util.jsquish;
+
+import com.faforever.neroxis.util.jsquish.Squish.CompressionMethod;
+import com.faforever.neroxis.util.jsquish.Squish.CompressionMetric;
+import com.faforever.neroxis.util.jsquish.Squish.CompressionType;
+
+/**
+ * Compresses single 4x4 blocks, reusing the colour set, fits and alpha code books between blocks. Instances are not
+ * thread safe, every thread compressing blocks needs its own.
+ */
+final class BlockCompressor {
+    private final CompressionType type;
+    private final boolean weightAlpha;
+    private final boolean boundingBoxFit;
+    private final ColourSet colours = new ColourSet();
+    private final ColourBlock colourBlock = new ColourBlock();
+    private final AlphaBlock alphaBlock = new AlphaBlock();
+    private final CompressorColourFit singleColourFit;
+    private final CompressorColourFit colourFit;
+
+    BlockCompressor(final CompressionType type, final CompressionMethod method, final CompressionMetric metric,
+                    final boolean weightAlpha) {
+        this.type = type;
+        this.weightAlpha = weightAlpha;
+        boundingBoxFit = method == CompressionMethod.BOUNDING_BOX_FIT;
+        singleColourFit = new CompressorSingleColour(colours, colourBlock, type);
+        colourFit = method.getCompressor(colours, colourBlock, type, metric);
+    }
+
+    void compress(final byte[] rgba, final int mask, final byte[] block, final int offset) {
+        // get the block locations
+        final int colourBlockOffset = offset + type.blockOffset;
+
+        // create the minimal point set
+        colours.init(rgba, mask, type, weightAlpha, !boundingBoxFit);
+
+        // check the compression type and compress colour
+        final CompressorColourFit fit;
+        if (colours.getCount() == 1) { // always do a single colour fit
+            fit = singleColourFit;
+        } else {
+            fit = colourFit;
+        }
+        fit.init();
+        fit.compress(block, colourBlockOffset);
+
+        // compress alpha separately if necessary
+        if (type == CompressionType.DXT3) {
+            AlphaBlock.compressAlphaDxt3(rgba, mask, block, offset);
+        } else if (type == CompressionType.DXT5 && boundingBoxFit) {
+            alphaBlock.compressAlphaDxt5BoundingBox(rgba, mask, block, offset);
+        } else if (type == CompressionType.DXT5) {
+            alphaBlock.compressAlphaDxt5(rgba, mask, block, offset);
+        }
+    }
+}
@@ -33,19 +33,16 @@ import static com.faforever.neroxis.util.jsquish.CompressorColourFit.GRID_Z;
 import static java.lang.Math.round;
 
 final class ColourBlock {
-    private static final int[] remapped = new int[16];
-    private static final int[] indices = new int[16];
-    private static final int[] codes = new int[16];
-
-    private ColourBlock() {
-    }
+    private final int[] remapped = new int[16];
+    private final int[] indices = new int[16];
+    private final int[] codes = new int[16];
 
     static int gammaColour(final float colour, final float scale) {
         //return round(scale * (float)Math.pow(colour, 1.0 / 2.2));
         return round(scale * colour);
     }
 
-    static void writeColourBlock3(final Vec start, final Vec end, final int[] indices, final byte[] block,
+    void writeColourBlock3(final Vec start, final Vec end, final int[] indices, final byte[] block,
                                   final int offset) {
         // get the packed values
         int a = floatTo565(start);
@@ -102,7 +99,7 @@ final class ColourBlock {
         }
     }
 
-    static void writeColourBlock4(final Vec start, final Vec end, final int[] indices, final byte[] block,
+    void writeColourBlock4(final Vec start, final Vec end, final int[] indices, final byte[] block,
                                   final int offset) {
         // get the packed values
         int a = floatTo565(start);
@@ -130,33 +127,34 @@ final class ColourBlock {
         writeColourBlock(a, b, remapped, block, offset);
     }
 
-    static void decompressColour(final byte[] rgba, final byte[] block, final int offset, final boolean isDXT1) {
+    void decompressColour(final byte[] rgba, final byte[] block, final int offset, final boolean isDXT1) {
         // unpack the endpoints
-        final int[] codes = ColourBlock.codes;
+        final int[] codes = this.codes;
 
         final int color0 = unpack565(block, offset, codes, 0);
         final int color1 = unpack565(block, offset + 2, codes, 4);
 
-        // generate the midpoints
-        final int color2;
-        final int color3;
-
-        if (color0 <= color1) {
-            color2 = (color0 + color1) / 2;
-            color3 = 0;
-        } else {
-            color2 = (2 * color0 + color1) / 3;
-            color3 = (color0 + 2 * color1) / 3;
+        // generate the midpoints per channel, only dxt1 has the three colour mode
+        final boolean threeColours = isDXT1 && color0 <= color1;
+        for (int i = 0; i < 3; ++i) {
+            final int c = codes[i];
+            final int d = codes[4 + i];
+
+            if (threeColours) {
+                codes[8 + i] = (c + d) / 2;
+                codes[12 + i] = 0;
+            } else {
+                codes[8 + i] = (2 * c + d) / 3;
+                codes[12 + i] = (c + 2 * d) / 3;
+            }
         }
 
-        unpack565(color2, codes, 8);
-        unpack565(color3, codes, 12);
-
         // fill in alpha for the intermediate values
-        codes[12 + 3] = (color0 <= color1) ? 0 : 255;
+        codes[8 + 3] = 255;
+        codes[12 + 3] = threeColours ? 0 : 255;
 
         // unpack the indices
-        final int[] indices = ColourBlock.indices;
+        final int[] indices = this.indices;
 
         for (int i = 0; i < 4; ++i) {
             final int index = 4 * i;
@@ -195,18 +193,4 @@ final class ColourBlock {
         // return the value
         return value;
     }
-
-    private static void unpack565(final int value, final int[] colour, final int cOffset) {
-
-        // get the components in the stored range
-        int red = (value >> 11) & 0x1f;
-        int green = (value >> 5) & 0x3f;
-        int blue = value & 0x1f;
-
-        // scale up to 8 bits
-        colour[cOffset] = (red << 3) | (red >> 2);
-        colour[cOffset + 1] = (green << 2) | (green >> 4);
-        colour[cOffset + 2] = (blue << 3) | (blue >> 2);
-        colour[cOffset + 3] = 255;
-    }
-}
\ No newline at end of file
+}
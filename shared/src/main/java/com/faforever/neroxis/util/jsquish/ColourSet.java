@@ -31,6 +31,8 @@ final class ColourSet {
     private final Vec[] points = new Vec[16];
     private final float[] weights = new float[16];
     private final int[] remap = new int[16];
+    // packed rgb of each pixel to find repeated colours
+    private final int[] colours = new int[16];
     private int count;
     private boolean transparent;
 
@@ -40,7 +42,12 @@ final class ColourSet {
         }
     }
 
-    void init(final byte[] rgba, final int mask, final CompressionType type, final boolean weightAlpha) {
+    /**
+     * @param mergeAllRepeats whether every repeated colour becomes a single point, otherwise only repeats of the
+     *                        first colour are merged which is enough to find single colour blocks
+     */
+    void init(final byte[] rgba, final int mask, final CompressionType type, final boolean weightAlpha,
+              final boolean mergeAllRepeats) {
         // check the compression mode for dxt1
         final boolean isDXT1 = type == CompressionType.DXT1;
 
@@ -63,44 +70,44 @@ final class ColourSet {
                 continue;
             }
 
-            // loop over previous points for a match
-            for (int j = 0; ; ++j) {
-                // allocate a new point
-                if (j == i) {
-                    // normalise coordinates to [0,1]
-                    final float r = (rgba[4 * i] & 0xFF) / 255.0f;
-                    final float g = (rgba[4 * i + 1] & 0xFF) / 255.0f;
-                    final float b = (rgba[4 * i + 2] & 0xFF) / 255.0f;
-
-                    // add the point
-                    points[count].set(r, g, b);
-                    // ensure there is always non-zero weight even for zero alpha
-                    weights[count] = (weightAlpha ? ((rgba[4 * i + 3] & 0xFF) + 1) / 256.0f : 1.0f);
-                    remap[i] = count++; // advance
-                    break;
+            // loop over previous points for a match, dxt1 never merges points
+            final int colour = (rgba[4 * i] & 0xFF) | (rgba[4 * i + 1] & 0xFF) << 8 | (rgba[4 * i + 2] & 0xFF) << 16;
+            colours[i] = colour;
+            int match = -1;
+            if (!isDXT1 && !mergeAllRepeats) {
+                final int first = Integer.numberOfTrailingZeros(mask);
+                if (first < i && colours[first] == colour) {
+                    match = first;
                 }
-
-                // check for a match
-                final int oldBit = 1 << j;
-                final boolean match = (mask & oldBit) != 0
-                                      && rgba[4 * i] == rgba[4 * j]
-                                      && rgba[4 * i + 1] == rgba[4
-                                                                 * j
-                                                                 + 1]
-                                      && rgba[4 * i + 2] == rgba[4 * j + 2]
-                                      && !isDXT1;
-
-                if (match) {
-                    // get the index of the match
-                    final int index = remap[j];
-
-                    // ensure there is always non-zero weight even for zero alpha
-                    // map to this point and increase the weight
-                    weights[index] += (weightAlpha ? ((rgba[4 * i + 3] & 0xFF) + 1) / 256.0f : 1.0f);
-                    remap[i] = index;
-                    break;
+            } else if (!isDXT1) {
+                for (int j = 0; j < i; ++j) {
+                    if ((mask & (1 << j)) != 0 && colours[j] == colour) {
+                        match = j;
+                        break;
+                    }
                 }
             }
+
+            if (match == -1) {
+                // normalise coordinates to [0,1]
+                final float r = (rgba[4 * i] & 0xFF) / 255.0f;
+                final float g = (rgba[4 * i + 1] & 0xFF) / 255.0f;
+                final float b = (rgba[4 * i + 2] & 0xFF) / 255.0f;
+
+                // add the point
+                points[count].set(r, g, b);
+                // ensure there is always non-zero weight even for zero alpha
+                weights[count] = (weightAlpha ? ((rgba[4 * i + 3] & 0xFF) + 1) / 256.0f : 1.0f);
+                remap[i] = count++; // advance
+            } else {
+                // get the index of the match
+                final int index = remap[match];
+
+                // ensure there is always non-zero weight even for zero alpha
+                // map to this point and increase the weight
+                weights[index] += (weightAlpha ? ((rgba[4 * i + 3] & 0xFF) + 1) / 256.0f : 1.0f);
+                remap[i] = index;
+            }
         }
     }
 
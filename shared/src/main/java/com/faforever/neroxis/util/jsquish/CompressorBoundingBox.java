@@ -0,0 +1,146 @@
+/* -----------------------------------------------------------------------------
+
+	Copyright (c) 2006 Simon Brown                          si@sjbrown.co.uk
+
+	Permission is hereby granted, free of charge, to any person obtaining
+	a copy of this software and associated documentation files (the
+	"Software"), to	deal in the Software without restriction, including
+	without limitation the rights to use, copy, modify, merge, publish,
+	distribute, sublicense, and/or sell copies of the Software, and to
+	permit persons to whom the Software is furnished to do so, subject to
+	the following conditions:
+
+	The above copyright notice and this permission notice shall be included
+	in all copies or substantial portions of the Software.
+
+	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+	OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+	MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+	IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+	CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+	TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+	SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+   -------------------------------------------------------------------------- */
+
+package com.faforever.neroxis.util.jsquish;
+
+import com.faforever.neroxis.util.jsquish.Squish.CompressionType;
+
+/**
+ * Single pass fit using opposite corners of the colour bounding box, inset slightly, as the endpoints. Each point is
+ * projected onto the line between the endpoints and the index is looked up from its step along that line. Much
+ * faster than the least squares fits at a lower quality.
+ */
+final class CompressorBoundingBox extends CompressorColourFit {
+    // inset the bounding box by 1/16th of its extent to counter the bias of the corners towards outliers
+    private static final float INSET = 1.0f / 16.0f;
+    // indices of the codes ordered from start to end
+    private static final int[] ORDERED_INDICES_3 = {0, 2, 1};
+    private static final int[] ORDERED_INDICES_4 = {0, 2, 3, 1};
+    private final int[] closest = new int[16];
+    private final int[] indices = new int[16];
+    private final Vec start = new Vec();
+    private final Vec end = new Vec();
+
+    CompressorBoundingBox(final ColourSet colours, final ColourBlock colourBlock, final CompressionType type) {
+        super(colours, colourBlock, type);
+    }
+
+    @Override
+    void init() {
+        // fully transparent blocks have no points and keep the zero endpoints
+        start.set(0.0f);
+        end.set(0.0f);
+
+        final int count = colours.getCount();
+        final Vec[] points = colours.getPoints();
+        if (count == 0) {
+            return;
+        }
+
+        // compute the bounding box
+        float minX = 1.0f, minY = 1.0f, minZ = 1.0f;
+        float maxX = 0.0f, maxY = 0.0f, maxZ = 0.0f;
+        for (int i = 0; i < count; ++i) {
+            final Vec p = points[i];
+            minX = Math.min(minX, p.x());
+            minY = Math.min(minY, p.y());
+            minZ = Math.min(minZ, p.z());
+            maxX = Math.max(maxX, p.x());
+            maxY = Math.max(maxY, p.y());
+            maxZ = Math.max(maxZ, p.z());
+        }
+
+        // pick the diagonal of the box following the sign of the covariance of red and blue with green
+        final float centreX = (minX + maxX) * 0.5f;
+        final float centreY = (minY + maxY) * 0.5f;
+        final float centreZ = (minZ + maxZ) * 0.5f;
+        float covarianceXY = 0.0f;
+        float covarianceZY = 0.0f;
+        for (int i = 0; i < count; ++i) {
+            final Vec p = points[i];
+            final float y = p.y() - centreY;
+            covarianceXY += (p.x() - centreX) * y;
+            covarianceZY += (p.z() - centreZ) * y;
+        }
+
+        // inset the corners and clamp them to the grid, the larger green first so four colour blocks rarely swap
+        final float insetX = (maxX - minX) * INSET;
+        final float insetY = (maxY - minY) * INSET;
+        final float insetZ = (maxZ - minZ) * INSET;
+        final float startX = covarianceXY < 0.0f ? minX + insetX : maxX - insetX;
+        final float endX = covarianceXY < 0.0f ? maxX - insetX : minX + insetX;
+        final float startZ = covarianceZY < 0.0f ? minZ + insetZ : maxZ - insetZ;
+        final float endZ = covarianceZY < 0.0f ? maxZ - insetZ : minZ + insetZ;
+        start.set(clamp(startX, GRID_X, GRID_X_RCP), clamp(maxY - insetY, GRID_Y, GRID_Y_RCP),
+                  clamp(startZ, GRID_Z, GRID_Z_RCP));
+        end.set(clamp(endX, GRID_X, GRID_X_RCP), clamp(minY + insetY, GRID_Y, GRID_Y_RCP),
+                clamp(endZ, GRID_Z, GRID_Z_RCP));
+    }
+
+    @Override
+    void compress(final byte[] block, final int offset) {
+        // there is nothing to gain from trying both codebooks without a least squares error to compare
+        if (type == CompressionType.DXT1 && colours.isTransparent()) {
+            compress3(block, offset);
+        } else {
+            compress4(block, offset);
+        }
+    }
+
+    @Override
+    void compress3(final byte[] block, final int offset) {
+        fitIndices(ORDERED_INDICES_3);
+        colourBlock.writeColourBlock3(start, end, indices, block, offset);
+    }
+
+    @Override
+    void compress4(final byte[] block, final int offset) {
+        fitIndices(ORDERED_INDICES_4);
+        colourBlock.writeColourBlock4(start, end, indices, block, offset);
+    }
+
+    private void fitIndices(final int[] orderedIndices) {
+        final int count = colours.getCount();
+        final Vec[] points = colours.getPoints();
+        final int steps = orderedIndices.length - 1;
+
+        // project onto the line from start to end
+        final float dirX = end.x() - start.x();
+        final float dirY = end.y() - start.y();
+        final float dirZ = end.z() - start.z();
+        final float lengthSQ = dirX * dirX + dirY * dirY + dirZ * dirZ;
+        final float scale = lengthSQ > 0.0f ? steps / lengthSQ : 0.0f;
+        for (int i = 0; i < count; ++i) {
+            final Vec p = points[i];
+            final float t = ((p.x() - start.x()) * dirX + (p.y() - start.y()) * dirY + (p.z() - start.z()) * dirZ)
+                            * scale;
+            final int step = Math.min(Math.max((int) (t + 0.5f), 0), steps);
+            closest[i] = orderedIndices[step];
+        }
+
+        // remap the indices
+        colours.remapIndices(closest, indices);
+    }
+}
@@ -36,12 +36,15 @@ abstract class CompressorColourFit {
     protected static final float GRID_X_RCP = 1.0f / GRID_X;
     protected static final float GRID_Y_RCP = 1.0f / GRID_Y;
     protected static final float GRID_Z_RCP = 1.0f / GRID_Z;
-    protected static final Matrix covariance = new Matrix();
+    protected final Matrix covariance = new Matrix();
     protected final ColourSet colours;
+    protected final ColourBlock colourBlock;
     protected final CompressionType type;
 
-    protected CompressorColourFit(final ColourSet colours, final CompressionType type) {
+    protected CompressorColourFit(final ColourSet colours, final ColourBlock colourBlock,
+                                  final CompressionType type) {
         this.colours = colours;
+        this.colourBlock = colourBlock;
         this.type = type;
     }
 
@@ -66,6 +69,11 @@ abstract class CompressorColourFit {
         }
     }
 
+    /**
+     * Prepare the fit for the block currently held by the colour set
+     */
+    abstract void init();
+
     abstract void compress3(byte[] block, int offset);
 
     abstract void compress4(byte[] block, int offset);
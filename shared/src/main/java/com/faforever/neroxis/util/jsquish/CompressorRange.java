@@ -29,36 +29,41 @@ import com.faforever.neroxis.util.jsquish.Squish.CompressionMetric;
 import com.faforever.neroxis.util.jsquish.Squish.CompressionType;
 
 final class CompressorRange extends CompressorColourFit {
-    private static final int[] closest = new int[16];
-    private static final int[] indices = new int[16];
-    private static final Vec[] codes = new Vec[4];
-
-    static {
-        for (int i = 0; i < codes.length; i++) {
-            codes[i] = new Vec();
-        }
-    }
-
+    private final int[] closest = new int[16];
+    private final int[] indices = new int[16];
+    private final Vec[] codes = new Vec[4];
     private final CompressionMetric metric;
     private final Vec start = new Vec();
     private final Vec end = new Vec();
     private float bestError;
 
-    CompressorRange(final ColourSet colours, final CompressionType type, final CompressionMetric metric) {
-        super(colours, type);
+    CompressorRange(final ColourSet colours, final ColourBlock colourBlock, final CompressionType type,
+                    final CompressionMetric metric) {
+        super(colours, colourBlock, type);
 
         // initialise the metric
         this.metric = metric;
 
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = new Vec();
+        }
+    }
+
+    @Override
+    void init() {
         // initialise the best error
         bestError = Float.MAX_VALUE;
 
+        // fully transparent blocks have no points and keep the zero endpoints
+        start.set(0.0f);
+        end.set(0.0f);
+
         // cache some values
         final int count = this.colours.getCount();
         final Vec[] points = this.colours.getPoints();
 
         // get the covariance matrix
-        final Matrix covariance = Matrix.computeWeightedCovariance(colours, CompressorColourFit.covariance);
+        final Matrix covariance = Matrix.computeWeightedCovariance(colours, this.covariance);
 
         // compute the principle component
         final Vec principle = Matrix.computePrincipleComponent(covariance);
@@ -118,13 +123,13 @@ final class CompressorRange extends CompressorColourFit {
         final Vec v = new Vec();
 
         // create a codebook
-        final Vec[] codes = CompressorRange.codes;
+        final Vec[] codes = this.codes;
         codes[0].set(start);
         codes[1].set(end);
         codes[2].set(start).add(end).mul(0.5f);
 
         // match each point to the closest code
-        final int[] closest = CompressorRange.closest;
+        final int[] closest = this.closest;
         float error = 0.0f;
         for (int i = 0; i < count; ++i) {
             final Vec p = points[i];
@@ -155,7 +160,7 @@ final class CompressorRange extends CompressorColourFit {
             colours.remapIndices(closest, indices);
 
             // save the block
-            ColourBlock.writeColourBlock3(start, end, indices, block, offset);
+            colourBlock.writeColourBlock3(start, end, indices, block, offset);
 
             // save the error
             bestError = error;
@@ -171,14 +176,14 @@ final class CompressorRange extends CompressorColourFit {
         final Vec v = new Vec();
 
         // create a codebook
-        final Vec[] codes = CompressorRange.codes;
+        final Vec[] codes = this.codes;
         codes[0].set(start);
         codes[1].set(end);
         codes[2].set(2.0f / 3.0f).mul(start).add(v.set(1.0f / 3.0f).mul(end));
         codes[3].set(1.0f / 3.0f).mul(start).add(v.set(2.0f / 3.0f).mul(end));
 
         // match each point to the closest code
-        final int[] closest = CompressorRange.closest;
+        final int[] closest = this.closest;
         float error = 0.0f;
         for (int i = 0; i < count; ++i) {
             final Vec p = points[i];
@@ -209,7 +214,7 @@ final class CompressorRange extends CompressorColourFit {
             colours.remapIndices(closest, indices);
 
             // save the block
-            ColourBlock.writeColourBlock4(start, end, indices, block, offset);
+            colourBlock.writeColourBlock4(start, end, indices, block, offset);
 
             // save the error
             bestError = error;
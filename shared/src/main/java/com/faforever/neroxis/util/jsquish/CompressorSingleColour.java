@@ -27,8 +27,6 @@ package com.faforever.neroxis.util.jsquish;
 
 import com.faforever.neroxis.util.jsquish.Squish.CompressionType;
 
-import static com.faforever.neroxis.util.jsquish.ColourBlock.writeColourBlock3;
-import static com.faforever.neroxis.util.jsquish.ColourBlock.writeColourBlock4;
 import static com.faforever.neroxis.util.jsquish.SingleColourLookup3.LOOKUP_5_3;
 import static com.faforever.neroxis.util.jsquish.SingleColourLookup3.LOOKUP_6_3;
 import static com.faforever.neroxis.util.jsquish.SingleColourLookup4.LOOKUP_5_4;
@@ -36,18 +34,21 @@ import static com.faforever.neroxis.util.jsquish.SingleColourLookup4.LOOKUP_6_4;
 import static java.lang.Math.round;
 
 final class CompressorSingleColour extends CompressorColourFit {
-    private static final int[] indices = new int[16];
-    private static final int[][][][] lookups = new int[3][][][];
-    private static final int[][] sources = new int[3][];
-    private static final Vec start = new Vec();
-    private static final Vec end = new Vec();
-    private static final int[] index = new int[1];
-    private static int bestError;
+    private final int[] indices = new int[16];
+    private final int[][][][] lookups = new int[3][][][];
+    private final int[][] sources = new int[3][];
+    private final Vec start = new Vec();
+    private final Vec end = new Vec();
+    private final int[] index = new int[1];
     private final int[] colour = new int[3];
+    private int bestError;
 
-    CompressorSingleColour(final ColourSet colours, final CompressionType type) {
-        super(colours, type);
+    CompressorSingleColour(final ColourSet colours, final ColourBlock colourBlock, final CompressionType type) {
+        super(colours, colourBlock, type);
+    }
 
+    @Override
+    void init() {
         // grab the single colour
         final Vec colour = colours.getPoints()[0];
         this.colour[0] = round(255.0f * colour.x());
@@ -74,7 +75,7 @@ final class CompressorSingleColour extends CompressorColourFit {
             colours.remapIndices(index, indices);
 
             // save the block
-            writeColourBlock3(start, end, indices, block, offset);
+            colourBlock.writeColourBlock3(start, end, indices, block, offset);
 
             // save the error
             bestError = error;
@@ -97,7 +98,7 @@ final class CompressorSingleColour extends CompressorColourFit {
             colours.remapIndices(index, indices);
 
             // save the block
-            writeColourBlock4(start, end, indices, block, offset);
+            colourBlock.writeColourBlock4(start, end, indices, block, offset);
 
             // save the error
             bestError = error;
@@ -105,9 +106,9 @@ final class CompressorSingleColour extends CompressorColourFit {
     }
 
     private int computeEndPoints(final int count, final int[][][][] lookups) {
-        final int[][] sources = CompressorSingleColour.sources;
+        final int[][] sources = this.sources;
 
-        int bestError = CompressorSingleColour.bestError;
+        int bestError = this.bestError;
 
         // check each index combination
         for (int index = 0; index < count; ++index) {
@@ -132,7 +133,7 @@ final class CompressorSingleColour extends CompressorColourFit {
 
                 end.set(sources[0][1] * GRID_X_RCP, sources[1][1] * GRID_Y_RCP, sources[2][1] * GRID_Z_RCP);
 
-                CompressorSingleColour.index[0] = index;
+                this.index[0] = index;
                 bestError = error;
             }
         }
@@ -28,8 +28,6 @@ package com.faforever.neroxis.util.jsquish;
 import lombok.Getter;
 
 public final class Squish {
-    private static final ColourSet colours = new ColourSet();
-
     private Squish() {
     }
 
@@ -39,69 +37,10 @@ public final class Squish {
                              CompressionMetric.PERCEPTUAL, false);
     }
 
-    // TODO: Add interface for ByteBuffers
-    // TODO: Allow concurrent calls: Un-static everything, create basic compressors once, objectify alpha compressors (DXT3 & DXT5 implementations)
-    public static byte[] compressImage(final byte[] rgba, final int width, final int height, byte[] blocks,
+    public static byte[] compressImage(final byte[] rgba, final int width, final int height, final byte[] blocks,
                                        final CompressionType type, final CompressionMethod method,
                                        final CompressionMetric metric, final boolean weightAlpha) {
-        blocks = checkCompressInput(rgba, width, height, blocks, type);
-
-        final byte[] sourceRGBA = new byte[64];
-
-        // loop over blocks
-        int targetBlock = 0;
-        for (int y = 0; y < height; y += 4) {
-            for (int x = 0; x < width; x += 4) {
-                // build the 4x4 block of pixels
-                int targetPixel = 0;
-                int mask = 0;
-                for (int py = 0; py < 4; ++py) {
-                    final int sy = y + py;
-                    for (int px = 0; px < 4; ++px) {
-                        // get the source pixel in the image
-                        final int sx = x + px;
-
-                        // enable if we're in the image
-                        if (sx < width && sy < height) {
-                            // copy the rgba value
-                            int sourcePixel = 4 * (width * sy + sx);
-                            for (int i = 0; i < 4; ++i) {
-                                sourceRGBA[targetPixel++] = rgba[sourcePixel++];
-                            }
-
-                            // enable this pixel
-                            mask |= (1 << (4 * py + px));
-                        } else {
-                            // skip this pixel as its outside the image
-                            targetPixel += 4;
-                        }
-                    }
-                }
-
-                // compress it into the output
-                compress(sourceRGBA, mask, blocks, targetBlock, type, method, metric, weightAlpha);
-
-                // advance
-                targetBlock += type.blockSize;
-            }
-        }
-
-        return blocks;
-    }
-
-    private static byte[] checkCompressInput(final byte[] rgba, final int width, final int height, byte[] blocks,
-                                             final CompressionType type) {
-        final int storageSize = getStorageRequirements(width, height, type);
-
-        if (rgba == null || rgba.length < (width * height * 4)) {
-            throw new IllegalArgumentException("Invalid source image data specified.");
-        }
-
-        if (blocks == null || blocks.length < storageSize) {
-            blocks = new byte[storageSize];
-        }
-
-        return blocks;
+        return new SquishCompressor(type, method, metric, weightAlpha).compressImage(rgba, width, height, blocks);
     }
 
     public static int getStorageRequirements(final int width, final int height, final CompressionType type) {
@@ -114,32 +53,6 @@ public final class Squish {
         return blockcount * type.blockSize;
     }
 
-    private static void compress(final byte[] rgba, final int mask, final byte[] block, final int offset,
-                                 final CompressionType type, final CompressionMethod method,
-                                 final CompressionMetric metric, final boolean weightAlpha) {
-        // get the block locations
-        final int colourBlock = offset + type.blockOffset;
-
-        // create the minimal point set
-        colours.init(rgba, mask, type, weightAlpha);
-
-        // check the compression type and compress colour
-        final CompressorColourFit fit;
-        if (colours.getCount() == 1) { // always do a single colour fit
-            fit = new CompressorSingleColour(colours, type);
-        } else {
-            fit = method.getCompressor(colours, type, metric);
-        }
-        fit.compress(block, colourBlock);
-
-        // compress alpha separately if necessary
-        if (type == CompressionType.DXT3) {
-            AlphaBlock.compressAlphaDxt3(rgba, mask, block, offset);
-        } else if (type == CompressionType.DXT5) {
-            AlphaBlock.compressAlphaDxt5(rgba, mask, block, offset);
-        }
-    }
-
     public static byte[] compressImage(final byte[] rgba, final int width, final int height, final byte[] blocks,
                                        final CompressionType type, final CompressionMethod method) {
         return compressImage(rgba, width, height, blocks, type, method, CompressionMetric.PERCEPTUAL, false);
@@ -150,13 +63,15 @@ public final class Squish {
         rgba = checkDecompressInput(rgba, width, height, blocks, type);
 
         final byte[] targetRGBA = new byte[64];
+        final ColourBlock colourBlock = new ColourBlock();
+        final AlphaBlock alphaBlock = new AlphaBlock();
 
         // loop over blocks
         int sourceBlock = 0;
         for (int y = 0; y < height; y += 4) {
             for (int x = 0; x < width; x += 4) {
                 // decompress the block
-                decompress(targetRGBA, blocks, sourceBlock, type);
+                decompress(targetRGBA, blocks, sourceBlock, type, colourBlock, alphaBlock);
 
                 // write the decompressed pixels to the correct image locations
                 int sourcePixel = 0;
@@ -202,18 +117,19 @@ public final class Squish {
     }
 
     private static void decompress(final byte[] rgba, final byte[] block, final int offset,
-                                   final CompressionType type) {
+                                   final CompressionType type, final ColourBlock colourBlock,
+                                   final AlphaBlock alphaBlock) {
         // get the block locations
         final int colourBlockOffset = offset + type.blockOffset;
 
         // decompress colour
-        ColourBlock.decompressColour(rgba, block, colourBlockOffset, type == CompressionType.DXT1);
+        colourBlock.decompressColour(rgba, block, colourBlockOffset, type == CompressionType.DXT1);
 
         // decompress alpha separately if necessary
         if (type == CompressionType.DXT3) {
             AlphaBlock.decompressAlphaDxt3(rgba, block, offset);
         } else if (type == CompressionType.DXT5) {
-            AlphaBlock.decompressAlphaDxt5(rgba, block, offset);
+            alphaBlock.decompressAlphaDxt5(rgba, block, offset);
         }
     }
 
@@ -233,19 +149,26 @@ public final class Squish {
     public enum CompressionMethod {
         CLUSTER_FIT() {
             @Override
-            CompressorColourFit getCompressor(final ColourSet colours, final CompressionType type,
-                                              final CompressionMetric metric) {
-                return new CompressorCluster(colours, type, metric);
+            CompressorColourFit getCompressor(final ColourSet colours, final ColourBlock colourBlock,
+                                              final CompressionType type, final CompressionMetric metric) {
+                return new CompressorCluster(colours, colourBlock, type, metric);
             }
         }, RANGE_FIT() {
             @Override
-            CompressorColourFit getCompressor(final ColourSet colours, final CompressionType type,
-                                              final CompressionMetric metric) {
-                return new CompressorRange(colours, type, metric);
+            CompressorColourFit getCompressor(final ColourSet colours, final ColourBlock colourBlock,
+                                              final CompressionType type, final CompressionMetric metric) {
+                return new CompressorRange(colours, colourBlock, type, metric);
+            }
+        }, BOUNDING_BOX_FIT() {
+            @Override
+            CompressorColourFit getCompressor(final ColourSet colours, final ColourBlock colourBlock,
+                                              final CompressionType type, final CompressionMetric metric) {
+                return new CompressorBoundingBox(colours, colourBlock, type);
             }
         };
 
-        abstract CompressorColourFit getCompressor(ColourSet colours, CompressionType type, CompressionMetric metric);
+        abstract CompressorColourFit getCompressor(ColourSet colours, ColourBlock colourBlock, CompressionType type,
+                                                   CompressionMetric metric);
     }
 
     public enum CompressionMetric {
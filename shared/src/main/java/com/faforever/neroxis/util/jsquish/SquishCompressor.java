@@ -0,0 +1,160 @@
+/* -----------------------------------------------------------------------------
+
+	Copyright (c) 2006 Simon Brown                          si@sjbrown.co.uk
+
+	Permission is hereby granted, free of charge, to any person obtaining
+	a copy of this software and associated documentation files (the
+	"Software"), to	deal in the Software without restriction, including
+	without limitation the rights to use, copy, modify, merge, publish,
+	distribute, sublicense, and/or sell copies of the Software, and to
+	permit persons to whom the Software is furnished to do so, subject to
+	the following conditions:
+
+	The above copyright notice and this permission notice shall be included
+	in all copies or substantial portions of the Software.
+
+	THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+	OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+	MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+	IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY
+	CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+	TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+	SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+   -------------------------------------------------------------------------- */
+
+package com.faforever.neroxis.util.jsquish;
+
+import com.faforever.neroxis.util.jsquish.Squish.CompressionMethod;
+import com.faforever.neroxis.util.jsquish.Squish.CompressionMetric;
+import com.faforever.neroxis.util.jsquish.Squish.CompressionType;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Reentrant image compressor. The block rows of an image are split into bands compressed concurrently on the common
+ * {@link ForkJoinPool}, each band with its own scratch state, so the output is identical to compressing the blocks
+ * one after another.
+ */
+@Getter
+public final class SquishCompressor {
+    private static final int MIN_PARALLEL_BLOCK_ROWS = 16;
+    private static final int ROW_BANDS_PER_THREAD = 4;
+
+    private final CompressionType type;
+    private final CompressionMethod method;
+    private final CompressionMetric metric;
+    private final boolean weightAlpha;
+
+    public SquishCompressor(final CompressionType type) {
+        this(type, CompressionMethod.CLUSTER_FIT);
+    }
+
+    public SquishCompressor(final CompressionType type, final CompressionMethod method) {
+        this(type, method, CompressionMetric.PERCEPTUAL, false);
+    }
+
+    public SquishCompressor(final CompressionType type, final CompressionMethod method,
+                            final CompressionMetric metric, final boolean weightAlpha) {
+        this.type = type;
+        this.method = method;
+        this.metric = metric;
+        this.weightAlpha = weightAlpha;
+    }
+
+    /**
+     * @param blocks array to compress into, a new one is allocated when it is null or too small
+     * @return the array holding the compressed blocks
+     */
+    public byte[] compressImage(final byte[] rgba, final int width, final int height, byte[] blocks) {
+        final int storageSize = Squish.getStorageRequirements(width, height, type);
+
+        if (rgba == null || rgba.length < (width * height * 4)) {
+            throw new IllegalArgumentException("Invalid source image data specified.");
+        }
+
+        if (blocks == null || blocks.length < storageSize) {
+            blocks = new byte[storageSize];
+        }
+
+        compressImage(ByteBuffer.wrap(rgba), width, height, ByteBuffer.wrap(blocks));
+        return blocks;
+    }
+
+    /**
+     * Compress the pixels starting at the position of {@code rgba} into blocks written from the position of
+     * {@code blocks}. The positions of both buffers are left unchanged.
+     */
+    public void compressImage(final ByteBuffer rgba, final int width, final int height, final ByteBuffer blocks) {
+        final int storageSize = Squish.getStorageRequirements(width, height, type);
+
+        if (rgba.remaining() < (width * height * 4)) {
+            throw new IllegalArgumentException("Invalid source image data specified.");
+        }
+
+        if (blocks.remaining() < storageSize) {
+            throw new IllegalArgumentException("Invalid target block buffer specified.");
+        }
+
+        final int blockRows = (height + 3) / 4;
+        final int threads = ForkJoinPool.getCommonPoolParallelism() + 1;
+        if (blockRows < MIN_PARALLEL_BLOCK_ROWS || Runtime.getRuntime().availableProcessors() < 2) {
+            compressImage(rgba, width, height, blocks, blockRows);
+        } else {
+            compressImage(rgba, width, height, blocks, StrictMath.ceilDiv(blockRows, threads * ROW_BANDS_PER_THREAD));
+        }
+    }
+
+    /**
+     * Compress the image in bands of {@code bandRows} block rows, running the bands in parallel when there is more
+     * than one
+     */
+    void compressImage(final ByteBuffer rgba, final int width, final int height, final ByteBuffer blocks,
+                       final int bandRows) {
+        final int blockRows = (height + 3) / 4;
+        if (bandRows >= blockRows) {
+            compressBlockRows(rgba, width, height, blocks, 0, blockRows);
+            return;
+        }
+
+        IntStream.range(0, StrictMath.ceilDiv(blockRows, bandRows)).parallel().forEach(band -> {
+            final int startRow = band * bandRows;
+            compressBlockRows(rgba, width, height, blocks, startRow, StrictMath.min(blockRows, startRow + bandRows));
+        });
+    }
+
+    private void compressBlockRows(final ByteBuffer rgba, final int width, final int height, final ByteBuffer blocks,
+                                   final int startRow, final int endRow) {
+        final BlockCompressor compressor = new BlockCompressor(type, method, metric, weightAlpha);
+        final byte[] sourceRGBA = new byte[64];
+        final byte[] block = new byte[type.blockSize];
+
+        // loop over blocks
+        final int sourceStart = rgba.position();
+        int targetBlock = blocks.position() + startRow * ((width + 3) / 4) * type.blockSize;
+        for (int y = 4 * startRow; y < StrictMath.min(height, 4 * endRow); y += 4) {
+            for (int x = 0; x < width; x += 4) {
+                // build the 4x4 block of pixels, pixels outside the image are skipped
+                final int columns = StrictMath.min(4, width - x);
+                int mask = 0;
+                for (int py = 0; py < 4 && y + py < height; ++py) {
+                    // copy the rgba values
+                    rgba.get(sourceStart + 4 * (width * (y + py) + x), sourceRGBA, 16 * py, 4 * columns);
+
+                    // enable these pixels
+                    mask |= ((1 << columns) - 1) << (4 * py);
+                }
+
+                // compress it into the output
+                compressor.compress(sourceRGBA, mask, block, 0);
+                blocks.put(targetBlock, block);
+
+                // advance
+                targetBlock += type.blockSize;
+            }
+        }
+    }
+}
@@ -263,7 +263,7 @@ public abstract class Vector<T extends Vector<T>> {
     }
 
     public T multiply(float value, int component) {
-        components[component] -= value;
+        components[component] *= value;
         return (T) this;
     }
 
@@ -293,7 +293,7 @@ public abstract class Vector<T extends Vector<T>> {
     }
 
     public T divide(float value, int component) {
-        components[component] -= value;
+        components[component] /= value;
         return (T) this;
     }
 
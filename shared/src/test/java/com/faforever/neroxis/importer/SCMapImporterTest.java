@@ -0,0 +1,151 @@
+package com.faforever.neroxis.importer;
+
+import com.faforever.neroxis.biomes.BiomeName;
+import com.faforever.neroxis.biomes.Biomes;
+import com.faforever.neroxis.exporter.SCMapExporter;
+import com.faforever.neroxis.map.Decal;
+import com.faforever.neroxis.map.Prop;
+import com.faforever.neroxis.map.SCMap;
+import com.faforever.neroxis.util.vector.Vector3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferUShort;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class SCMapImporterTest {
+    private static final int SIZE = 64;
+
+    @Test
+    public void TestExportedMapRoundTrips(@TempDir Path tempDir) throws IOException {
+        SCMap map = createMap();
+        SCMapExporter.exportSCMAP(tempDir, map);
+
+        SCMap importedMap = SCMapImporter.importSCMAP(tempDir);
+
+        assertEquals(map.getBiome().terrainMaterials().textures(),
+                     importedMap.getBiome().terrainMaterials().textures());
+        assertEquals(map.getBiome().terrainMaterials().normals(), importedMap.getBiome().terrainMaterials().normals());
+        assertNotNull(importedMap.getBiome().propMaterials());
+        assertNotNull(importedMap.getBiome().decalMaterials());
+        assertImagesEqual(map.getPreview(), importedMap.getPreview());
+        assertImagesEqual(map.getHeightmap(), importedMap.getHeightmap());
+        assertImagesEqual(map.getNormalMap(), importedMap.getNormalMap());
+        assertImagesEqual(map.getTextureMasksLow(), importedMap.getTextureMasksLow());
+        assertImagesEqual(map.getTextureMasksHigh(), importedMap.getTextureMasksHigh());
+        assertImagesEqual(map.getWaterMap(), importedMap.getWaterMap());
+        assertImagesEqual(map.getWaterFoamMap(), importedMap.getWaterFoamMap());
+        assertImagesEqual(map.getWaterShadowMap(), importedMap.getWaterShadowMap());
+        assertImagesEqual(map.getWaterDepthBiasMap(), importedMap.getWaterDepthBiasMap());
+        assertImagesEqual(map.getTerrainType(), importedMap.getTerrainType());
+        assertArrayEquals(toBytes(SCMapExporter.toByteBuffer(map)),
+                          toBytes(SCMapExporter.toByteBuffer(importedMap)));
+    }
+
+    @Test
+    public void TestImportedFileCanBeOverwritten(@TempDir Path tempDir) throws IOException {
+        SCMap map = createMap();
+        SCMapExporter.exportSCMAP(tempDir, map);
+
+        SCMap importedMap = SCMapImporter.importSCMAP(tempDir);
+        byte[] exportedBytes = Files.readAllBytes(tempDir.resolve(map.getFilePrefix() + ".scmap"));
+        Files.write(tempDir.resolve(map.getFilePrefix() + ".scmap"), new byte[0]);
+
+        // Layers that were not decoded yet must not depend on the file anymore
+        assertImagesEqual(map.getHeightmap(), importedMap.getHeightmap());
+        SCMapExporter.exportSCMAP(tempDir, importedMap);
+        assertArrayEquals(exportedBytes, Files.readAllBytes(tempDir.resolve(map.getFilePrefix() + ".scmap")));
+    }
+
+    private static SCMap createMap() {
+        Random random = new Random(0);
+        SCMap map = new SCMap(SIZE, Biomes.loadBiome(BiomeName.DESERT));
+        map.setFilePrefix("round_trip");
+        map.setMinorVersion(60);
+        fillRandom(map.getPreview(), random);
+        fillRandom(map.getHeightmap(), random);
+        fillRandom(map.getTextureMasksLow(), random);
+        fillRandom(map.getTextureMasksHigh(), random);
+        fillRandom(map.getWaterFoamMap(), random);
+        fillRandom(map.getWaterShadowMap(), random);
+        fillRandom(map.getWaterDepthBiasMap(), random);
+        fillRandom(map.getTerrainType(), random);
+        fillBlocks(map.getNormalMap(), random);
+        fillBlocks(map.getWaterMap(), random);
+        map.addProp(new Prop("/env/evergreen/props/trees/oak01_s1_prop.bp", new Vector3(10, 2, 20), 0, false));
+        map.addDecal(new Decal("/env/common/decals/shore/shore001_albedo.dds", new Vector3(5, 0, 6),
+                               new Vector3(0, 1, 0), 32, 1000));
+        return map;
+    }
+
+    private static void fillRandom(BufferedImage image, Random random) {
+        switch (image.getRaster().getDataBuffer()) {
+            case DataBufferInt buffer -> {
+                int[] data = buffer.getData();
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = random.nextInt();
+                }
+            }
+            case DataBufferUShort buffer -> {
+                short[] data = buffer.getData();
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = (short) random.nextInt();
+                }
+            }
+            case DataBufferByte buffer -> random.nextBytes(buffer.getData());
+            default -> throw new IllegalArgumentException("Unsupported image type");
+        }
+    }
+
+    /**
+     * Fill every 4 by 4 block with one opaque colour that 565 encoding represents exactly, so the image survives
+     * DXT5 compression unchanged
+     */
+    private static void fillBlocks(BufferedImage image, Random random) {
+        for (int blockX = 0; blockX < image.getWidth(); blockX += 4) {
+            for (int blockY = 0; blockY < image.getHeight(); blockY += 4) {
+                int red = expand(random.nextInt(32), 5);
+                int green = expand(random.nextInt(64), 6);
+                int blue = expand(random.nextInt(32), 5);
+                int argb = 0xFF000000 | red << 16 | green << 8 | blue;
+                for (int x = blockX; x < blockX + 4; x++) {
+                    for (int y = blockY; y < blockY + 4; y++) {
+                        image.setRGB(x, y, argb);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int expand(int value, int bits) {
+        return value << (8 - bits) | value >> (2 * bits - 8);
+    }
+
+    private static void assertImagesEqual(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertArrayEquals(expected.getRaster().getPixels(0, 0, expected.getWidth(), expected.getHeight(),
+                                                         (int[]) null),
+                          actual.getRaster().getPixels(0, 0, actual.getWidth(), actual.getHeight(), (int[]) null));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,91 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import com.faforever.neroxis.util.vector.Vector2;
+import com.faforever.neroxis.util.vector.Vector3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class BooleanMaskLineTest {
+    private static final int SIZE = 64;
+    private static final int MASK_COUNT = 40;
+    private static final int LINE_COUNT = 500;
+    // mostly true masks so that a good share of the lines reach their end
+    private static final float[] DENSITIES = {1f, .999f, .99f, .9f, .5f};
+
+    @Test
+    public void TestIsLineTrueMatchesGetLine() {
+        Random random = new Random(0);
+        int trueLines = 0;
+        for (int i = 0; i < MASK_COUNT; i++) {
+            BooleanMask mask = createMask(random);
+            for (int j = 0; j < LINE_COUNT; j++) {
+                Vector2 start = getRandomPoint(random);
+                Vector2 end = random.nextInt(10) == 0 ? new Vector2(start) : getRandomPoint(random);
+                boolean expected = isLineTrue(mask, start.getLine(end).toArray(new Vector2[0]));
+
+                assertEquals(expected, mask.isLineTrue(start, end), String.format("%s to %s", start, end));
+                trueLines += expected ? 1 : 0;
+            }
+        }
+
+        assertTrue(trueLines > 0);
+    }
+
+    @Test
+    public void TestIsXZLineTrueMatchesGetXZLine() {
+        Random random = new Random(0);
+        int trueLines = 0;
+        for (int i = 0; i < MASK_COUNT; i++) {
+            BooleanMask mask = createMask(random);
+            for (int j = 0; j < LINE_COUNT; j++) {
+                // markers sit on half points, the height must not matter
+                Vector3 start = getRandomMarkerPosition(random);
+                Vector3 end = random.nextInt(10) == 0 ? new Vector3(start) : getRandomMarkerPosition(random);
+                boolean expected = isLineTrue(mask, start.getXZLine(end).toArray(new Vector2[0]));
+
+                assertEquals(expected, mask.isXZLineTrue(start, end), String.format("%s to %s", start, end));
+                trueLines += expected ? 1 : 0;
+            }
+        }
+
+        assertTrue(trueLines > 0);
+    }
+
+    /**
+     * The check the AI marker placer used before, on every point of the line
+     */
+    private static boolean isLineTrue(BooleanMask mask, Vector2[] line) {
+        for (Vector2 point : line) {
+            if (!mask.inBounds(point) || !mask.get(point)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BooleanMask createMask(Random random) {
+        return new BooleanMask(SIZE, random.nextLong(), new SymmetrySettings(Symmetry.NONE), "line", false).randomize(
+                DENSITIES[random.nextInt(DENSITIES.length)]);
+    }
+
+    /**
+     * Points a little past every edge so lines start, end and pass out of bounds
+     */
+    private static Vector2 getRandomPoint(Random random) {
+        return new Vector2(random.nextFloat() * (SIZE + 8) - 4, random.nextFloat() * (SIZE + 8) - 4);
+    }
+
+    private static Vector3 getRandomMarkerPosition(Random random) {
+        return new Vector3(random.nextInt(SIZE + 8) - 4 + .5f, random.nextFloat() * 100,
+                           random.nextInt(SIZE + 8) - 4 + .5f);
+    }
+}
@@ -0,0 +1,93 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class BooleanMaskOffsetTest {
+    // neither size is a multiple of 64, so rows start at many different bit offsets within a word
+    private static final int[] SIZES = {100, 130};
+    private static final int[] OTHER_SIZES = {1, 13, 37, 64, 100, 130, 171};
+    private static final int CASE_COUNT = 40;
+
+    @ParameterizedTest
+    @EnumSource(Symmetry.class)
+    public void TestWordWiseOffsetMatchesPerPixel(Symmetry symmetry) {
+        Random random = new Random(symmetry.ordinal());
+        SymmetrySettings symmetrySettings = new SymmetrySettings(symmetry);
+        for (int size : SIZES) {
+            for (int otherSize : OTHER_SIZES) {
+                for (int i = 0; i < CASE_COUNT; i++) {
+                    BooleanMask mask = new BooleanMask(size, random.nextLong(), symmetrySettings, "mask",
+                                                       false).randomize(random.nextFloat());
+                    BooleanMask other = new BooleanMask(otherSize, random.nextLong(), symmetrySettings, "other",
+                                                        false).randomize(random.nextFloat());
+                    // offsets past the edges make the shifted rows and columns wrap or fall outside the mask
+                    int xOffset = random.nextInt(2 * size) - size / 2;
+                    int yOffset = random.nextInt(2 * size) - size / 2;
+                    boolean center = random.nextBoolean();
+                    boolean wrapEdges = random.nextBoolean();
+                    String message = String.format("size %d other size %d offset %d %d center %b wrap %b", size,
+                                                   otherSize, xOffset, yOffset, center, wrapEdges);
+
+                    assertMasksEqual(perPixel(mask, other, BooleanMask::addValueAt, xOffset, yOffset, center,
+                                              wrapEdges),
+                                     mask.copy().addWithOffset(other, xOffset, yOffset, center, wrapEdges),
+                                     "add " + message);
+                    assertMasksEqual(perPixel(mask, other, BooleanMask::subtractValueAt, xOffset, yOffset, center,
+                                              wrapEdges),
+                                     mask.copy().subtractWithOffset(other, xOffset, yOffset, center, wrapEdges),
+                                     "subtract " + message);
+                    assertMasksEqual(perPixel(mask, other, BooleanMask::multiplyValueAt, xOffset, yOffset, center,
+                                              wrapEdges),
+                                     mask.copy().multiplyWithOffset(other, xOffset, yOffset, center, wrapEdges),
+                                     "multiply " + message);
+                    assertMasksEqual(perPixel(mask, other, BooleanMask::divideValueAt, xOffset, yOffset, center,
+                                              wrapEdges),
+                                     mask.copy().divideWithOffset(other, xOffset, yOffset, center, wrapEdges),
+                                     "divide " + message);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the operation of {@code mask} one pixel at a time through {@link Mask#applyWithOffset} on a copy
+     */
+    private static BooleanMask perPixel(BooleanMask mask, BooleanMask other, PixelOperation operation, int xOffset,
+                                        int yOffset, boolean center, boolean wrapEdges) {
+        BooleanMask copy = mask.copy();
+        copy.applyWithOffset(other, (x, y, value) -> operation.apply(copy, x, y, value), xOffset, yOffset, center,
+                             wrapEdges);
+        return copy;
+    }
+
+    private static void assertMasksEqual(BooleanMask expected, BooleanMask actual, String message) {
+        int size = expected.getSize();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (expected.getPrimitive(x, y) != actual.getPrimitive(x, y)) {
+                    assertEquals(expected.getPrimitive(x, y), actual.getPrimitive(x, y),
+                                 String.format("%s pixel %d %d", message, x, y));
+                }
+            }
+        }
+        assertEquals(expected.getCount(), actual.getCount(), message);
+    }
+
+    /**
+     * One of the per pixel operations of a mask, applied to the copy the operation is called with
+     */
+    @FunctionalInterface
+    private interface PixelOperation {
+        void apply(BooleanMask mask, int x, int y, Boolean value);
+    }
+}
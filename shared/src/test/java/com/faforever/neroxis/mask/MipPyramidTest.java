@@ -0,0 +1,107 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import com.faforever.neroxis.util.ResampleUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class MipPyramidTest {
+    private static final int SIZE = 64;
+    private static final SymmetrySettings SYMMETRY_SETTINGS = new SymmetrySettings(Symmetry.NONE);
+
+    @Test
+    public void TestLevelsAreReusedForTheSameVersion() {
+        Random random = new Random(0);
+        MipPyramid mipPyramid = new MipPyramid();
+        float[] values = getRandomValues(random);
+        float[] otherValues = getRandomValues(random);
+
+        float[] shrunk = mipPyramid.areaAverage(values, SIZE, 1, 16);
+
+        // Only the version tells the pyramid the data changed, so other values under the same version reuse the levels
+        assertArrayEquals(shrunk, mipPyramid.areaAverage(otherValues, SIZE, 1, 16));
+        assertArrayEquals(new MipPyramid().areaAverage(values, SIZE, 1, 32),
+                          mipPyramid.areaAverage(otherValues, SIZE, 1, 32));
+        assertArrayEquals(new MipPyramid().areaAverage(otherValues, SIZE, 2, 16),
+                          mipPyramid.areaAverage(otherValues, SIZE, 2, 16));
+    }
+
+    @Test
+    public void TestLevelsMatchDirectAreaAverage() {
+        Random random = new Random(0);
+        float[] values = getRandomValues(random);
+        for (int newSize = 1; newSize < SIZE; newSize++) {
+            float[] expected = ResampleUtil.areaAverage(values, SIZE, newSize);
+            float[] actual = new MipPyramid().areaAverage(values, SIZE, 1, newSize);
+            // Halving levels only match the direct average where the sizes divide evenly
+            if (SIZE % newSize == 0 && Integer.bitCount(SIZE / newSize) == 1) {
+                assertArrayEquals(expected, actual, 1e-5f, String.valueOf(newSize));
+            } else {
+                assertEquals(expected.length, actual.length);
+                assertEquals(getMean(expected), getMean(actual), 1e-2f, String.valueOf(newSize));
+            }
+        }
+    }
+
+    @Test
+    public void TestResampledMaskFollowsWrites() {
+        FloatMask mask = new FloatMask(SIZE, 0L, SYMMETRY_SETTINGS, "mipmapped", false).addPerlinNoise(8, 10f);
+        FloatMask snapshot = mask.immutableCopy();
+        float[] before = getValues(mask.copyAsResampled(16));
+
+        mask.add(1f);
+        float[] after = getValues(mask.copyAsResampled(16));
+
+        assertArrayEquals(getValues(mask.copy().copyAsResampled(16)), after);
+        assertNotEquals(before[0], after[0]);
+        // The snapshot shares the pyramid with the mask but still has the data from before the write
+        assertArrayEquals(before, getValues(snapshot.copyAsResampled(16)));
+        assertArrayEquals(after, getValues(mask.copyAsResampled(16)));
+        assertArrayEquals(getValues(snapshot.copy().copyAsResampled(8)), getValues(snapshot.copyAsResampled(8)));
+    }
+
+    @Test
+    public void TestResampleFilteredGrowsBilinearly() {
+        FloatMask mask = new FloatMask(SIZE, 0L, SYMMETRY_SETTINGS, "grown", false).addPerlinNoise(8, 10f);
+        float[] values = getValues(mask);
+
+        assertArrayEquals(ResampleUtil.bilinear(values, SIZE, 2 * SIZE), getValues(mask.resampleFiltered(2 * SIZE)));
+        assertEquals(2 * SIZE, mask.getSize());
+    }
+
+    private static float[] getValues(FloatMask mask) {
+        int size = mask.getSize();
+        float[] values = new float[size * size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                values[x * size + y] = mask.getPrimitive(x, y);
+            }
+        }
+        return values;
+    }
+
+    private static float[] getRandomValues(Random random) {
+        float[] values = new float[SIZE * SIZE];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextFloat();
+        }
+        return values;
+    }
+
+    private static float getMean(float[] values) {
+        double sum = 0;
+        for (float value : values) {
+            sum += value;
+        }
+        return (float) (sum / values.length);
+    }
+}
@@ -0,0 +1,43 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RowParallelTest {
+    private static final int SIZE = 520;
+
+    @AfterEach
+    public void resetRowParallel() {
+        Mask.ROW_PARALLEL = false;
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Symmetry.class, names = {"NONE", "POINT2", "POINT3", "XZ", "QUAD"})
+    public void TestRowParallelMatchesSequential(Symmetry symmetry) throws NoSuchAlgorithmException {
+        Mask.ROW_PARALLEL = false;
+        List<String> sequentialHashes = getHashes(symmetry);
+        Mask.ROW_PARALLEL = true;
+        List<String> rowParallelHashes = getHashes(symmetry);
+
+        assertEquals(sequentialHashes, rowParallelHashes);
+    }
+
+    private List<String> getHashes(Symmetry symmetry) throws NoSuchAlgorithmException {
+        SymmetrySettings symmetrySettings = new SymmetrySettings(symmetry);
+        FloatMask noise = new FloatMask(SIZE, 0L, symmetrySettings, "noise", false).addPerlinNoise(32, 10f);
+        FloatMask gradient = noise.copy().gradient();
+        FloatMask supcomGradient = noise.copy().supcomGradient();
+        BooleanMask threshold = noise.copyAsBooleanMask(5f);
+        BooleanMask range = new BooleanMask(noise, 2f, 6f);
+        return List.of(noise.toHash(), gradient.toHash(), supcomGradient.toHash(), threshold.toHash(),
+                       range.toHash());
+    }
+}
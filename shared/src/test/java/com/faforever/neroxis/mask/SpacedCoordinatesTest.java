@@ -0,0 +1,111 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import com.faforever.neroxis.map.SymmetryType;
+import com.faforever.neroxis.util.vector.Vector2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class SpacedCoordinatesTest {
+    // sizes that the cells do not divide evenly put candidates in the clamped last row and column of cells
+    private static final int[] SIZES = {1, 7, 50, 97};
+    private static final float[] RADII = {0.5f, 1f, 2.5f, 6f, 13.7f, 200f};
+
+    @Test
+    public void TestSpacedCoordinatesMatchListRemoval() {
+        Random random = new Random(0);
+        for (int size : SIZES) {
+            for (float radius : RADII) {
+                for (int spacing = 1; spacing <= 3; spacing++) {
+                    BooleanMask mask = new BooleanMask(size, random.nextLong(), new SymmetrySettings(Symmetry.NONE),
+                                                       "spaced", false).randomize(random.nextFloat());
+                    String message = String.format("size %d radius %f spacing %d", size, radius, spacing);
+
+                    assertEquals(spaceCoordinates(radius, mask.getAllCoordinates(spacing)),
+                                 mask.getSpacedCoordinates(radius, spacing), message);
+                    assertEquals(spaceCoordinates(radius, mask.getAllCoordinatesEqualTo(true, spacing)),
+                                 mask.getSpacedCoordinatesEqualTo(true, radius, spacing), message);
+                    assertEquals(spaceCoordinates(radius, mask.getAllCoordinatesEqualTo(false, spacing)),
+                                 mask.getSpacedCoordinatesEqualTo(false, radius, spacing), message);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Symmetry.class, names = {"NONE", "POINT2", "POINT3", "POINT4", "POINT7", "X", "XZ", "QUAD",
+                                                 "DIAG"})
+    public void TestRandomCoordinatesMatchListRemoval(Symmetry symmetry) {
+        Random random = new Random(symmetry.ordinal());
+        SymmetrySettings symmetrySettings = new SymmetrySettings(symmetry);
+        for (int size : SIZES) {
+            for (float radius : RADII) {
+                for (SymmetryType symmetryType : new SymmetryType[]{null, SymmetryType.TEAM, SymmetryType.SPAWN}) {
+                    long seed = random.nextLong();
+                    float density = random.nextFloat();
+                    float minSpacing = radius * random.nextFloat();
+                    BooleanMask mask = new BooleanMask(size, seed, symmetrySettings, "random", false).randomize(
+                            density);
+                    BooleanMask listMask = new BooleanMask(size, seed, symmetrySettings, "random", false).randomize(
+                            density);
+                    String message = String.format("size %d spacing %f to %f symmetry type %s", size, minSpacing,
+                                                   radius, symmetryType);
+
+                    assertEquals(getRandomCoordinates(listMask, minSpacing, radius, symmetryType),
+                                 mask.getRandomCoordinates(minSpacing, radius, symmetryType), message);
+                }
+            }
+        }
+    }
+
+    /**
+     * The list based selection {@link BooleanMask#getSpacedCoordinates} used before the coordinate grid
+     */
+    private static List<Vector2> spaceCoordinates(float radius, List<Vector2> coordinateList) {
+        List<Vector2> chosenCoordinates = new ArrayList<>();
+        while (!coordinateList.isEmpty()) {
+            Vector2 location = coordinateList.removeFirst();
+            chosenCoordinates.add(location);
+            coordinateList.removeIf(loc -> location.getDistance(loc) < radius);
+        }
+        return chosenCoordinates;
+    }
+
+    /**
+     * The list based selection {@link BooleanMask#getRandomCoordinates} used before the coordinate grid, drawing from
+     * the random of the mask in the same order
+     */
+    private static List<Vector2> getRandomCoordinates(BooleanMask mask, float minSpacing, float maxSpacing,
+                                                      SymmetryType symmetryType) {
+        List<Vector2> coordinateList;
+        if (symmetryType != null) {
+            coordinateList = mask.copy().limitToSymmetryRegion().getAllCoordinatesEqualTo(true);
+        } else {
+            coordinateList = mask.getAllCoordinatesEqualTo(true);
+        }
+        List<Vector2> chosenCoordinates = new ArrayList<>();
+        while (!coordinateList.isEmpty()) {
+            Vector2 location = coordinateList.remove(mask.random.nextInt(coordinateList.size()));
+            float spacing = mask.random.nextFloat() * (maxSpacing - minSpacing) + minSpacing;
+            chosenCoordinates.add(location);
+            coordinateList.removeIf(loc -> location.getDistance(loc) < spacing);
+            if (symmetryType != null) {
+                List<Vector2> symmetryPoints = mask.getSymmetryPoints(location, symmetryType);
+                symmetryPoints.forEach(
+                        symPoint -> coordinateList.removeIf(loc -> symPoint.getDistance(loc) < spacing));
+            }
+        }
+        return chosenCoordinates;
+    }
+}
@@ -0,0 +1,136 @@
+package com.faforever.neroxis.mask;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import com.faforever.neroxis.map.SymmetryType;
+import com.faforever.neroxis.util.vector.Vector2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class SymmetryTableTest {
+    private static final int[] SIZES = {1, 2, 31, 64, 65};
+    private static final int LARGE_SIZE = 2049;
+
+    @ParameterizedTest
+    @EnumSource(Symmetry.class)
+    public void TestSymmetryTableMatchesSymmetryPoints(Symmetry symmetry) {
+        for (Symmetry teamSymmetry : getTeamSymmetries(symmetry)) {
+            SymmetrySettings symmetrySettings = new SymmetrySettings(symmetry, teamSymmetry, symmetry);
+            for (int size : SIZES) {
+                BooleanMask mask = new BooleanMask(size, 0L, symmetrySettings, "symmetry", false);
+                for (SymmetryType symmetryType : new SymmetryType[]{SymmetryType.TERRAIN, SymmetryType.SPAWN}) {
+                    String message = String.format("%s team %s size %d", symmetry, teamSymmetry, size);
+                    SymmetryTable symmetryTable = mask.getSymmetryTable(symmetryType);
+                    assertSlotsMatch(mask, symmetryTable, symmetryType, message);
+                    for (int x = 0; x < size; x++) {
+                        for (int y = 0; y < size; y++) {
+                            List<Integer> points = new ArrayList<>();
+                            symmetryTable.forEachSymmetryPoint(x, y, (sx, sy) -> points.add(sx * size + sy));
+
+                            assertEquals(getTruncatedSymmetryPoints(mask, x, y, symmetryType), points,
+                                         String.format("%s pixel %d %d", message, x, y));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Symmetry.class, names = {"POINT3", "POINT6", "POINT7", "POINT16"})
+    public void TestRotatedPointsAreBoundedRoundedButTruncated(Symmetry symmetry) {
+        // Rotated points just below zero round into bounds and truncate to zero, points just below the size round
+        // out of bounds, the table has to treat both exactly like the Vector2 points
+        int size = 65;
+        BooleanMask mask = new BooleanMask(size, 0L, new SymmetrySettings(symmetry), "symmetry", false);
+        SymmetryTable symmetryTable = mask.getSymmetryTable(SymmetryType.SPAWN);
+        int roundedIntoBounds = 0;
+        int roundedOutOfBounds = 0;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                List<Vector2> points = mask.getSymmetryPointsWithOutOfBounds(x, y, SymmetryType.SPAWN);
+                for (int i = 0; i < points.size(); i++) {
+                    Vector2 point = points.get(i);
+                    boolean flooredInBounds = Mask.inBounds((int) StrictMath.floor(point.getX()),
+                                                            (int) StrictMath.floor(point.getY()), size);
+                    if (mask.inBounds(point) && !flooredInBounds) {
+                        roundedIntoBounds++;
+                        assertEquals((int) point.getX() * size + (int) point.getY(),
+                                     symmetryTable.getSymmetryPoint(x, y, i));
+                    } else if (!mask.inBounds(point) && flooredInBounds) {
+                        roundedOutOfBounds++;
+                        assertEquals(-1, symmetryTable.getSymmetryPoint(x, y, i));
+                    }
+                }
+            }
+        }
+
+        assertTrue(roundedIntoBounds > 0);
+        assertTrue(roundedOutOfBounds > 0);
+    }
+
+    @Test
+    public void TestCacheIsBoundedByBytes() {
+        for (Symmetry symmetry : new Symmetry[]{Symmetry.POINT2, Symmetry.X, Symmetry.Z, Symmetry.XZ, Symmetry.ZX,
+                                                Symmetry.NONE}) {
+            BooleanMask mask = new BooleanMask(LARGE_SIZE, 0L, new SymmetrySettings(symmetry), "large", false);
+            mask.getSymmetryTable(SymmetryType.SPAWN);
+
+            assertTrue(SymmetryTable.getCachedBytes() <= SymmetryTable.MAX_CACHED_BYTES);
+        }
+    }
+
+    /**
+     * Team symmetry only changes the order of the QUAD and DIAG symmetry points
+     */
+    private static Symmetry[] getTeamSymmetries(Symmetry symmetry) {
+        return switch (symmetry) {
+            case QUAD -> new Symmetry[]{Symmetry.X, Symmetry.Z, Symmetry.QUAD};
+            case DIAG -> new Symmetry[]{Symmetry.XZ, Symmetry.ZX, Symmetry.DIAG};
+            default -> new Symmetry[]{symmetry};
+        };
+    }
+
+    /**
+     * Sources must follow the order of {@link Mask#loopWithSymmetry} and partners must be the truncated symmetry
+     * points, with -1 where {@link Mask#getSymmetryPoints} drops a point
+     */
+    private static void assertSlotsMatch(Mask<?, ?> mask, SymmetryTable symmetryTable, SymmetryType symmetryType,
+                                         String message) {
+        int size = mask.getSize();
+        List<Integer> sources = new ArrayList<>();
+        mask.loopWithSymmetry(symmetryType, (x, y) -> sources.add(x * size + y));
+        assertEquals(sources.size(), symmetryTable.getSourceCount(), message);
+        for (int slot = 0; slot < symmetryTable.getSourceCount(); slot++) {
+            int source = sources.get(slot);
+            assertEquals(source, symmetryTable.getSource(slot), message);
+            List<Vector2> points = mask.getSymmetryPointsWithOutOfBounds(source / size, source % size, symmetryType);
+            assertEquals(points.size(), symmetryTable.getPartnerCount(), message);
+            for (int i = 0; i < points.size(); i++) {
+                Vector2 point = points.get(i);
+                int expected = mask.inBounds(point) ? (int) point.getX() * size + (int) point.getY() : -1;
+                assertEquals(expected, symmetryTable.getPartner(slot, i), message);
+            }
+        }
+    }
+
+    private static List<Integer> getTruncatedSymmetryPoints(Mask<?, ?> mask, int x, int y,
+                                                            SymmetryType symmetryType) {
+        int size = mask.getSize();
+        List<Integer> points = new ArrayList<>();
+        for (Vector2 point : mask.getSymmetryPoints(x, y, symmetryType)) {
+            points.add((int) point.getX() * size + (int) point.getY());
+        }
+        return points;
+    }
+}
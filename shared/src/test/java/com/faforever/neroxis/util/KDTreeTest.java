@@ -0,0 +1,144 @@
+package com.faforever.neroxis.util;
+
+import com.faforever.neroxis.util.vector.Vector2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class KDTreeTest {
+    private static final int SET_COUNT = 2000;
+    private static final int MAP_SIZE = 64;
+
+    @Test
+    public void TestKDTreeMatchesOrderedScan() {
+        Random random = new Random(0);
+        for (int set = 0; set < SET_COUNT; set++) {
+            List<Vector2> coordinates = getRandomCoordinates(random, random.nextInt(200));
+            KDTree kdTree = new KDTree(coordinates);
+            boolean[] removed = new boolean[coordinates.size()];
+            int queries = 1 + random.nextInt(50);
+            for (int query = 0; query < queries; query++) {
+                // Points off the map and exact coordinates of the set produce distances of zero and ties
+                Vector2 point = random.nextBoolean() || coordinates.isEmpty()
+                                ? getRandomPoint(random, -MAP_SIZE, 2 * MAP_SIZE)
+                                : new Vector2(coordinates.get(random.nextInt(coordinates.size())));
+                float maxDistance = getMaxDistance(random, coordinates, point);
+
+                int expected = findNearest(coordinates, removed, point, maxDistance);
+                assertEquals(expected, kdTree.findNearest(point, maxDistance),
+                             String.format("set %d query %d point %s max distance %f", set, query, point,
+                                           maxDistance));
+
+                if (expected != -1 && random.nextBoolean()) {
+                    kdTree.remove(expected);
+                    removed[expected] = true;
+                } else if (!coordinates.isEmpty()) {
+                    int index = random.nextInt(coordinates.size());
+                    kdTree.remove(index);
+                    removed[index] = true;
+                }
+            }
+            for (int i = 0; i < coordinates.size(); i++) {
+                assertEquals(removed[i], kdTree.isRemoved(i));
+            }
+        }
+    }
+
+    @Test
+    public void TestKDTreeDistanceIsStrictlyLessThanMax() {
+        KDTree kdTree = new KDTree(List.of(new Vector2(6, 8), new Vector2(0, 0)));
+        Vector2 point = new Vector2(3, 4);
+
+        assertEquals(-1, kdTree.findNearest(point, 5f));
+        assertEquals(0, kdTree.findNearest(point, 5.0001f));
+        kdTree.remove(0);
+        assertEquals(1, kdTree.findNearest(point, Float.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void TestKDTreeDuplicatesResolveToLowestRemainingIndex() {
+        List<Vector2> coordinates = List.of(new Vector2(1, 1), new Vector2(5, 5), new Vector2(5, 5),
+                                            new Vector2(5, 5));
+        KDTree kdTree = new KDTree(coordinates);
+        Vector2 point = new Vector2(5, 5);
+
+        assertEquals(1, kdTree.findNearest(point, 1f));
+        kdTree.remove(1);
+        assertEquals(2, kdTree.findNearest(point, 1f));
+        kdTree.remove(2);
+        kdTree.remove(2);
+        assertEquals(3, kdTree.findNearest(point, 1f));
+        kdTree.remove(3);
+        assertTrue(kdTree.isRemoved(3));
+        assertFalse(kdTree.isRemoved(0));
+        assertEquals(-1, kdTree.findNearest(point, 1f));
+        assertEquals(0, kdTree.findNearest(point, 10f));
+        kdTree.remove(0);
+        assertEquals(-1, kdTree.findNearest(point, Float.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void TestKDTreeEmpty() {
+        KDTree kdTree = new KDTree(List.of());
+
+        assertEquals(-1, kdTree.findNearest(new Vector2(0, 0), Float.POSITIVE_INFINITY));
+    }
+
+    private static int findNearest(List<Vector2> coordinates, boolean[] removed, Vector2 point, float maxDistance) {
+        int nearestIndex = -1;
+        float nearestDistance = maxDistance;
+        for (int i = 0; i < coordinates.size(); i++) {
+            if (removed[i]) {
+                continue;
+            }
+            float distance = coordinates.get(i).getDistance(point);
+            if (distance < nearestDistance) {
+                nearestIndex = i;
+                nearestDistance = distance;
+            }
+        }
+        return nearestIndex;
+    }
+
+    /**
+     * Picks either no limit, a random limit or exactly the distance to one of the coordinates, which the strict
+     * comparison must exclude
+     */
+    private static float getMaxDistance(Random random, List<Vector2> coordinates, Vector2 point) {
+        return switch (random.nextInt(3)) {
+            case 0 -> Float.POSITIVE_INFINITY;
+            case 1 -> random.nextFloat() * MAP_SIZE / 2;
+            default -> coordinates.isEmpty()
+                       ? 0
+                       : coordinates.get(random.nextInt(coordinates.size())).getDistance(point);
+        };
+    }
+
+    private static List<Vector2> getRandomCoordinates(Random random, int count) {
+        List<Vector2> coordinates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (!coordinates.isEmpty() && random.nextInt(5) == 0) {
+                coordinates.add(new Vector2(coordinates.get(random.nextInt(coordinates.size()))));
+            } else if (random.nextBoolean()) {
+                // Integer coordinates put many points at equal distances from a query
+                coordinates.add(new Vector2(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE)));
+            } else {
+                coordinates.add(getRandomPoint(random, 0, MAP_SIZE));
+            }
+        }
+        return coordinates;
+    }
+
+    private static Vector2 getRandomPoint(Random random, float min, float max) {
+        return new Vector2(min + random.nextFloat() * (max - min), min + random.nextFloat() * (max - min));
+    }
+}
@@ -0,0 +1,264 @@
+package com.faforever.neroxis.util;
+
+import com.faforever.neroxis.util.functional.ToBooleanBiIntFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class KernelUtilTest {
+    // none of the larger sizes is a multiple of 64, so the last word of a bit array is only partly used
+    private static final int[] SIZES = {1, 2, 5, 63, 65, 100, 130};
+    private static final float[] DENSITIES = {0f, .5f, 1f};
+    private static final float[] SQUARED_RADII = {0f, .25f, 1f, 2f, 4.5f, 8f, 30.25f, 100f};
+
+    @Test
+    public void TestFloatBoxBlurMatchesWindowAverage() {
+        Random random = new Random(0);
+        for (int size : SIZES) {
+            for (int radius : getRadii(size)) {
+                for (boolean filtered : new boolean[]{false, true}) {
+                    float[] values = getRandomFloats(random, size);
+                    ToBooleanBiIntFunction filter = filtered ? getRandomFilter(random, size) : null;
+                    String message = String.format("size %d radius %d filtered %b", size, radius, filtered);
+
+                    float[] blurred = values.clone();
+                    KernelUtil.boxBlur(blurred, size, radius, filter);
+                    assertArrayEquals(getFloatWindowAverage(values, size, radius, filter, false), blurred, message);
+
+                    float[] rounded = values.clone();
+                    KernelUtil.boxBlurRounded(rounded, size, radius, filter);
+                    assertArrayEquals(getFloatWindowAverage(values, size, radius, filter, true), rounded, message);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestFloatBoxBlurWithoutFilterWritesEveryPixel() {
+        Random random = new Random(0);
+        for (int size : SIZES) {
+            for (int radius : getRadii(size)) {
+                float[] values = getRandomFloats(random, size);
+                float[] blurred = values.clone();
+                float[] filtered = values.clone();
+
+                KernelUtil.boxBlur(blurred, size, radius);
+                KernelUtil.boxBlur(filtered, size, radius, (x, y) -> true);
+                assertArrayEquals(filtered, blurred, String.format("size %d radius %d", size, radius));
+            }
+        }
+    }
+
+    @Test
+    public void TestIntegerBoxBlurMatchesWindowAverage() {
+        Random random = new Random(0);
+        for (int size : SIZES) {
+            for (int radius : getRadii(size)) {
+                for (boolean filtered : new boolean[]{false, true}) {
+                    int[] values = random.ints((long) size * size, -50, 200).toArray();
+                    ToBooleanBiIntFunction filter = filtered ? getRandomFilter(random, size) : null;
+
+                    int[] blurred = values.clone();
+                    KernelUtil.boxBlur(blurred, size, radius, filter);
+                    assertArrayEquals(getIntegerWindowAverage(values, size, radius, filter), blurred,
+                                      String.format("size %d radius %d filtered %b", size, radius, filtered));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestBoxThresholdMatchesWindowDensity() {
+        Random random = new Random(0);
+        for (int size : SIZES) {
+            for (int radius : getRadii(size)) {
+                for (float density : DENSITIES) {
+                    for (boolean filtered : new boolean[]{false, true}) {
+                        long[] source = getRandomBits(random, size, random.nextFloat());
+                        long[] target = getRandomBits(random, size, .5f);
+                        ToBooleanBiIntFunction filter = filtered ? getRandomFilter(random, size) : null;
+                        long[] expected = getWindowThreshold(source, target, size, radius, density, filter);
+
+                        KernelUtil.boxThreshold(source, target, size, radius, density, filter);
+                        assertArrayEquals(expected, target,
+                                          String.format("size %d radius %d density %f filtered %b", size, radius,
+                                                        density, filtered));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestDilateMatchesMarkInRadius() {
+        Random random = new Random(0);
+        for (int size : SIZES) {
+            // the last radius covers the whole array from any pixel
+            float[] squaredRadii = Arrays.copyOf(SQUARED_RADII, SQUARED_RADII.length + 1);
+            squaredRadii[SQUARED_RADII.length] = 2f * size * size;
+            for (float squaredRadius : squaredRadii) {
+                for (boolean value : new boolean[]{true, false}) {
+                    // sparse bits of the grown value so the grown regions stay apart
+                    long[] bits = getRandomBits(random, size, value ? .97f : .03f);
+                    long[] expected = getDilated(bits, size, value, squaredRadius);
+
+                    KernelUtil.dilate(bits, size, value, squaredRadius);
+                    assertArrayEquals(expected, bits,
+                                      String.format("size %d squared radius %f value %b", size, squaredRadius, value));
+                }
+            }
+        }
+    }
+
+    /**
+     * Radius zero, small radii and radii reaching or passing the edge of the array
+     */
+    private static int[] getRadii(int size) {
+        return IntStream.of(0, 1, 2, 5, size - 1, size, size + 3).filter(radius -> radius >= 0).distinct().toArray();
+    }
+
+    /**
+     * Averages every window of the thousandth rounded values, summed in an int as the summed area table did
+     */
+    private static float[] getFloatWindowAverage(float[] values, int size, int radius, ToBooleanBiIntFunction filter,
+                                                 boolean roundAverages) {
+        float[] averaged = values.clone();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (filter != null && !filter.apply(x, y)) {
+                    continue;
+                }
+                int sum = 0;
+                int area = 0;
+                for (int windowX = StrictMath.max(0, x - radius); windowX <= StrictMath.min(size - 1, x + radius);
+                     windowX++) {
+                    for (int windowY = StrictMath.max(0, y - radius); windowY <= StrictMath.min(size - 1, y + radius);
+                         windowY++) {
+                        sum += StrictMath.round(values[windowX * size + windowY] * 1000f);
+                        area++;
+                    }
+                }
+                averaged[x * size + y] = roundAverages ? StrictMath.round((float) sum / area) / 1000f
+                                                       : (float) sum / area / 1000f;
+            }
+        }
+        return averaged;
+    }
+
+    private static int[] getIntegerWindowAverage(int[] values, int size, int radius, ToBooleanBiIntFunction filter) {
+        int[] averaged = values.clone();
+        if (radius == 0) {
+            return averaged;
+        }
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (filter != null && !filter.apply(x, y)) {
+                    continue;
+                }
+                long sum = 0;
+                int area = 0;
+                for (int windowX = StrictMath.max(0, x - radius); windowX <= StrictMath.min(size - 1, x + radius);
+                     windowX++) {
+                    for (int windowY = StrictMath.max(0, y - radius); windowY <= StrictMath.min(size - 1, y + radius);
+                         windowY++) {
+                        sum += values[windowX * size + windowY];
+                        area++;
+                    }
+                }
+                averaged[x * size + y] = StrictMath.round((float) sum / area);
+            }
+        }
+        return averaged;
+    }
+
+    private static long[] getWindowThreshold(long[] source, long[] target, int size, int radius, float density,
+                                             ToBooleanBiIntFunction filter) {
+        long[] thresholded = target.clone();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (filter != null && !filter.apply(x, y)) {
+                    continue;
+                }
+                int count = 0;
+                int area = 0;
+                for (int windowX = StrictMath.max(0, x - radius); windowX <= StrictMath.min(size - 1, x + radius);
+                     windowX++) {
+                    for (int windowY = StrictMath.max(0, y - radius); windowY <= StrictMath.min(size - 1, y + radius);
+                         windowY++) {
+                        count += getBit(source, windowX * size + windowY) ? 1 : 0;
+                        area++;
+                    }
+                }
+                setBit(thresholded, x * size + y, (float) count / area >= density);
+            }
+        }
+        return thresholded;
+    }
+
+    /**
+     * Marks every pixel within the radius of each pixel of the grown value, as the masks did before the distance
+     * transform
+     */
+    private static long[] getDilated(long[] bits, int size, boolean value, float squaredRadius) {
+        long[] dilated = bits.clone();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (getBit(bits, x * size + y) != value) {
+                    continue;
+                }
+                for (int otherX = 0; otherX < size; otherX++) {
+                    for (int otherY = 0; otherY < size; otherY++) {
+                        long squaredDistance = (long) (otherX - x) * (otherX - x) + (long) (otherY - y) * (otherY - y);
+                        if (squaredDistance <= squaredRadius) {
+                            setBit(dilated, otherX * size + otherY, value);
+                        }
+                    }
+                }
+            }
+        }
+        return dilated;
+    }
+
+    private static float[] getRandomFloats(Random random, int size) {
+        float[] values = new float[size * size];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextFloat() * 2 - .5f;
+        }
+        return values;
+    }
+
+    private static ToBooleanBiIntFunction getRandomFilter(Random random, int size) {
+        long[] bits = getRandomBits(random, size, .5f);
+        return (x, y) -> getBit(bits, x * size + y);
+    }
+
+    /**
+     * Random bits including the unused tail of the last word, which the kernels must leave alone
+     */
+    private static long[] getRandomBits(Random random, int size, float density) {
+        long[] bits = new long[(size * size + 63) / 64];
+        for (int i = 0; i < bits.length * 64; i++) {
+            setBit(bits, i, random.nextFloat() < density);
+        }
+        return bits;
+    }
+
+    private static boolean getBit(long[] bits, int bitIndex) {
+        return ((bits[bitIndex / 64] >>> bitIndex) & 1) != 0;
+    }
+
+    private static void setBit(long[] bits, int bitIndex, boolean value) {
+        if (value) {
+            bits[bitIndex / 64] |= 1L << bitIndex;
+        } else {
+            bits[bitIndex / 64] &= ~(1L << bitIndex);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.faforever.neroxis.util;
+
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.map.SymmetrySettings;
+import com.faforever.neroxis.mask.FloatMask;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class PipelineTest {
+    private static final SymmetrySettings SYMMETRY_SETTINGS = new SymmetrySettings(Symmetry.NONE);
+
+    @Test
+    public void TestReadyEntriesRunByRemainingCost() {
+        LinkedList<Runnable> slots = new LinkedList<>();
+        Pipeline pipeline = new Pipeline(slots::add);
+        pipeline.runInContext(() -> {
+            FloatMask shortChain = new FloatMask(32, 0L, SYMMETRY_SETTINGS, "shortChain", true);
+            FloatMask longChain = new FloatMask(64, 0L, SYMMETRY_SETTINGS, "longChain", true);
+            shortChain.add(1f);
+            for (int i = 0; i < 4; i++) {
+                longChain.add(1f);
+            }
+        });
+
+        pipeline.start();
+        List<String> order = runSlots(slots, List.of(pipeline));
+
+        // Creating a mask enqueues its initialisation, so every chain is one entry longer than its operations
+        assertEquals(List.of("longChain", "longChain", "longChain", "longChain", "longChain", "shortChain",
+                             "shortChain"), order);
+    }
+
+    @Test
+    public void TestPipelinesAreNotRankedAgainstEachOther() {
+        LinkedList<Runnable> slots = new LinkedList<>();
+        Pipeline largePipeline = new Pipeline(slots::add);
+        Pipeline smallPipeline = new Pipeline(slots::add);
+        largePipeline.runInContext(() -> {
+            FloatMask mask = new FloatMask(512, 0L, SYMMETRY_SETTINGS, "large", true);
+            for (int i = 0; i < 6; i++) {
+                mask.add(1f);
+            }
+        });
+        smallPipeline.runInContext(() -> {
+            FloatMask mask = new FloatMask(16, 0L, SYMMETRY_SETTINGS, "small", true);
+            for (int i = 0; i < 3; i++) {
+                mask.add(1f);
+            }
+        });
+
+        largePipeline.start();
+        smallPipeline.start();
+        List<String> order = runSlots(slots, List.of(largePipeline, smallPipeline));
+
+        assertEquals(List.of("large", "small", "large", "small", "large", "small", "large", "small", "large", "large",
+                             "large"), order);
+    }
+
+    @Test
+    public void TestCriticalPathOfSingleChain() {
+        LinkedList<Runnable> slots = new LinkedList<>();
+        Pipeline pipeline = new Pipeline(slots::add);
+        pipeline.runInContext(() -> {
+            FloatMask mask = new FloatMask(32, 0L, SYMMETRY_SETTINGS, "chain", true);
+            for (int i = 0; i < 5; i++) {
+                mask.add(1f);
+            }
+        });
+
+        pipeline.start();
+        runSlots(slots, List.of(pipeline));
+
+        assertEquals(pipeline.getEntries(), pipeline.getCriticalPath());
+    }
+
+    @Test
+    public void TestCriticalPathIsLongestChain() {
+        LinkedList<Runnable> slots = new LinkedList<>();
+        Pipeline pipeline = createMergingPipeline(slots);
+
+        pipeline.start();
+        runSlots(slots, List.of(pipeline));
+        List<Pipeline.Entry> criticalPath = pipeline.getCriticalPath();
+
+        assertTrue(criticalPath.getFirst().getDependencies().isEmpty());
+        for (int i = 1; i < criticalPath.size(); i++) {
+            assertTrue(criticalPath.get(i).getDependencies().contains(criticalPath.get(i - 1)));
+        }
+        long criticalPathTime = criticalPath.stream().mapToLong(Pipeline.Entry::getExecutionTime).sum();
+        Map<Pipeline.Entry, Long> longestPathTimes = new HashMap<>();
+        for (Pipeline.Entry entry : pipeline.getEntries()) {
+            long longestDependencyTime = entry.getDependencies()
+                                              .stream()
+                                              .mapToLong(longestPathTimes::get)
+                                              .max()
+                                              .orElse(0);
+            longestPathTimes.put(entry, longestDependencyTime + entry.getExecutionTime());
+        }
+        long longestPathTime = longestPathTimes.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertEquals(longestPathTime, criticalPathTime);
+    }
+
+    @Test
+    public void TestTraceFile(@TempDir Path tempDir) throws IOException {
+        LinkedList<Runnable> slots = new LinkedList<>();
+        Pipeline pipeline = createMergingPipeline(slots);
+
+        pipeline.start();
+        runSlots(slots, List.of(pipeline));
+        Path traceFile = tempDir.resolve("pipelineTrace.json");
+        pipeline.toTraceFile(traceFile);
+        String trace = Files.readString(traceFile);
+
+        assertTrue(trace.startsWith("{\"traceEvents\":[\n"));
+        assertTrue(trace.endsWith("\n]}\n"));
+        assertEquals(pipeline.getPipelineSize(), countMatches(trace, "\"ph\":\"X\""));
+        assertEquals(pipeline.getCriticalPath().size(), countMatches(trace, "\"critical\":true"));
+        assertEquals(1, countMatches(trace, "\"name\":\"thread_name\""));
+        assertTrue(trace.contains("\"name\":\"quoted\\\"mask\""));
+        for (Pipeline.Entry entry : pipeline.getEntries()) {
+            String dependencies = entry.getDependencies()
+                                       .stream()
+                                       .map(dependency -> String.valueOf(dependency.getIndex()))
+                                       .reduce((first, second) -> first + "," + second)
+                                       .orElse("");
+            assertTrue(trace.contains(String.format("{\"index\":%d,", entry.getIndex())));
+            assertTrue(trace.contains(String.format("\"depth\":%d,", entry.getDepth())));
+            assertTrue(trace.contains(String.format("\"dependencies\":[%s]", dependencies)));
+        }
+    }
+
+    private static Pipeline createMergingPipeline(List<Runnable> slots) {
+        Pipeline pipeline = new Pipeline(slots::add);
+        pipeline.runInContext(() -> {
+            FloatMask first = new FloatMask(64, 0L, SYMMETRY_SETTINGS, "first", true);
+            FloatMask second = new FloatMask(64, 0L, SYMMETRY_SETTINGS, "quoted\"mask", true);
+            first.add(1f);
+            second.add(2f);
+            second.multiply(3f);
+            first.add(second);
+            first.multiply(2f);
+            second.add(1f);
+        });
+        return pipeline;
+    }
+
+    /**
+     * Runs the submitted slots one at a time and records the name of the mask of the entry each of them executed
+     */
+    private static List<String> runSlots(LinkedList<Runnable> slots, List<Pipeline> pipelines) {
+        List<String> order = new ArrayList<>();
+        Set<Pipeline.Entry> doneEntries = new HashSet<>();
+        while (!slots.isEmpty()) {
+            slots.removeFirst().run();
+            pipelines.forEach(pipeline -> pipeline.getEntries().forEach(entry -> {
+                if (entry.getFuture().isDone() && doneEntries.add(entry)) {
+                    order.add(entry.getExecutingMask().getName());
+                }
+            }));
+        }
+        return order;
+    }
+
+    private static int countMatches(String text, String literal) {
+        Matcher matcher = Pattern.compile(Pattern.quote(literal)).matcher(text);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
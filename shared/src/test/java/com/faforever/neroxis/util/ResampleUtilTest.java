@@ -0,0 +1,125 @@
+package com.faforever.neroxis.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class ResampleUtilTest {
+    private static final int[] SIZES = {1, 2, 3, 7, 16, 33, 64};
+    private static final float TOLERANCE = 1e-4f;
+
+    @Test
+    public void TestAreaAverageMatchesCoveredArea() {
+        Random random = new Random(0);
+        for (int size : SIZES) {
+            float[] values = getRandomValues(random, size);
+            for (int newSize = 1; newSize <= size; newSize++) {
+                assertArrayNear(getAreaAverage(values, size, newSize), ResampleUtil.areaAverage(values, size, newSize),
+                                String.format("%d to %d", size, newSize));
+            }
+        }
+    }
+
+    @Test
+    public void TestBilinearMatchesInterpolation() {
+        Random random = new Random(0);
+        for (int size : SIZES) {
+            float[] values = getRandomValues(random, size);
+            for (int newSize = size; newSize <= 2 * size + 3; newSize++) {
+                assertArrayNear(getBilinear(values, size, newSize), ResampleUtil.bilinear(values, size, newSize),
+                                String.format("%d to %d", size, newSize));
+            }
+        }
+    }
+
+    @Test
+    public void TestSameSizeKeepsValues() {
+        Random random = new Random(0);
+        for (int size : SIZES) {
+            float[] values = getRandomValues(random, size);
+
+            assertArrayNear(values, ResampleUtil.areaAverage(values, size, size), "area average");
+            assertArrayNear(values, ResampleUtil.bilinear(values, size, size), "bilinear");
+        }
+    }
+
+    @Test
+    public void TestWrongDirectionThrows() {
+        float[] values = new float[16];
+
+        assertThrows(IllegalArgumentException.class, () -> ResampleUtil.areaAverage(values, 4, 5));
+        assertThrows(IllegalArgumentException.class, () -> ResampleUtil.bilinear(values, 4, 3));
+    }
+
+    /**
+     * Integrates the values over the square every new pixel covers, in double precision
+     */
+    private static float[] getAreaAverage(float[] values, int size, int newSize) {
+        double scale = (double) size / newSize;
+        float[] averaged = new float[newSize * newSize];
+        for (int x = 0; x < newSize; x++) {
+            for (int y = 0; y < newSize; y++) {
+                double sum = 0;
+                for (int sourceX = 0; sourceX < size; sourceX++) {
+                    double coverageX = getCoverage(x * scale, (x + 1) * scale, sourceX);
+                    for (int sourceY = 0; sourceY < size; sourceY++) {
+                        double coverageY = getCoverage(y * scale, (y + 1) * scale, sourceY);
+                        sum += coverageX * coverageY * values[sourceX * size + sourceY];
+                    }
+                }
+                averaged[x * newSize + y] = (float) (sum / (scale * scale));
+            }
+        }
+        return averaged;
+    }
+
+    private static double getCoverage(double start, double end, int index) {
+        return StrictMath.max(0, StrictMath.min(end, index + 1) - StrictMath.max(start, index));
+    }
+
+    /**
+     * Interpolates between the four source pixel centers around the center of every new pixel, in double precision
+     */
+    private static float[] getBilinear(float[] values, int size, int newSize) {
+        double scale = (double) size / newSize;
+        float[] interpolated = new float[newSize * newSize];
+        for (int x = 0; x < newSize; x++) {
+            double positionX = StrictMath.min(StrictMath.max((x + .5) * scale - .5, 0), size - 1);
+            int lowX = (int) positionX;
+            int highX = StrictMath.min(lowX + 1, size - 1);
+            double fractionX = positionX - lowX;
+            for (int y = 0; y < newSize; y++) {
+                double positionY = StrictMath.min(StrictMath.max((y + .5) * scale - .5, 0), size - 1);
+                int lowY = (int) positionY;
+                int highY = StrictMath.min(lowY + 1, size - 1);
+                double fractionY = positionY - lowY;
+                double low = (1 - fractionY) * values[lowX * size + lowY] + fractionY * values[lowX * size + highY];
+                double high = (1 - fractionY) * values[highX * size + lowY] + fractionY * values[highX * size + highY];
+                interpolated[x * newSize + y] = (float) ((1 - fractionX) * low + fractionX * high);
+            }
+        }
+        return interpolated;
+    }
+
+    private static float[] getRandomValues(Random random, int size) {
+        float[] values = new float[size * size];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextFloat();
+        }
+        return values;
+    }
+
+    private static void assertArrayNear(float[] expected, float[] actual, String message) {
+        assertEquals(expected.length, actual.length, message);
+        for (int i = 0; i < expected.length; i++) {
+            int index = i;
+            assertEquals(expected[i], actual[i], TOLERANCE, () -> String.format("%s index %d", message, index));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.faforever.neroxis.util.jsquish;
+
+import com.faforever.neroxis.util.jsquish.Squish.CompressionMethod;
+import com.faforever.neroxis.util.jsquish.Squish.CompressionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class ColourBlockTest {
+    // 565 endpoints whose interpolated channels carry into their neighbours if the packed values are interpolated
+    private static final int LIGHT = 0xA54B;
+    private static final int DARK = 0x3A08;
+    // every row of pixels uses the codes 0, 1, 2 and 3 in order
+    private static final int ROW_INDICES = 0xE4;
+    // palettes computed with the reference squish decoder
+    private static final int[][] FOUR_COLOURS = {{165, 170, 90, 255}, {57, 65, 66, 255}, {129, 135, 82, 255},
+                                                 {93, 100, 74, 255}};
+    private static final int[][] FOUR_COLOURS_SWAPPED = {{57, 65, 66, 255}, {165, 170, 90, 255},
+                                                         {93, 100, 74, 255}, {129, 135, 82, 255}};
+    private static final int[][] THREE_COLOURS = {{57, 65, 66, 255}, {165, 170, 90, 255}, {111, 117, 78, 255},
+                                                  {0, 0, 0, 0}};
+
+    @Test
+    public void TestDecompressFourColourBlock() {
+        for (CompressionType type : CompressionType.values()) {
+            byte[] blocks = createBlock(type, LIGHT, DARK);
+
+            assertArrayEquals(toImage(FOUR_COLOURS), Squish.decompressImage(null, 4, 4, blocks, type), type.name());
+        }
+    }
+
+    @Test
+    public void TestDecompressThreeColourBlockOnlyForDXT1() {
+        assertArrayEquals(toImage(THREE_COLOURS),
+                          Squish.decompressImage(null, 4, 4, createBlock(CompressionType.DXT1, DARK, LIGHT),
+                                                 CompressionType.DXT1));
+        assertArrayEquals(toImage(FOUR_COLOURS_SWAPPED),
+                          Squish.decompressImage(null, 4, 4, createBlock(CompressionType.DXT3, DARK, LIGHT),
+                                                 CompressionType.DXT3));
+        assertArrayEquals(toImage(FOUR_COLOURS_SWAPPED),
+                          Squish.decompressImage(null, 4, 4, createBlock(CompressionType.DXT5, DARK, LIGHT),
+                                                 CompressionType.DXT5));
+    }
+
+    @Test
+    public void TestKnownBlockRoundTrips() {
+        byte[] rgba = toImage(FOUR_COLOURS);
+        for (CompressionType type : CompressionType.values()) {
+            for (CompressionMethod method : new CompressionMethod[]{CompressionMethod.CLUSTER_FIT,
+                                                                    CompressionMethod.RANGE_FIT}) {
+                byte[] blocks = Squish.compressImage(rgba, 4, 4, null, type, method);
+
+                assertArrayEquals(getColourBlock(type, createBlock(type, LIGHT, DARK)), getColourBlock(type, blocks),
+                                  type + " " + method);
+                assertArrayEquals(rgba, Squish.decompressImage(null, 4, 4, blocks, type), type + " " + method);
+            }
+        }
+    }
+
+    /**
+     * Builds a single block with the given endpoints and opaque alpha
+     */
+    private static byte[] createBlock(CompressionType type, int colour0, int colour1) {
+        byte[] block = new byte[type.blockSize];
+        switch (type) {
+            case DXT3 -> Arrays.fill(block, 0, 8, (byte) 0xFF);
+            case DXT5 -> {
+                // both alpha endpoints are opaque so every index decodes to 255
+                block[0] = (byte) 0xFF;
+                block[1] = (byte) 0xFF;
+            }
+            default -> {
+            }
+        }
+        int offset = type.blockOffset;
+        block[offset] = (byte) colour0;
+        block[offset + 1] = (byte) (colour0 >> 8);
+        block[offset + 2] = (byte) colour1;
+        block[offset + 3] = (byte) (colour1 >> 8);
+        Arrays.fill(block, offset + 4, offset + 8, (byte) ROW_INDICES);
+        return block;
+    }
+
+    private static byte[] getColourBlock(CompressionType type, byte[] block) {
+        return Arrays.copyOfRange(block, type.blockOffset, type.blockOffset + 8);
+    }
+
+    private static byte[] toImage(int[][] palette) {
+        byte[] rgba = new byte[64];
+        for (int i = 0; i < 16; i++) {
+            for (int channel = 0; channel < 4; channel++) {
+                rgba[4 * i + channel] = (byte) palette[i % 4][channel];
+            }
+        }
+        return rgba;
+    }
+}
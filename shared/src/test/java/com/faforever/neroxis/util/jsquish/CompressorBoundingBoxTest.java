@@ -0,0 +1,218 @@
+package com.faforever.neroxis.util.jsquish;
+
+import com.faforever.neroxis.util.jsquish.Squish.CompressionMethod;
+import com.faforever.neroxis.util.jsquish.Squish.CompressionMetric;
+import com.faforever.neroxis.util.jsquish.Squish.CompressionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class CompressorBoundingBoxTest {
+    private static final int BLOCK_COUNT = 5000;
+    private static final int FULL_MASK = 0xFFFF;
+    // endpoints are rounded to the 565 grid and midpoints truncated, so a decoded channel may leave the bounding box
+    // of the source colours by up to this much
+    private static final int TOLERANCE = 6;
+
+    @Test
+    public void TestFlatBlocksDecodeFlat() {
+        Random random = new Random(0);
+        for (CompressionType type : CompressionType.values()) {
+            BlockCompressor compressor = createCompressor(type);
+            for (int i = 0; i < BLOCK_COUNT; i++) {
+                byte[] rgba = new byte[64];
+                int red = random.nextInt(256);
+                int green = random.nextInt(256);
+                int blue = random.nextInt(256);
+                int alpha = type == CompressionType.DXT1 ? 255 : random.nextInt(256);
+                for (int pixel = 0; pixel < 16; pixel++) {
+                    setPixel(rgba, pixel, red, green, blue, alpha);
+                }
+
+                byte[] decoded = compressAndDecode(compressor, type, rgba, FULL_MASK);
+
+                for (int pixel = 0; pixel < 16; pixel++) {
+                    for (int channel = 0; channel < 4; channel++) {
+                        assertEquals(decoded[channel], decoded[4 * pixel + channel]);
+                    }
+                    assertChannelNear(red, decoded[4 * pixel], type);
+                    assertChannelNear(green, decoded[4 * pixel + 1], type);
+                    assertChannelNear(blue, decoded[4 * pixel + 2], type);
+                }
+                if (type == CompressionType.DXT5) {
+                    assertEquals(alpha, decoded[3] & 0xFF);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestEmptyMaskWritesZeroEndpoints() {
+        Random random = new Random(0);
+        for (CompressionType type : CompressionType.values()) {
+            BlockCompressor compressor = createCompressor(type);
+            byte[] rgba = new byte[64];
+            random.nextBytes(rgba);
+            byte[] block = new byte[type.blockSize];
+
+            compressor.compress(rgba, 0, block, 0);
+
+            assertArrayEquals(new byte[8], Arrays.copyOfRange(block, type.blockOffset, type.blockOffset + 8),
+                              type.name());
+        }
+    }
+
+    @Test
+    public void TestTransparentDXT1BlockDecodesTransparent() {
+        BlockCompressor compressor = createCompressor(CompressionType.DXT1);
+        byte[] rgba = new byte[64];
+        for (int pixel = 0; pixel < 16; pixel++) {
+            setPixel(rgba, pixel, 200, 100, 50, 0);
+        }
+
+        byte[] decoded = compressAndDecode(compressor, CompressionType.DXT1, rgba, FULL_MASK);
+
+        for (int pixel = 0; pixel < 16; pixel++) {
+            assertEquals(0, decoded[4 * pixel + 3]);
+        }
+    }
+
+    @Test
+    public void TestRandomBlocksAreValid() {
+        Random random = new Random(0);
+        for (CompressionType type : CompressionType.values()) {
+            BlockCompressor compressor = createCompressor(type);
+            for (int i = 0; i < BLOCK_COUNT; i++) {
+                byte[] rgba = getRandomBlock(random);
+                int mask = random.nextBoolean() ? FULL_MASK : 1 + random.nextInt(FULL_MASK);
+                byte[] block = new byte[type.blockSize];
+                compressor.compress(rgba, mask, block, 0);
+
+                // pixels outside the mask must not change the block
+                byte[] otherRgba = rgba.clone();
+                for (int pixel = 0; pixel < 16; pixel++) {
+                    if ((mask & (1 << pixel)) == 0) {
+                        setPixel(otherRgba, pixel, random.nextInt(256), random.nextInt(256), random.nextInt(256),
+                                 random.nextInt(256));
+                    }
+                }
+                byte[] otherBlock = new byte[type.blockSize];
+                compressor.compress(otherRgba, mask, otherBlock, 0);
+                assertArrayEquals(block, otherBlock);
+
+                assertCodeBook(type, block, rgba, mask);
+                assertDecodedInBounds(type, Squish.decompressImage(null, 4, 4, block, type), rgba, mask);
+            }
+        }
+    }
+
+    /**
+     * Opaque DXT1 blocks and all DXT3/5 blocks must select the four colour code book so DXT1 decoders read them
+     * the same way, DXT1 blocks with transparent pixels must select the three colour code book
+     */
+    private static void assertCodeBook(CompressionType type, byte[] block, byte[] rgba, int mask) {
+        int offset = type.blockOffset;
+        int colour0 = (block[offset] & 0xFF) | (block[offset + 1] & 0xFF) << 8;
+        int colour1 = (block[offset + 2] & 0xFF) | (block[offset + 3] & 0xFF) << 8;
+        boolean transparent = false;
+        for (int pixel = 0; pixel < 16; pixel++) {
+            transparent |= type == CompressionType.DXT1
+                           && (mask & (1 << pixel)) != 0
+                           && (rgba[4 * pixel + 3] & 0xFF) < 128;
+        }
+        if (transparent) {
+            assertTrue(colour0 <= colour1);
+        } else if (colour0 == colour1) {
+            for (int i = 4; i < 8; i++) {
+                assertEquals(0, block[offset + i]);
+            }
+        } else {
+            assertTrue(colour0 > colour1);
+        }
+    }
+
+    private static void assertDecodedInBounds(CompressionType type, byte[] decoded, byte[] rgba, int mask) {
+        int[] min = {255, 255, 255};
+        int[] max = {0, 0, 0};
+        for (int pixel = 0; pixel < 16; pixel++) {
+            if ((mask & (1 << pixel)) == 0 || isTransparentDXT1(type, rgba, pixel)) {
+                continue;
+            }
+            for (int channel = 0; channel < 3; channel++) {
+                min[channel] = Math.min(min[channel], rgba[4 * pixel + channel] & 0xFF);
+                max[channel] = Math.max(max[channel], rgba[4 * pixel + channel] & 0xFF);
+            }
+        }
+        for (int pixel = 0; pixel < 16; pixel++) {
+            if ((mask & (1 << pixel)) == 0) {
+                continue;
+            }
+            if (isTransparentDXT1(type, rgba, pixel)) {
+                assertEquals(0, decoded[4 * pixel + 3]);
+                continue;
+            }
+            if (type == CompressionType.DXT1) {
+                assertEquals((byte) 255, decoded[4 * pixel + 3]);
+            }
+            for (int channel = 0; channel < 3; channel++) {
+                int value = decoded[4 * pixel + channel] & 0xFF;
+                assertTrue(value >= min[channel] - TOLERANCE && value <= max[channel] + TOLERANCE);
+            }
+        }
+    }
+
+    private static boolean isTransparentDXT1(CompressionType type, byte[] rgba, int pixel) {
+        return type == CompressionType.DXT1 && (rgba[4 * pixel + 3] & 0xFF) < 128;
+    }
+
+    private static void assertChannelNear(int expected, byte actual, CompressionType type) {
+        assertTrue(Math.abs(expected - (actual & 0xFF)) <= TOLERANCE, type.name());
+    }
+
+    /**
+     * Mixes noisy blocks, two colour blocks and blocks with a few outliers
+     */
+    private static byte[] getRandomBlock(Random random) {
+        byte[] rgba = new byte[64];
+        int[][] colours = new int[1 + random.nextInt(4)][];
+        for (int i = 0; i < colours.length; i++) {
+            colours[i] = new int[]{random.nextInt(256), random.nextInt(256), random.nextInt(256),
+                                   random.nextInt(4) == 0 ? random.nextInt(256) : 255};
+        }
+        for (int pixel = 0; pixel < 16; pixel++) {
+            if (random.nextInt(8) == 0) {
+                setPixel(rgba, pixel, random.nextInt(256), random.nextInt(256), random.nextInt(256),
+                         random.nextInt(256));
+            } else {
+                int[] colour = colours[random.nextInt(colours.length)];
+                setPixel(rgba, pixel, colour[0], colour[1], colour[2], colour[3]);
+            }
+        }
+        return rgba;
+    }
+
+    private static byte[] compressAndDecode(BlockCompressor compressor, CompressionType type, byte[] rgba, int mask) {
+        byte[] block = new byte[type.blockSize];
+        compressor.compress(rgba, mask, block, 0);
+        return Squish.decompressImage(null, 4, 4, block, type);
+    }
+
+    private static BlockCompressor createCompressor(CompressionType type) {
+        return new BlockCompressor(type, CompressionMethod.BOUNDING_BOX_FIT, CompressionMetric.PERCEPTUAL, false);
+    }
+
+    private static void setPixel(byte[] rgba, int pixel, int red, int green, int blue, int alpha) {
+        rgba[4 * pixel] = (byte) red;
+        rgba[4 * pixel + 1] = (byte) green;
+        rgba[4 * pixel + 2] = (byte) blue;
+        rgba[4 * pixel + 3] = (byte) alpha;
+    }
+}
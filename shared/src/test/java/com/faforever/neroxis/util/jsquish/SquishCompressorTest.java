@@ -0,0 +1,79 @@
+package com.faforever.neroxis.util.jsquish;
+
+import com.faforever.neroxis.util.jsquish.Squish.CompressionMethod;
+import com.faforever.neroxis.util.jsquish.Squish.CompressionType;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+@Execution(ExecutionMode.CONCURRENT)
+public class SquishCompressorTest {
+    private static final int[][] IMAGE_SIZES = {{1, 1}, {3, 5}, {37, 53}, {130, 67}};
+
+    private static Stream<Arguments> getCompressionSettings() {
+        return Arrays.stream(CompressionType.values())
+                     .flatMap(type -> Arrays.stream(CompressionMethod.values())
+                                            .map(method -> Arguments.of(type, method)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getCompressionSettings")
+    public void TestBandedCompressionMatchesSingleBand(CompressionType type, CompressionMethod method) {
+        Random random = new Random(type.ordinal() * 31L + method.ordinal());
+        SquishCompressor compressor = new SquishCompressor(type, method);
+        for (int[] size : IMAGE_SIZES) {
+            int width = size[0];
+            int height = size[1];
+            int blockRows = (height + 3) / 4;
+            byte[] rgba = getRandomImage(random, width, height);
+
+            byte[] singleBand = compress(compressor, rgba, width, height, blockRows);
+
+            assertArrayEquals(singleBand, compress(compressor, rgba, width, height, 1));
+            assertArrayEquals(singleBand, compress(compressor, rgba, width, height, 3));
+            assertArrayEquals(singleBand, compressor.compressImage(rgba, width, height, null));
+        }
+    }
+
+    private static byte[] compress(SquishCompressor compressor, byte[] rgba, int width, int height, int bandRows) {
+        byte[] blocks = new byte[Squish.getStorageRequirements(width, height, compressor.getType())];
+        compressor.compressImage(ByteBuffer.wrap(rgba), width, height, ByteBuffer.wrap(blocks), bandRows);
+        return blocks;
+    }
+
+    /**
+     * Mixes noisy, flat and gradient pixels so every block shape the fits handle differently shows up
+     */
+    private static byte[] getRandomImage(Random random, int width, int height) {
+        byte[] rgba = new byte[width * height * 4];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int index = 4 * (y * width + x);
+                switch ((x / 4 + y / 4) % 3) {
+                    case 0 -> {
+                        for (int channel = 0; channel < 4; channel++) {
+                            rgba[index + channel] = (byte) random.nextInt(256);
+                        }
+                    }
+                    case 1 -> Arrays.fill(rgba, index, index + 4, (byte) 0x7F);
+                    default -> {
+                        rgba[index] = (byte) (x * 7);
+                        rgba[index + 1] = (byte) (y * 5);
+                        rgba[index + 2] = (byte) (x + y);
+                        rgba[index + 3] = (byte) (255 - x);
+                    }
+                }
+            }
+        }
+        return rgba;
+    }
+}
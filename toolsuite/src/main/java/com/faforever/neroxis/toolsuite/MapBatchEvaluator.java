@@ -0,0 +1,192 @@
+package com.faforever.neroxis.toolsuite;
+
+import com.faforever.neroxis.cli.CLIUtils;
+import com.faforever.neroxis.cli.VersionProvider;
+import com.faforever.neroxis.importer.MapImporter;
+import com.faforever.neroxis.map.SCMap;
+import com.faforever.neroxis.map.Symmetry;
+import com.faforever.neroxis.toolsuite.MapEvaluator.SymmetryScores;
+import picocli.CommandLine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Option;
+import static picocli.CommandLine.Spec;
+
+@Command(name = "evaluate-batch", mixinStandardHelpOptions = true, description = "Evaluates the symmetry error of every map in a folder and writes one row per map and symmetry. Higher values represent greater asymmetry", versionProvider = VersionProvider.class, usageHelpAutoWidth = true)
+public class MapBatchEvaluator implements Callable<Integer> {
+    private static final String CSV_HEADER = "map,symmetry,oddVsEven,terrain,spawn,mex,hydro,prop,unit";
+    @Spec
+    private CommandLine.Model.CommandSpec spec;
+    private Path mapsPath;
+    private Path outputPath;
+    @Option(names = "--format", description = "Format of the rows, CSV or JSON (one object per line)", defaultValue = "CSV")
+    private OutputFormat outputFormat;
+    private int threads;
+
+    @Option(names = "--maps-path", required = true, description = "Folder containing the map folders to evaluate")
+    public void setMapsPath(Path mapsPath) {
+        CLIUtils.checkReadablePath(mapsPath, spec);
+        if (!Files.isDirectory(mapsPath)) {
+            throw new CommandLine.ParameterException(spec.commandLine(),
+                                                     String.format("%s is not a directory", mapsPath));
+        }
+        this.mapsPath = mapsPath;
+    }
+
+    @Option(names = "--out-file", description = "File to write the rows to, defaults to the standard output")
+    public void setOutputPath(Path outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    @Option(names = "--threads", description = "Number of evaluation threads and of maps held in memory at once, 0 uses one per processor", defaultValue = "0")
+    public void setThreads(int threads) {
+        if (threads < 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Threads must not be negative");
+        }
+        this.threads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        Writer writer = outputPath == null ?
+                        new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)) :
+                        Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8);
+        int failedMaps;
+        try {
+            if (outputFormat == OutputFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write(System.lineSeparator());
+            }
+            failedMaps = evaluateMaps(writer);
+        } finally {
+            if (outputPath == null) {
+                writer.flush();
+            } else {
+                writer.close();
+            }
+        }
+        if (failedMaps > 0) {
+            System.err.printf("%d maps could not be evaluated%n", failedMaps);
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Stream the map folders through the executor. A map holds a permit from its import until its rows are written,
+     * so at most {@link #threads} maps are in memory however many the folder contains. The symmetries of a map are
+     * evaluated as separate tasks on the same executor, none of which block on each other.
+     *
+     * @return the number of maps that failed to import or evaluate
+     */
+    private int evaluateMaps(Writer writer) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Semaphore mapsInFlight = new Semaphore(threads);
+        AtomicInteger failedMaps = new AtomicInteger();
+        try (DirectoryStream<Path> mapFolders = Files.newDirectoryStream(mapsPath, Files::isDirectory)) {
+            for (Path mapFolder : mapFolders) {
+                mapsInFlight.acquire();
+                CompletableFuture.supplyAsync(() -> importMap(mapFolder), executor)
+                                 .thenCompose(map -> evaluateSymmetries(map, executor))
+                                 .thenAccept(scores -> writeRows(writer, mapFolder, scores))
+                                 .whenComplete((ignored, throwable) -> {
+                                     if (throwable != null) {
+                                         failedMaps.incrementAndGet();
+                                         System.err.printf("Error while evaluating map %s: %s%n", mapFolder,
+                                                           throwable.getCause() != null ?
+                                                           throwable.getCause() :
+                                                           throwable);
+                                     }
+                                     mapsInFlight.release();
+                                 });
+            }
+            mapsInFlight.acquire(threads);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return failedMaps.get();
+    }
+
+    private static SCMap importMap(Path mapFolder) {
+        try {
+            return MapImporter.importMap(mapFolder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CompletableFuture<List<SymmetryScores>> evaluateSymmetries(SCMap map, ExecutorService executor) {
+        List<CompletableFuture<SymmetryScores>> futures = new ArrayList<>();
+        for (Symmetry symmetry : MapEvaluator.EVALUATED_SYMMETRIES) {
+            futures.add(CompletableFuture.supplyAsync(() -> MapEvaluator.evaluate(map, symmetry), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    private void writeRows(Writer writer, Path mapFolder, List<SymmetryScores> scores) {
+        String mapName = mapFolder.getFileName().toString();
+        List<String> rows = new ArrayList<>(scores.size());
+        for (SymmetryScores score : scores) {
+            rows.add(switch (outputFormat) {
+                case CSV -> toCsvRow(mapName, score);
+                case JSON -> toJsonRow(mapName, score);
+            });
+        }
+        // Rows of one map stay together, maps are written in the order they finish
+        synchronized (writer) {
+            try {
+                for (String row : rows) {
+                    writer.write(row);
+                    writer.write(System.lineSeparator());
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static String toCsvRow(String mapName, SymmetryScores score) {
+        String escapedName = mapName.contains(",") || mapName.contains("\"") ?
+                             "\"" + mapName.replace("\"", "\"\"") + "\"" :
+                             mapName;
+        return String.format(Locale.ROOT, "%s,%s,%s,%.8f,%.2f,%.2f,%.2f,%.2f,%.2f", escapedName, score.symmetry(),
+                             score.oddVsEven(), score.terrainScore(), score.spawnScore(), score.mexScore(),
+                             score.hydroScore(), score.propScore(), score.unitScore());
+    }
+
+    private static String toJsonRow(String mapName, SymmetryScores score) {
+        String escapedName = mapName.replace("\\", "\\\\").replace("\"", "\\\"");
+        return String.format(Locale.ROOT,
+                             "{\"map\":\"%s\",\"symmetry\":\"%s\",\"oddVsEven\":%s,\"terrain\":%.8f,\"spawn\":%.2f,\"mex\":%.2f,\"hydro\":%.2f,\"prop\":%.2f,\"unit\":%.2f}",
+                             escapedName, score.symmetry(), score.oddVsEven(), score.terrainScore(),
+                             score.spawnScore(), score.mexScore(), score.hydroScore(), score.propScore(),
+                             score.unitScore());
+    }
+
+    private enum OutputFormat {
+        CSV, JSON
+    }
+}
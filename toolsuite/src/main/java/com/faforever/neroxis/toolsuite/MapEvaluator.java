@@ -16,17 +16,13 @@ import com.faforever.neroxis.mask.FloatMask;
 import com.faforever.neroxis.mask.IntegerMask;
 import com.faforever.neroxis.mask.Mask;
 import com.faforever.neroxis.util.DebugUtil;
+import com.faforever.neroxis.util.KDTree;
 import com.faforever.neroxis.util.vector.Vector2;
-import com.faforever.neroxis.util.vector.Vector3;
 import picocli.CommandLine;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
@@ -37,19 +33,14 @@ import static picocli.CommandLine.Spec;
 
 @Command(name = "evaluate", mixinStandardHelpOptions = true, description = "Evaluates a map's symmetry error. Higher values represent greater asymmetry", versionProvider = VersionProvider.class, usageHelpAutoWidth = true)
 public class MapEvaluator implements Callable<Integer> {
-    float terrainScore;
-    float spawnScore;
-    float propScore;
-    float mexScore;
-    float hydroScore;
-    float unitScore;
-    boolean oddVsEven;
+    static final List<Symmetry> EVALUATED_SYMMETRIES = Arrays.stream(Symmetry.values())
+                                                             .filter(symmetry -> symmetry.getNumSymPoints() == 2)
+                                                             .toList();
     @Spec
     private CommandLine.Model.CommandSpec spec;
     @Mixin
     private RequiredMapPathMixin requiredMapPathMixin;
     private SCMap map;
-    private FloatMask heightMask;
 
     private static <T extends Mask<?, T>> float getMaskScore(T mask) {
         String visualName = "diff" + mask.getVisualName();
@@ -74,33 +65,32 @@ public class MapEvaluator implements Callable<Integer> {
         return totalError / mask.getSize() / mask.getSize();
     }
 
+    /**
+     * Greedily pair every object with the closest unpaired object to its symmetry point, taking the objects in list
+     * order, and average the distances between symmetry points and partners
+     */
     private static float getPositionedObjectScore(List<? extends PositionedObject> objects, Mask<?, ?> mask) {
         if (objects.isEmpty()) {
             return 0;
         }
 
         float locationScore = 0f;
-        List<Vector3> locations = objects.stream().map(PositionedObject::getPosition).collect(Collectors.toList());
-        Set<Vector3> locationsSet = Collections.newSetFromMap(new IdentityHashMap<>());
-        locationsSet.addAll(locations);
-        while (!locationsSet.isEmpty()) {
-            Vector3 location = locations.remove(0);
-            for (Vector2 symmetryPoint : mask.getSymmetryPointsWithOutOfBounds(location, SymmetryType.SPAWN)) {
-                Vector3 closestLoc = null;
-                float minDist = (float) StrictMath.sqrt(mask.getSize() * mask.getSize());
-                for (Vector3 other : locations) {
-                    float dist = other.getXZDistance(symmetryPoint);
-                    if (dist < minDist) {
-                        closestLoc = other;
-                        minDist = dist;
-                    }
-                }
-                locationsSet.remove(location);
-                if (closestLoc != null) {
-                    locationsSet.remove(closestLoc);
+        List<Vector2> locations = objects.stream().map(object -> new Vector2(object.getPosition())).toList();
+        KDTree unpairedLocations = new KDTree(locations);
+        float maxDistance = (float) StrictMath.sqrt(mask.getSize() * mask.getSize());
+        for (int i = 0; i < locations.size(); i++) {
+            if (unpairedLocations.isRemoved(i)) {
+                continue;
+            }
+            unpairedLocations.remove(i);
+            for (Vector2 symmetryPoint : mask.getSymmetryPointsWithOutOfBounds(locations.get(i), SymmetryType.SPAWN)) {
+                int closestIndex = unpairedLocations.findNearest(symmetryPoint, maxDistance);
+                if (closestIndex != -1) {
+                    unpairedLocations.remove(closestIndex);
+                    locationScore += locations.get(closestIndex).getDistance(symmetryPoint);
+                } else {
+                    locationScore += maxDistance;
                 }
-                locationScore += minDist;
-                locations = new ArrayList<>(locationsSet);
             }
         }
         return locationScore / (objects.size() / 2f);
@@ -162,74 +152,64 @@ public class MapEvaluator implements Callable<Integer> {
     }
 
     private void evaluate() {
-        List<Symmetry> symmetries = Arrays.stream(Symmetry.values())
-                                          .filter(symmetry -> symmetry.getNumSymPoints() == 2)
-                                          .toList();
-        for (Symmetry symmetry : symmetries) {
-            SymmetrySettings symmetrySettings = new SymmetrySettings(symmetry);
-            heightMask = new FloatMask(map.getHeightmap(), null, symmetrySettings, map.getHeightMapScale(),
-                                       "heightMask");
-            evaluateTerrain();
-            evaluateSpawns();
-            evaluateMexes();
-            evaluateHydros();
-            evaluateProps();
-            evaluateUnits();
+        for (Symmetry symmetry : EVALUATED_SYMMETRIES) {
+            SymmetryScores scores = evaluate(map, symmetry);
             System.out.println();
-            System.out.printf("Spawns Odd vs Even for Symmetry %s: %s%n", symmetry, oddVsEven);
-            System.out.printf("Terrain Difference for Symmetry %s: %.8f%n", symmetry, terrainScore);
-            System.out.printf("Spawn Difference for Symmetry %s: %.2f%n", symmetry, spawnScore);
-            System.out.printf("Mex Difference for Symmetry %s: %.2f%n", symmetry, mexScore);
-            System.out.printf("Hydro Difference for Symmetry %s: %.2f%n", symmetry, hydroScore);
-            System.out.printf("Prop Difference for Symmetry %s: %.2f%n", symmetry, propScore);
-            System.out.printf("Unit Difference for Symmetry %s: %.2f%n", symmetry, unitScore);
+            System.out.printf("Spawns Odd vs Even for Symmetry %s: %s%n", symmetry, scores.oddVsEven());
+            System.out.printf("Terrain Difference for Symmetry %s: %.8f%n", symmetry, scores.terrainScore());
+            System.out.printf("Spawn Difference for Symmetry %s: %.2f%n", symmetry, scores.spawnScore());
+            System.out.printf("Mex Difference for Symmetry %s: %.2f%n", symmetry, scores.mexScore());
+            System.out.printf("Hydro Difference for Symmetry %s: %.2f%n", symmetry, scores.hydroScore());
+            System.out.printf("Prop Difference for Symmetry %s: %.2f%n", symmetry, scores.propScore());
+            System.out.printf("Unit Difference for Symmetry %s: %.2f%n", symmetry, scores.unitScore());
         }
     }
 
-    private void evaluateTerrain() {
-        DebugUtil.timedRun("evaluateTerrain", () -> terrainScore = getMaskScore(heightMask));
+    /**
+     * Score how far the map is from the given symmetry. Only reads the map, so several symmetries of the same map
+     * can be evaluated concurrently
+     */
+    static SymmetryScores evaluate(SCMap map, Symmetry symmetry) {
+        FloatMask heightMask = new FloatMask(map.getHeightmap(), null, new SymmetrySettings(symmetry),
+                                             map.getHeightMapScale(), "heightMask");
+        float terrainScore = DebugUtil.timedRun("evaluateTerrain", () -> getMaskScore(heightMask));
+        float spawnScore = DebugUtil.timedRun("evaluateSpawns",
+                                              () -> getPositionedObjectScore(map.getSpawns(), heightMask));
+        boolean oddVsEven = checkSpawnsOddEven(map.getSpawns(), heightMask);
+        float mexScore = DebugUtil.timedRun("evaluateMexes",
+                                            () -> getPositionedObjectScore(map.getMexes(), heightMask));
+        float hydroScore = DebugUtil.timedRun("evaluateHydros",
+                                              () -> getPositionedObjectScore(map.getHydros(), heightMask));
+        float propScore = DebugUtil.timedRun("evaluateProps", () -> getPropScore(map, heightMask));
+        float unitScore = DebugUtil.timedRun("evaluateUnits", () -> getUnitScore(map, heightMask));
+        return new SymmetryScores(symmetry, oddVsEven, terrainScore, spawnScore, mexScore, hydroScore, propScore,
+                                  unitScore);
     }
 
-    private void evaluateSpawns() {
-        DebugUtil.timedRun("evaluateSpawns", () -> {
-            spawnScore = getPositionedObjectScore(map.getSpawns(), heightMask);
-            oddVsEven = checkSpawnsOddEven(map.getSpawns(), heightMask);
-        });
+    private static float getPropScore(SCMap map, FloatMask heightMask) {
+        return (float) map.getProps()
+                          .stream()
+                          .collect(Collectors.groupingBy(Prop::getPath))
+                          .values()
+                          .stream()
+                          .mapToDouble(props -> getPositionedObjectScore(props, heightMask))
+                          .sum();
     }
 
-    private void evaluateMexes() {
-        DebugUtil.timedRun("evaluateMexes", () -> mexScore = getPositionedObjectScore(map.getMexes(), heightMask));
+    private static float getUnitScore(SCMap map, FloatMask heightMask) {
+        return (float) map.getArmies()
+                          .stream()
+                          .flatMap(army -> army.getGroups()
+                                               .stream()
+                                               .flatMap(group -> group.getUnits()
+                                                                      .stream()
+                                                                      .collect(Collectors.groupingBy(Unit::getType))
+                                                                      .values()
+                                                                      .stream()))
+                          .mapToDouble(units -> getPositionedObjectScore(units, heightMask))
+                          .sum();
     }
 
-    private void evaluateHydros() {
-        DebugUtil.timedRun("evaluateHydros", () -> hydroScore = getPositionedObjectScore(map.getHydros(), heightMask));
-    }
-
-    private void evaluateProps() {
-        DebugUtil.timedRun("evaluateProps", () -> propScore = (float) map.getProps()
-                                                                         .stream()
-                                                                         .collect(Collectors.groupingBy(Prop::getPath))
-                                                                         .values()
-                                                                         .stream()
-                                                                         .mapToDouble(props -> getPositionedObjectScore(
-                                                                                 props, heightMask))
-                                                                         .sum());
-    }
-
-    private void evaluateUnits() {
-        DebugUtil.timedRun("evaluateUnits", () -> unitScore = (float) map.getArmies().stream()
-                                                                         .flatMap(army -> army.getGroups()
-                                                                                              .stream()
-                                                                                              .flatMap(
-                                                                                                      group -> group.getUnits()
-                                                                                                                    .stream()
-                                                                                                                    .collect(
-                                                                                                                            Collectors.groupingBy(
-                                                                                                                                    Unit::getType))
-                                                                                                                    .values()
-                                                                                                                    .stream()))
-                                                                         .mapToDouble(units -> getPositionedObjectScore(
-                                                                                 units, heightMask))
-                                                                         .sum());
-    }
+    record SymmetryScores(Symmetry symmetry, boolean oddVsEven, float terrainScore, float spawnScore, float mexScore,
+                          float hydroScore, float propScore, float unitScore) {}
 }